@@ -1,7 +1,10 @@
 package main.rice;
 
 import main.rice.basegen.BaseSetGenerator;
+import main.rice.basegen.DeadlineGenerator;
+import main.rice.basegen.DeadlineResult;
 import main.rice.concisegen.ConciseSetGenerator;
+import main.rice.concisegen.IncrementalCover;
 import main.rice.parse.ConfigFile;
 import main.rice.parse.ConfigFileParser;
 import main.rice.parse.InvalidConfigException;
@@ -10,6 +13,9 @@ import main.rice.test.TestResults;
 import main.rice.test.Tester;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -20,6 +26,17 @@ import java.util.Set;
  */
 public class Main {
 
+    /**
+     * The number of test cases in the warm-up batch of generateTestsWithDeadline().
+     */
+    private static final int WARMUP_TESTS = 5;
+
+    /**
+     * The number of newly caught implementations per random test case below which
+     * generateTestsWithDeadline() stops generating random test cases.
+     */
+    private static final double MIN_RANDOM_YIELD = 0.1;
+
     /**
      * Main method that generates test cases using input arguments;
      * Prints the concise test set
@@ -41,7 +58,11 @@ public class Main {
 
     /**
      * Generates concise test set; helper function for main();
-     * performs end-to-end test case generation
+     * performs end-to-end test case generation. If a fourth argument is given, it is
+     * the path to a state file (see IncrementalCover): if the file exists, only the
+     * implementations that weren't tested by earlier runs are tested, on the test cases
+     * saved in it, and the saved concise set is extended to catch them; either way, the
+     * updated state is saved back to it
      *
      * @param args arguments
      * @return A concise test set
@@ -56,6 +77,10 @@ public class Main {
 
 
         ConfigFile config = ConfigFileParser.parse(ConfigFileParser.readFile(configFilePath));
+        if (args.length > 3) {
+            return generateTestsIncrementally(config, referenceFilePath, buggyFilePath,
+                    Path.of(args[3]));
+        }
 
         BaseSetGenerator baseGenerator = new BaseSetGenerator(config.getNodes(), config.getNumRand());
         Tester testerObj = new Tester(config.getFuncName(), referenceFilePath, buggyFilePath, baseGenerator.genBaseSet());
@@ -63,4 +88,60 @@ public class Main {
         testerObj.computeExpectedResults();
         return ConciseSetGenerator.setCover(testerObj.runTests());
     }
+
+    /**
+     * Generates concise test set within a deadline (see DeadlineGenerator); takes the
+     * same first three arguments as generateTests(), and runs random test cases in
+     * batches of the config's "num random" (or 1, if it's 0) for as long as each batch
+     * catches at least one new implementation per ten test cases and the deadline allows
+     *
+     * @param args         arguments
+     * @param budgetMillis the wall-clock time within which the concise set must be
+     *                     returned, in milliseconds
+     * @return A concise test set, along with how much of the work was done in time
+     * @throws IOException            If there is an error reading the input files.
+     * @throws InvalidConfigException If the configuration file is invalid.
+     * @throws InterruptedException   If the execution is interrupted.
+     */
+    public static DeadlineResult generateTestsWithDeadline(String[] args, long budgetMillis)
+            throws IOException, InvalidConfigException, InterruptedException {
+        ConfigFile config = ConfigFileParser.parse(ConfigFileParser.readFile(args[0]));
+        DeadlineGenerator generator = new DeadlineGenerator(config.getNodes(),
+                Math.max(config.getNumRand(), 1), WARMUP_TESTS, MIN_RANDOM_YIELD,
+                budgetMillis);
+        return generator.generate(tests -> new Tester(config.getFuncName(), args[1],
+                args[2], tests));
+    }
+
+    /**
+     * Generates concise test set incrementally; helper function for generateTests()
+     * when a state file is given
+     *
+     * @param config            the parsed configuration file
+     * @param referenceFilePath the path to the reference solution
+     * @param buggyFilePath     the path to the directory of implementations
+     * @param statePath         the path to the state file, which need not exist yet
+     * @return A concise test set for every implementation tested so far
+     * @throws IOException          If there is an error reading or writing a file.
+     * @throws InterruptedException If the execution is interrupted.
+     */
+    private static Set<TestCase> generateTestsIncrementally(ConfigFile config,
+            String referenceFilePath, String buggyFilePath, Path statePath)
+            throws IOException, InterruptedException {
+        IncrementalCover state;
+        if (Files.exists(statePath)) {
+            state = IncrementalCover.load(statePath);
+        } else {
+            BaseSetGenerator baseGenerator = new BaseSetGenerator(config.getNodes(), config.getNumRand());
+            state = new IncrementalCover(baseGenerator.genBaseSet());
+        }
+
+        Tester testerObj = new Tester(config.getFuncName(), referenceFilePath, buggyFilePath, state.getTests());
+        testerObj.setSkippedFiles(new HashSet<>(state.getFilenames()));
+        testerObj.computeExpectedResults();
+        TestResults results = testerObj.runTests();
+        state.addResults(testerObj.getTestedFiles(), results);
+        state.save(statePath);
+        return state.getCover();
+    }
 }
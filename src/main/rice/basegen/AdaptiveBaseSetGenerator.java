@@ -0,0 +1,224 @@
+package main.rice.basegen;
+
+import main.rice.node.APyNode;
+import main.rice.obj.APyObj;
+import main.rice.test.TestCase;
+import main.rice.test.TestResults;
+import main.rice.test.Tester;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * A generator of the base test set which, rather than generating a fixed number of random
+ * test cases up front, keeps generating (and running) them in batches for as long as
+ * they're worth it. The semi-exhaustive test cases are run first; then each batch of
+ * random test cases is run, and generation stops once a batch catches too few incorrect
+ * files that no earlier test case caught, or once the execution or time budget runs out.
+ * The combined results can be handed to the ConciseSetGenerator, as those of a single
+ * Tester would be.
+ */
+public class AdaptiveBaseSetGenerator {
+
+    /**
+     * The nodes that will be used to perform generation.
+     */
+    private final List<APyNode<?>> nodes;
+
+    /**
+     * The number of random test cases in each batch.
+     */
+    private final int batchSize;
+
+    /**
+     * The number of newly caught incorrect files per random test case below which
+     * generation stops.
+     */
+    private final double minYield;
+
+    /**
+     * The largest number of (test case, file) executions; 0 if there is no limit.
+     */
+    private final long maxExecutions;
+
+    /**
+     * The wall-clock time after which no further batch is started, in milliseconds; 0 if
+     * there is no limit.
+     */
+    private final long budgetMillis;
+
+    /**
+     * The number of newly caught incorrect files per random batch in the last call to
+     * generate(), in the order in which the batches were run.
+     */
+    private final List<Integer> newDetections = new ArrayList<>();
+
+    /**
+     * The number of (test case, file) executions in the last call to generate().
+     */
+    private long numExecutions;
+
+    /**
+     * The number of consecutive duplicates after which the random domain is assumed to be
+     * exhausted, per test case requested.
+     */
+    private static final int MAX_ATTEMPTS_PER_TEST = 100;
+
+    /**
+     * Constructor for an AdaptiveBaseSetGenerator, which initializes the fields.
+     *
+     * @param nodes         the nodes that will be used to perform generation
+     * @param batchSize     the number of random test cases in each batch (e.g. the
+     *                      "num random" of the config file)
+     * @param minYield      the number of newly caught incorrect files per random test
+     *                      case below which generation stops
+     * @param maxExecutions the largest number of (test case, file) executions, or 0 for
+     *                      no limit
+     * @param budgetMillis  the wall-clock time after which no further batch is started,
+     *                      in milliseconds, or 0 for no limit
+     * @throws IllegalArgumentException if the batch size isn't positive, or if any other
+     *                                  argument is negative
+     */
+    public AdaptiveBaseSetGenerator(List<APyNode<?>> nodes, int batchSize, double minYield,
+                                    long maxExecutions, long budgetMillis) {
+        if (batchSize <= 0 || minYield < 0 || maxExecutions < 0 || budgetMillis < 0) {
+            throw new IllegalArgumentException("invalid adaptive generation settings");
+        }
+        this.nodes = nodes;
+        this.batchSize = batchSize;
+        this.minYield = minYield;
+        this.maxExecutions = maxExecutions;
+        this.budgetMillis = budgetMillis;
+    }
+
+    /**
+     * Generates and runs the semi-exhaustive test cases, followed by batches of random
+     * ones until generation stops (as described above), and returns the combined results.
+     * The first batch is always run in full; later batches are shrunk to fit within the
+     * execution budget.
+     *
+     * @param testers a function which returns a Tester for the given test cases, all on
+     *                the same implementations (e.g. configured with a particular backend),
+     *                on which computeExpectedResults() and runTests() are then called
+     * @return the results of running every generated test case, in the order in which
+     * they were generated
+     * @throws IOException if a Tester cannot run its test cases
+     * @throws InterruptedException if a process is interrupted
+     */
+    public TestResults generate(Function<List<TestCase>, Tester> testers)
+            throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + this.budgetMillis * 1_000_000;
+        this.newDetections.clear();
+        this.numExecutions = 0;
+
+        List<TestCase> allTests = new ArrayList<>();
+        List<Set<Integer>> caseToFiles = new ArrayList<>();
+        Set<Integer> wrongSet = new HashSet<>();
+        Set<TestCase> seen = new HashSet<>(new BaseSetGenerator(this.nodes, 0).genExTests());
+        int numFiles = -1;
+        if (!seen.isEmpty()) {
+            numFiles = this.runBatch(new ArrayList<>(seen), testers, allTests, caseToFiles,
+                    wrongSet);
+        }
+
+        while (this.budgetMillis == 0 || System.nanoTime() < deadline) {
+            int size = this.batchSize;
+            if (this.maxExecutions > 0 && numFiles > 0) {
+                size = (int) Math.min(size,
+                        (this.maxExecutions - this.numExecutions) / numFiles);
+            }
+            List<TestCase> batch = size <= 0 ? List.of()
+                    : genRandBatch(this.nodes, size, seen);
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            int numWrong = wrongSet.size();
+            numFiles = this.runBatch(batch, testers, allTests, caseToFiles, wrongSet);
+            int detections = wrongSet.size() - numWrong;
+            this.newDetections.add(detections);
+            if (detections < this.minYield * batch.size()) {
+                break;
+            }
+        }
+        return new TestResults(allTests, caseToFiles, wrongSet);
+    }
+
+    /**
+     * Returns the number of incorrect files that each random batch caught and no earlier
+     * test case did, in the last call to generate().
+     *
+     * @return the number of newly caught files per batch, in the order in which the
+     * batches were run
+     */
+    public List<Integer> getNewDetections() {
+        return this.newDetections;
+    }
+
+    /**
+     * Returns the number of (test case, file) executions in the last call to generate().
+     *
+     * @return the number of executions
+     */
+    public long getNumExecutions() {
+        return this.numExecutions;
+    }
+
+    /**
+     * Runs a batch of test cases and appends its results to the combined ones.
+     *
+     * @param batch       the test cases to be run
+     * @param testers     the function which returns a Tester for the batch
+     * @param allTests    the test cases run so far, which the batch is appended to
+     * @param caseToFiles the files caught by each test case run so far
+     * @param wrongSet    the files caught by any test case run so far
+     * @return the number of files that the batch was run on
+     * @throws IOException if the Tester cannot run the batch
+     * @throws InterruptedException if a process is interrupted
+     */
+    private int runBatch(List<TestCase> batch, Function<List<TestCase>, Tester> testers,
+                         List<TestCase> allTests, List<Set<Integer>> caseToFiles,
+                         Set<Integer> wrongSet) throws IOException, InterruptedException {
+        Tester tester = testers.apply(batch);
+        tester.computeExpectedResults();
+        TestResults results = tester.runTests();
+        allTests.addAll(batch);
+        caseToFiles.addAll(results.getCaseToFiles());
+        wrongSet.addAll(results.getWrongSet());
+
+        int numFiles = tester.getTestedFiles().size();
+        this.numExecutions += (long) batch.size() * numFiles;
+        return numFiles;
+    }
+
+    /**
+     * Randomly generates up to the given number of test cases that haven't been generated
+     * before, according to the random domains stored within the given nodes; fewer if the
+     * random domain seems to be exhausted.
+     *
+     * @param nodes the nodes that will be used to perform generation
+     * @param size  the number of test cases to generate
+     * @param seen  the test cases generated so far, to which the new ones are added
+     * @return the new test cases
+     */
+    static List<TestCase> genRandBatch(List<APyNode<?>> nodes, int size,
+                                       Set<TestCase> seen) {
+        List<TestCase> batch = new ArrayList<>();
+        int attempts = 0;
+        while (batch.size() < size && attempts < MAX_ATTEMPTS_PER_TEST * size) {
+            List<APyObj<?>> args = new ArrayList<>();
+            for (APyNode<?> node : nodes) {
+                args.add(node.genRandVal());
+            }
+            TestCase test = new TestCase(args);
+            if (seen.add(test)) {
+                batch.add(test);
+                attempts = 0;
+            } else {
+                attempts++;
+            }
+        }
+        return batch;
+    }
+}
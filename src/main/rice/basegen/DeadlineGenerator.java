@@ -0,0 +1,285 @@
+package main.rice.basegen;
+
+import main.rice.concisegen.ConciseSetGenerator;
+import main.rice.node.APyNode;
+import main.rice.test.TestCase;
+import main.rice.test.TestResults;
+import main.rice.test.Tester;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * A grader which generates, runs, and reduces test cases within a wall-clock deadline,
+ * always returning the best concise set that it could reach in time. A warm-up batch of
+ * test cases is run on every file first, to estimate the cost of an execution (and so
+ * that every file gets tested, however short the deadline); the estimate, refined after
+ * every batch, is then used to size each further batch so that it ends before the
+ * deadline. The rest of the semi-exhaustive test cases come next, then batches of random
+ * ones, which are only run on the files that no earlier test case caught, since only
+ * those can yield new detections; since correct files are never caught, random
+ * generation stops as soon as a batch catches too few new files (as in
+ * AdaptiveBaseSetGenerator), rather than running until the deadline. Whatever time
+ * remains is spent improving the concise set (see ConciseSetGenerator.exactSetCover()).
+ */
+public class DeadlineGenerator {
+
+    /**
+     * The nodes that will be used to perform generation.
+     */
+    private final List<APyNode<?>> nodes;
+
+    /**
+     * The largest number of test cases in a batch.
+     */
+    private final int batchSize;
+
+    /**
+     * The number of test cases in the warm-up batch.
+     */
+    private final int warmupSize;
+
+    /**
+     * The number of newly caught files per random test case below which random
+     * generation stops.
+     */
+    private final double minYield;
+
+    /**
+     * The wall-clock time within which the concise set must be returned, in
+     * milliseconds.
+     */
+    private final long budgetMillis;
+
+    /**
+     * Constructor for a DeadlineGenerator, which initializes the fields.
+     *
+     * @param nodes        the nodes that will be used to perform generation
+     * @param batchSize    the largest number of test cases in a batch
+     * @param warmupSize   the number of test cases in the warm-up batch
+     * @param minYield     the number of newly caught files per random test case below
+     *                     which random generation stops
+     * @param budgetMillis the wall-clock time within which the concise set must be
+     *                     returned, in milliseconds
+     * @throws IllegalArgumentException if either size isn't positive, or if the yield or
+     *                                  the budget is negative
+     */
+    public DeadlineGenerator(List<APyNode<?>> nodes, int batchSize, int warmupSize,
+                             double minYield, long budgetMillis) {
+        if (batchSize <= 0 || warmupSize <= 0 || minYield < 0 || budgetMillis < 0) {
+            throw new IllegalArgumentException("invalid deadline settings");
+        }
+        this.nodes = nodes;
+        this.batchSize = batchSize;
+        this.warmupSize = warmupSize;
+        this.minYield = minYield;
+        this.budgetMillis = budgetMillis;
+    }
+
+    /**
+     * Grades the implementations within the deadline, as described above. The warm-up
+     * batch is always run, even if it overruns the deadline.
+     *
+     * @param testers a function which returns a Tester for the given test cases, all on
+     *                the same implementations (e.g. configured with a particular backend),
+     *                on which computeExpectedResults() and runTests() are then called
+     * @return the concise set, along with how much of the work was done
+     * @throws IOException if a Tester cannot run its test cases
+     * @throws InterruptedException if a process is interrupted
+     */
+    public DeadlineResult generate(Function<List<TestCase>, Tester> testers)
+            throws IOException, InterruptedException {
+        Schedule schedule = new Schedule(testers,
+                System.nanoTime() + this.budgetMillis * 1_000_000);
+        List<TestCase> exhaustive = new ArrayList<>(
+                new BaseSetGenerator(this.nodes, 0).genExTests());
+        Set<TestCase> seen = new HashSet<>(exhaustive);
+
+        // Warm up on the first few semi-exhaustive test cases (or random ones, if there
+        // are none)
+        int next = Math.min(this.warmupSize, exhaustive.size());
+        if (exhaustive.isEmpty()) {
+            schedule.run(AdaptiveBaseSetGenerator.genRandBatch(this.nodes,
+                    this.warmupSize, seen), false);
+        } else {
+            schedule.run(exhaustive.subList(0, next), false);
+        }
+
+        // Then the rest of the semi-exhaustive test cases, on every file
+        while (next < exhaustive.size()) {
+            int size = Math.min(schedule.fit(schedule.filenames.size()),
+                    Math.min(this.batchSize, exhaustive.size() - next));
+            if (size == 0) {
+                break;
+            }
+            schedule.run(exhaustive.subList(next, next + size), false);
+            next += size;
+        }
+
+        // Then random test cases, on the files that nothing has caught yet
+        while (schedule.wrongSet.size() < schedule.filenames.size()) {
+            int size = Math.min(this.batchSize,
+                    schedule.fit(schedule.filenames.size() - schedule.wrongSet.size()));
+            List<TestCase> batch = size == 0 ? List.of()
+                    : AdaptiveBaseSetGenerator.genRandBatch(this.nodes, size, seen);
+            if (batch.isEmpty()) {
+                break;
+            }
+            int numWrong = schedule.wrongSet.size();
+            schedule.run(batch, true);
+            if (schedule.wrongSet.size() - numWrong < this.minYield * batch.size()) {
+                break;
+            }
+        }
+
+        // Spend whatever time remains on the concise set
+        TestResults results = new TestResults(schedule.allTests, schedule.caseToFiles,
+                schedule.wrongSet);
+        long remainingMillis = (schedule.deadline - System.nanoTime()) / 1_000_000;
+        Set<TestCase> concise = ConciseSetGenerator.exactSetCover(results,
+                Math.max(remainingMillis, 0));
+        return new DeadlineResult(concise, schedule.filenames.size(),
+                schedule.wrongSet.size(), schedule.allTests.size(), exhaustive.size(),
+                next == exhaustive.size(), schedule.numExecutions,
+                schedule.secondsPerExecution());
+    }
+
+    /**
+     * The state of grading within a deadline: the combined results of every batch so
+     * far, and what it cost to get them.
+     */
+    private static class Schedule {
+
+        /**
+         * The function which returns a Tester for each batch.
+         */
+        private final Function<List<TestCase>, Tester> testers;
+
+        /**
+         * The value of System.nanoTime() by which the concise set must be returned.
+         */
+        private final long deadline;
+
+        /**
+         * The test cases run so far, in the order in which they were run.
+         */
+        private final List<TestCase> allTests = new ArrayList<>();
+
+        /**
+         * The files caught by each test case run so far.
+         */
+        private final List<Set<Integer>> caseToFiles = new ArrayList<>();
+
+        /**
+         * The files caught by any test case run so far.
+         */
+        private final Set<Integer> wrongSet = new HashSet<>();
+
+        /**
+         * The names of the files, in the order in which they're indexed (that of the
+         * first batch, which is run on every file).
+         */
+        private final List<String> filenames = new ArrayList<>();
+
+        /**
+         * The number of (test case, file) executions so far.
+         */
+        private long numExecutions;
+
+        /**
+         * The number of executions so far, including those of the reference solution.
+         */
+        private long numUnits;
+
+        /**
+         * The time spent running batches so far, in nanoseconds.
+         */
+        private long elapsedNanos;
+
+        /**
+         * Constructor for a Schedule, which starts out having run nothing.
+         *
+         * @param testers  the function which returns a Tester for each batch
+         * @param deadline the value of System.nanoTime() by which the concise set must
+         *                 be returned
+         */
+        private Schedule(Function<List<TestCase>, Tester> testers, long deadline) {
+            this.testers = testers;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Runs a batch of test cases and appends its results to the combined ones.
+         *
+         * @param batch         the test cases to be run
+         * @param onlyUncaught  true if the batch should only be run on the files that no
+         *                      earlier test case caught; false if it should be run on
+         *                      every file
+         * @throws IOException if the Tester cannot run the batch
+         * @throws InterruptedException if a process is interrupted
+         */
+        private void run(List<TestCase> batch, boolean onlyUncaught)
+                throws IOException, InterruptedException {
+            long start = System.nanoTime();
+            Tester tester = this.testers.apply(batch);
+            if (onlyUncaught) {
+                Set<String> caught = new HashSet<>();
+                for (int file : this.wrongSet) {
+                    caught.add(this.filenames.get(file));
+                }
+                tester.setSkippedFiles(caught);
+            }
+            tester.computeExpectedResults();
+            TestResults results = tester.runTests();
+            List<String> tested = tester.getTestedFiles();
+            if (this.filenames.isEmpty()) {
+                this.filenames.addAll(tested);
+            }
+
+            // Map the files back to their indices in the first batch
+            Map<String, Integer> indices = new HashMap<>();
+            for (int i = 0; i < this.filenames.size(); i++) {
+                indices.put(this.filenames.get(i), i);
+            }
+            this.allTests.addAll(batch);
+            for (Set<Integer> files : results.getCaseToFiles()) {
+                Set<Integer> caught = new HashSet<>();
+                for (int file : files) {
+                    caught.add(indices.get(tested.get(file)));
+                }
+                this.caseToFiles.add(caught);
+                this.wrongSet.addAll(caught);
+            }
+
+            this.numExecutions += (long) batch.size() * tested.size();
+            this.numUnits += (long) batch.size() * (tested.size() + 1);
+            this.elapsedNanos += System.nanoTime() - start;
+        }
+
+        /**
+         * Returns the estimated cost of a single execution so far.
+         *
+         * @return the estimated cost, in seconds
+         */
+        private double secondsPerExecution() {
+            return this.numUnits == 0 ? 0 : this.elapsedNanos / 1e9 / this.numUnits;
+        }
+
+        /**
+         * Returns the number of test cases that can be run on the given number of files
+         * (and on the reference solution) before the deadline, at the estimated cost.
+         *
+         * @param numFiles the number of files
+         * @return the number of test cases that fit before the deadline
+         */
+        private int fit(int numFiles) {
+            long remaining = this.deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return 0;
+            }
+            double nanosPerTest = this.secondsPerExecution() * 1e9 * (numFiles + 1);
+            return (int) Math.min(Integer.MAX_VALUE, remaining / Math.max(nanosPerTest, 1));
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package main.rice.basegen;
+
+import main.rice.test.TestCase;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The outcome of grading within a deadline (see DeadlineGenerator): the concise set of
+ * test cases, and how much of the grading work was done before the deadline.
+ */
+public class DeadlineResult {
+
+    /**
+     * The concise set of test cases.
+     */
+    private final Set<TestCase> testCases;
+
+    /**
+     * The number of files tested.
+     */
+    private final int numFiles;
+
+    /**
+     * The number of files caught by at least one test case.
+     */
+    private final int numCaught;
+
+    /**
+     * The number of test cases run.
+     */
+    private final int numTestsRun;
+
+    /**
+     * The number of semi-exhaustive test cases, whether or not they were all run.
+     */
+    private final int numExhaustive;
+
+    /**
+     * Whether every semi-exhaustive test case was run.
+     */
+    private final boolean exhaustiveCompleted;
+
+    /**
+     * The number of (test case, file) executions.
+     */
+    private final long numExecutions;
+
+    /**
+     * The estimated cost of a single execution, in seconds.
+     */
+    private final double secondsPerExecution;
+
+    /**
+     * Constructor for a DeadlineResult; initializes all fields.
+     *
+     * @param testCases           the concise set of test cases
+     * @param numFiles            the number of files tested
+     * @param numCaught           the number of files caught by at least one test case
+     * @param numTestsRun         the number of test cases run
+     * @param numExhaustive       the number of semi-exhaustive test cases
+     * @param exhaustiveCompleted whether every semi-exhaustive test case was run
+     * @param numExecutions       the number of (test case, file) executions
+     * @param secondsPerExecution the estimated cost of a single execution, in seconds
+     */
+    public DeadlineResult(Set<TestCase> testCases, int numFiles, int numCaught,
+                          int numTestsRun, int numExhaustive, boolean exhaustiveCompleted,
+                          long numExecutions, double secondsPerExecution) {
+        this.testCases = testCases;
+        this.numFiles = numFiles;
+        this.numCaught = numCaught;
+        this.numTestsRun = numTestsRun;
+        this.numExhaustive = numExhaustive;
+        this.exhaustiveCompleted = exhaustiveCompleted;
+        this.numExecutions = numExecutions;
+        this.secondsPerExecution = secondsPerExecution;
+    }
+
+    /**
+     * Returns the concise set of test cases, which catches every file caught by any test
+     * case that was run.
+     *
+     * @return the concise set of test cases
+     */
+    public Set<TestCase> getTestCases() {
+        return this.testCases;
+    }
+
+    /**
+     * Returns the number of files tested.
+     *
+     * @return the number of files
+     */
+    public int getNumFiles() {
+        return this.numFiles;
+    }
+
+    /**
+     * Returns the number of files caught by at least one test case.
+     *
+     * @return the number of caught files
+     */
+    public int getNumCaught() {
+        return this.numCaught;
+    }
+
+    /**
+     * Returns the number of test cases run.
+     *
+     * @return the number of test cases run
+     */
+    public int getNumTestsRun() {
+        return this.numTestsRun;
+    }
+
+    /**
+     * Returns the number of semi-exhaustive test cases, whether or not they were all run.
+     *
+     * @return the number of semi-exhaustive test cases
+     */
+    public int getNumExhaustive() {
+        return this.numExhaustive;
+    }
+
+    /**
+     * Returns whether every semi-exhaustive test case was run before the deadline.
+     *
+     * @return true if every semi-exhaustive test case was run; false otherwise
+     */
+    public boolean isExhaustiveCompleted() {
+        return this.exhaustiveCompleted;
+    }
+
+    /**
+     * Returns the number of (test case, file) executions.
+     *
+     * @return the number of executions
+     */
+    public long getNumExecutions() {
+        return this.numExecutions;
+    }
+
+    /**
+     * Returns the estimated cost of a single execution, from which the work was
+     * scheduled.
+     *
+     * @return the estimated cost of an execution, in seconds
+     */
+    public double getSecondsPerExecution() {
+        return this.secondsPerExecution;
+    }
+
+    /**
+     * Returns a one-line summary of the grading.
+     *
+     * @return a summary of the grading
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%d test cases catch %d of %d files; ran %d test "
+                + "cases (%s exhaustive) in %d executions at %.3f ms each",
+                this.testCases.size(), this.numCaught, this.numFiles, this.numTestsRun,
+                this.exhaustiveCompleted ? "all" : "not all", this.numExecutions,
+                this.secondsPerExecution * 1000);
+    }
+}
@@ -4,51 +4,244 @@ import main.rice.test.TestCase;
 import main.rice.test.TestResults;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.IntStream;
 
 /**
  * Stateless class that is a wrapper for a greedy approximation of the set cover
- * algorithm. Running the hitting set algorithm on the results of testing yields a
- * "concise" (approximately minimal) set of test cases that still catches every known
- * (based on the base test set) incorrect implementation.
+ * algorithm (and for exact, time-bounded alternatives to it, by size or by runtime).
+ * Running the hitting set algorithm on the results of testing yields a "concise"
+ * (approximately minimal) set of test cases that still catches every known (based on
+ * the base test set) incorrect implementation.
  */
 public class ConciseSetGenerator {
 
+    /**
+     * The cost (in seconds) given to test cases whose runtime isn't positive, so that
+     * the number of files they catch per second is still finite.
+     */
+    private static final double MIN_COST = 1e-9;
+
+    /**
+     * The number of words (of candidate columns) below which the gains of the candidates
+     * are computed sequentially, since splitting the work between threads would cost
+     * more than it saves.
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 15;
+
     /**
      * A greedy approximation of the set cover algorithm. Given a set of incorrect
      * implementations (S), a set of test cases (B), and list "mapping" each test case
      * (index i) to the set of implementations (Si) that it caught -- all contained within
      * results --, finds an approximately minimal subset of B (M) such that all of the
-     * incorrect implementations are caught by at least one element in M.
+     * incorrect implementations are caught by at least one element in M. If some
+     * implementations behaved nondeterministically, each test case is instead weighed by
+     * the sum of its failure frequencies on the uncovered files, so that among tests that
+     * catch them, those that catch them reliably are preferred. Otherwise, test cases
+     * that the greedy algorithm would never choose (see CoverReduction.reduceForGreedy())
+     * are dropped up front, which doesn't change the result, and the number of new files
+     * caught by each remaining test case is counted over bitsets, in parallel on large
+     * instances; ties still go to the first test case.
      *
      * @param results the results of running all tests in B on all files in S
      * @return M, a set of test cases that is an approximately minimal set covering
      */
     public static Set<TestCase> setCover(TestResults results) {
+        return toTestCases(results, greedyCover(results));
+    }
 
-        // Initialize the structure to return
+    /**
+     * An exact (anytime) version of the set cover algorithm: finds a minimum subset of B
+     * such that all of the incorrect implementations are caught by at least one element
+     * in it, by branch and bound (see ExactCover) over the reduced instance (see
+     * CoverReduction.reduce()), starting from the greedy cover. If the time budget runs
+     * out first, the smallest cover found so far is returned, which is never larger
+     * than the greedy cover (and is the greedy cover itself if the budget is 0). Unlike
+     * setCover(), this only minimizes the number of test cases, ignoring any failure
+     * frequencies.
+     *
+     * @param results      the results of running all tests in B on all files in S
+     * @param budgetMillis the maximum time to spend searching, in milliseconds
+     * @return a set of test cases that is a minimum set covering, if the search finished
+     * within the budget; the smallest set covering found otherwise
+     */
+    public static Set<TestCase> exactSetCover(TestResults results, long budgetMillis) {
+        long deadline = System.nanoTime() + budgetMillis * 1_000_000;
+        List<Integer> greedy = greedyCover(results);
+        if (budgetMillis <= 0) {
+            return toTestCases(results, greedy);
+        }
+        CoverReduction reduction = CoverReduction.reduce(results.getCaseToFiles(),
+                results.getWrongSet());
+        return toTestCases(results, ExactCover.solve(reduction, greedy, deadline));
+    }
+
+    /**
+     * A runtime-weighted version of the set cover algorithm: finds a subset of B that
+     * catches all of the incorrect implementations and takes as little time to run as
+     * possible, given the expected runtime of each test case (e.g. the reference
+     * solution's, from Tester.getReferenceTimes(), plus any fixed overhead per test
+     * case). Test cases are first chosen greedily by the number of new files caught per
+     * second, then any test case made redundant by later ones is dropped (the most
+     * expensive first), and finally the result is improved by branch and bound (see
+     * ExactCover) over the reduced instance until the time budget runs out. Runtimes
+     * that aren't positive are treated as negligible but non-zero, so that a test case
+     * that catches nothing new is never chosen.
+     *
+     * @param results      the results of running all tests in B on all files in S
+     * @param runtimes     a list where the i-th element is the expected runtime of the
+     *                     i-th test case, in seconds
+     * @param budgetMillis the maximum time to spend searching, in milliseconds
+     * @return the cover with the least total runtime, if the search finished within the
+     * budget; the cheapest cover found otherwise, along with its total runtime
+     * @throws IllegalArgumentException if there isn't exactly one runtime per test case
+     */
+    public static WeightedCover weightedSetCover(TestResults results,
+                                                 List<Double> runtimes,
+                                                 long budgetMillis) {
+        long deadline = System.nanoTime() + budgetMillis * 1_000_000;
+        List<Set<Integer>> allCaseToFiles = results.getCaseToFiles();
+        if (runtimes.size() != allCaseToFiles.size()) {
+            throw new IllegalArgumentException("Expected " + allCaseToFiles.size()
+                    + " runtimes but got " + runtimes.size());
+        }
+        double[] costs = new double[runtimes.size()];
+        for (int i = 0; i < costs.length; i++) {
+            costs[i] = Math.max(runtimes.get(i), MIN_COST);
+        }
+
+        // Greedily choose the test case that catches the most new files per second
+        List<Integer> cover = new ArrayList<>();
+        Set<Integer> uncovered = new HashSet<>(results.getWrongSet());
+        while (!uncovered.isEmpty()) {
+            double maxRatio = 0;
+            int caseOfMaxRatio = -1;
+            for (int caseIndex = 0; caseIndex < costs.length; caseIndex++) {
+                int caught = 0;
+                for (int file : allCaseToFiles.get(caseIndex)) {
+                    if (uncovered.contains(file)) {
+                        caught++;
+                    }
+                }
+                if (caught / costs[caseIndex] > maxRatio) {
+                    maxRatio = caught / costs[caseIndex];
+                    caseOfMaxRatio = caseIndex;
+                }
+            }
+            if (caseOfMaxRatio < 0) {
+                // The remaining files are caught by nothing
+                break;
+            }
+            uncovered.removeAll(allCaseToFiles.get(caseOfMaxRatio));
+            cover.add(caseOfMaxRatio);
+        }
+
+        // Drop test cases whose files are all caught by others, the most expensive first
+        cover.sort(Comparator.comparingDouble((Integer caseIndex) -> -costs[caseIndex])
+                .thenComparing(Comparator.naturalOrder()));
+        Map<Integer, Integer> timesCaught = new HashMap<>();
+        for (int caseIndex : cover) {
+            for (int file : allCaseToFiles.get(caseIndex)) {
+                timesCaught.merge(file, 1, Integer::sum);
+            }
+        }
+        List<Integer> greedy = new ArrayList<>();
+        for (int caseIndex : cover) {
+            boolean redundant = true;
+            for (int file : allCaseToFiles.get(caseIndex)) {
+                redundant &= !results.getWrongSet().contains(file)
+                        || timesCaught.get(file) > 1;
+            }
+            if (redundant) {
+                for (int file : allCaseToFiles.get(caseIndex)) {
+                    timesCaught.merge(file, -1, Integer::sum);
+                }
+            } else {
+                greedy.add(caseIndex);
+            }
+        }
+
+        List<Integer> best = greedy;
+        if (budgetMillis > 0) {
+            CoverReduction reduction = CoverReduction.reduce(allCaseToFiles,
+                    results.getWrongSet(), costs);
+            best = ExactCover.solve(reduction, greedy, costs, deadline);
+        }
+        double totalRuntime = 0;
+        for (int caseIndex : best) {
+            totalRuntime += runtimes.get(caseIndex);
+        }
+        return new WeightedCover(toTestCases(results, best), totalRuntime);
+    }
+
+    /**
+     * Converts the indices of test cases into the test cases themselves.
+     *
+     * @param results     the results of testing, containing the test cases
+     * @param caseIndices the indices of the test cases
+     * @return the set of test cases with the given indices
+     */
+    private static Set<TestCase> toTestCases(TestResults results,
+                                             List<Integer> caseIndices) {
         HashSet<TestCase> hittingSet = new HashSet<>();
+        for (int caseIndex : caseIndices) {
+            hittingSet.add(results.getTestCase(caseIndex));
+        }
+        return hittingSet;
+    }
+
+    /**
+     * Runs the greedy algorithm described by setCover().
+     *
+     * @param results the results of testing
+     * @return the indices of the chosen test cases, in the order in which they were
+     * chosen
+     */
+    static List<Integer> greedyCover(TestResults results) {
+        if (results.getNondeterministicFiles().isEmpty()) {
+            // Only consider the test cases that could ever be chosen
+            return bitsetGreedyCover(results, CoverReduction.reduceForGreedy(
+                    results.getCaseToFiles(), results.getWrongSet()).getRemaining());
+        }
+
+        // Initialize the structure to return
+        List<Integer> hittingSet = new ArrayList<>();
+
+        // When weighing by failure frequencies, a test case that catches fewer files may
+        // still be chosen, so consider them all
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < results.getCaseToFiles().size(); i++) {
+            candidates.add(i);
+        }
 
         // We'll be mutating both caseToFiles and wrongSet, so make copies
-        List<Set<Integer>> caseToFiles = new ArrayList<>();
-        for (Set<Integer> set : results.getCaseToFiles()) {
-            caseToFiles.add(new HashSet<>(set));
+        Map<Integer, Set<Integer>> caseToFiles = new HashMap<>();
+        for (int caseIndex : candidates) {
+            caseToFiles.put(caseIndex, new HashSet<>(results.getCaseToFiles()
+                    .get(caseIndex)));
         }
         Set<Integer> wrongSet = new HashSet<>(results.getWrongSet());
 
         // Select tests until we've "covered" every program that was initially in the
         // wrong set
         while (wrongSet.size() > 0) {
-            int maxFilesCaught = 0;
+            double maxFilesCaught = 0;
             int caseOfMaxFiles = -1;
 
             // Find the test case that covers the most heretofore-uncovered files
-            for (int caseIndex = 0; caseIndex < caseToFiles.size(); caseIndex++) {
+            for (int caseIndex : candidates) {
                 Set<Integer> filesCaught = caseToFiles.get(caseIndex);
-                if (filesCaught.size() > maxFilesCaught) {
-                    maxFilesCaught = filesCaught.size();
+                double caught = 0;
+                for (int file : filesCaught) {
+                    caught += results.getFailureRate(caseIndex, file);
+                }
+                if (caught > maxFilesCaught) {
+                    maxFilesCaught = caught;
                     caseOfMaxFiles = caseIndex;
                 }
             }
@@ -60,15 +253,113 @@ public class ConciseSetGenerator {
 
             // Update the caseToFiles mapping such that the set of files caught by each
             // test no longer includes the newly-covered files
-            for (Set<Integer> filesCaught : caseToFiles) {
+            for (Set<Integer> filesCaught : caseToFiles.values()) {
                 filesCaught.removeAll(coveredFiles);
             }
 
             // Add the selected test case to the hitting set
-            hittingSet.add(results.getTestCase(caseOfMaxFiles));
+            hittingSet.add(caseOfMaxFiles);
         }
 
         // Return the hitting set
         return hittingSet;
     }
+
+    /**
+     * Runs the (unweighted) greedy algorithm described by setCover() over the given
+     * candidates, with the files caught by each as a bitset of long words, so that the
+     * number of new files it catches is a popcount of its words and'ed with those of the
+     * uncovered files. On large instances, these counts are computed in parallel (on the
+     * common fork-join pool), but the test case chosen is always the first (in the order
+     * of candidates) to catch the most new files, exactly as if they were computed
+     * sequentially. Candidates that stop catching new files are dropped as the search
+     * goes on.
+     *
+     * @param results    the results of testing
+     * @param candidates the indices of the test cases that may be chosen, in ascending
+     *                   order
+     * @return the indices of the chosen test cases, in the order in which they were
+     * chosen
+     */
+    private static List<Integer> bitsetGreedyCover(TestResults results,
+                                                   List<Integer> candidates) {
+        // Number the files to be covered densely, so that the bitsets are no longer
+        // than they need to be
+        Map<Integer, Integer> fileBits = new HashMap<>();
+        for (int file : results.getWrongSet()) {
+            fileBits.put(file, fileBits.size());
+        }
+        int numWords = (fileBits.size() + 63) / 64;
+        long[] uncovered = new long[numWords];
+        for (int bit = 0; bit < fileBits.size(); bit++) {
+            uncovered[bit / 64] |= 1L << bit;
+        }
+        long[][] columns = new long[candidates.size()][numWords];
+        for (int position = 0; position < candidates.size(); position++) {
+            for (int file : results.getCaseToFiles().get(candidates.get(position))) {
+                Integer bit = fileBits.get(file);
+                if (bit != null) {
+                    columns[position][bit / 64] |= 1L << bit;
+                }
+            }
+        }
+
+        List<Integer> hittingSet = new ArrayList<>();
+        int[] active = IntStream.range(0, candidates.size()).toArray();
+        int numActive = active.length;
+        int[] gains = new int[numActive];
+        int numUncovered = fileBits.size();
+        while (numUncovered > 0) {
+            int[] positions = active;
+            if ((long) numActive * numWords >= PARALLEL_THRESHOLD) {
+                IntStream.range(0, numActive).parallel().forEach(i ->
+                        gains[i] = gain(columns[positions[i]], uncovered));
+            } else {
+                for (int i = 0; i < numActive; i++) {
+                    gains[i] = gain(columns[positions[i]], uncovered);
+                }
+            }
+
+            // Find the first candidate with the greatest gain, dropping those with none
+            int maxGain = 0;
+            int best = -1;
+            int numKept = 0;
+            for (int i = 0; i < numActive; i++) {
+                if (gains[i] > maxGain) {
+                    maxGain = gains[i];
+                    best = active[i];
+                }
+                if (gains[i] > 0) {
+                    active[numKept++] = active[i];
+                }
+            }
+            numActive = numKept;
+            if (best < 0) {
+                // The remaining files are caught by nothing
+                break;
+            }
+
+            for (int word = 0; word < numWords; word++) {
+                uncovered[word] &= ~columns[best][word];
+            }
+            numUncovered -= maxGain;
+            hittingSet.add(candidates.get(best));
+        }
+        return hittingSet;
+    }
+
+    /**
+     * Counts the files caught by a test case that remain uncovered.
+     *
+     * @param column    the files caught by the test case, as a bitset
+     * @param uncovered the files that remain uncovered, as a bitset
+     * @return the number of files in both
+     */
+    private static int gain(long[] column, long[] uncovered) {
+        int gain = 0;
+        for (int word = 0; word < column.length; word++) {
+            gain += Long.bitCount(column[word] & uncovered[word]);
+        }
+        return gain;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,339 @@
+package main.rice.concisegen;
+
+import java.util.*;
+
+/**
+ * The result of reducing a set cover instance (test cases, as columns, that each catch a
+ * set of files) before solving it. Reduction collapses test cases that catch exactly the
+ * same files into one (keeping the first), drops test cases that catch only a subset of
+ * the files caught by another, and (optionally) forces in every test case that is the
+ * only one catching some file, repeating until nothing more changes. The test cases that
+ * remain usually number far fewer than the original ones, and any cover of the remaining
+ * files by the remaining test cases, together with the forced ones, covers every file.
+ */
+public class CoverReduction {
+
+    /**
+     * The indices of the test cases that must be in every cover, in ascending order.
+     */
+    private final List<Integer> essential;
+
+    /**
+     * The indices of the test cases that remain to choose from, in ascending order.
+     */
+    private final List<Integer> remaining;
+
+    /**
+     * The files caught by each remaining test case that aren't caught by any essential
+     * one, keyed by the index of the test case.
+     */
+    private final Map<Integer, BitSet> columns;
+
+    /**
+     * The files that remain to be covered once the essential test cases are chosen.
+     */
+    private final BitSet uncovered;
+
+    /**
+     * Constructor for a CoverReduction; initializes all fields.
+     *
+     * @param essential the indices of the test cases that must be in every cover
+     * @param remaining the indices of the test cases that remain to choose from
+     * @param columns   the files caught by each remaining test case that remain to be
+     *                  covered
+     * @param uncovered the files that remain to be covered
+     */
+    private CoverReduction(List<Integer> essential, List<Integer> remaining,
+                           Map<Integer, BitSet> columns, BitSet uncovered) {
+        this.essential = essential;
+        this.remaining = remaining;
+        this.columns = columns;
+        this.uncovered = uncovered;
+    }
+
+    /**
+     * Fully reduces the given instance: collapses identical test cases, drops dominated
+     * ones, and forces in essential ones, until nothing more changes. Every minimum cover
+     * of the reduced instance, together with the essential test cases, is a minimum cover
+     * of the original instance. Files that no test case catches are ignored.
+     *
+     * @param caseToFiles a list where the i-th element is the set of files caught by the
+     *                    i-th test case
+     * @param wrongSet    the set of files to be covered
+     * @return the reduced instance
+     */
+    public static CoverReduction reduce(List<Set<Integer>> caseToFiles,
+                                        Set<Integer> wrongSet) {
+        return reduce(caseToFiles, wrongSet, null);
+    }
+
+    /**
+     * Fully reduces the given instance, as described by reduce(), for minimizing the
+     * total cost of the cover rather than its size: a test case is only dropped in favor
+     * of another if that one costs no more, and of identical test cases, the cheapest
+     * (and then the first) is kept. Every minimum-cost cover of the reduced instance,
+     * together with the essential test cases, is a minimum-cost cover of the original
+     * instance.
+     *
+     * @param caseToFiles a list where the i-th element is the set of files caught by the
+     *                    i-th test case
+     * @param wrongSet    the set of files to be covered
+     * @param costs       an array where the i-th element is the cost of the i-th test
+     *                    case, or null if every test case costs the same
+     * @return the reduced instance
+     */
+    public static CoverReduction reduce(List<Set<Integer>> caseToFiles,
+                                        Set<Integer> wrongSet, double[] costs) {
+        BitSet uncovered = toBitSet(wrongSet);
+        Map<Integer, BitSet> columns = new TreeMap<>();
+        for (int i = 0; i < caseToFiles.size(); i++) {
+            BitSet column = toBitSet(caseToFiles.get(i));
+            column.and(uncovered);
+            columns.put(i, column);
+        }
+
+        // Files that nothing catches can't be covered, so don't try
+        BitSet coverable = new BitSet();
+        for (BitSet column : columns.values()) {
+            coverable.or(column);
+        }
+        uncovered.and(coverable);
+
+        List<Integer> essential = new ArrayList<>();
+        while (true) {
+            dropDominated(columns, false, costs);
+
+            // A file caught by only one test case forces that test case in
+            int[] counts = new int[uncovered.length()];
+            int[] catchers = new int[uncovered.length()];
+            for (Map.Entry<Integer, BitSet> entry : columns.entrySet()) {
+                BitSet column = entry.getValue();
+                for (int file = column.nextSetBit(0); file >= 0;
+                     file = column.nextSetBit(file + 1)) {
+                    counts[file]++;
+                    catchers[file] = entry.getKey();
+                }
+            }
+            BitSet forced = new BitSet();
+            for (int file = uncovered.nextSetBit(0); file >= 0;
+                 file = uncovered.nextSetBit(file + 1)) {
+                if (counts[file] == 1 && !forced.get(catchers[file])) {
+                    forced.set(catchers[file]);
+                    uncovered.andNot(columns.get(catchers[file]));
+                }
+            }
+            if (forced.isEmpty()) {
+                break;
+            }
+
+            // The files caught by the forced test cases no longer need covering
+            for (int caseIndex = forced.nextSetBit(0); caseIndex >= 0;
+                 caseIndex = forced.nextSetBit(caseIndex + 1)) {
+                essential.add(caseIndex);
+                columns.remove(caseIndex);
+            }
+            for (BitSet column : columns.values()) {
+                column.and(uncovered);
+            }
+        }
+
+        Collections.sort(essential);
+        return new CoverReduction(essential, new ArrayList<>(columns.keySet()), columns,
+                uncovered);
+    }
+
+    /**
+     * Reduces the given instance only as far as doesn't change what the greedy algorithm
+     * (see ConciseSetGenerator.setCover()) chooses: drops every test case that catches
+     * nothing, or only a subset of the files caught by an earlier test case (including
+     * the same files). Such a test case can never catch more new files than the earlier
+     * one, which wins ties, so the greedy algorithm never chooses it. Nothing is forced
+     * in.
+     *
+     * @param caseToFiles a list where the i-th element is the set of files caught by the
+     *                    i-th test case
+     * @param wrongSet    the set of files to be covered
+     * @return the reduced instance
+     */
+    public static CoverReduction reduceForGreedy(List<Set<Integer>> caseToFiles,
+                                                 Set<Integer> wrongSet) {
+        Map<Integer, BitSet> columns = new TreeMap<>();
+        for (int i = 0; i < caseToFiles.size(); i++) {
+            columns.put(i, toBitSet(caseToFiles.get(i)));
+        }
+        dropDominated(columns, true, null);
+        return new CoverReduction(new ArrayList<>(), new ArrayList<>(columns.keySet()),
+                columns, toBitSet(wrongSet));
+    }
+
+    /**
+     * Returns the indices of the test cases that must be in every cover.
+     *
+     * @return the indices of the essential test cases, in ascending order
+     */
+    public List<Integer> getEssential() {
+        return this.essential;
+    }
+
+    /**
+     * Returns the indices of the test cases that remain to choose from.
+     *
+     * @return the indices of the remaining test cases, in ascending order
+     */
+    public List<Integer> getRemaining() {
+        return this.remaining;
+    }
+
+    /**
+     * Returns the files that the given remaining test case catches and that remain to be
+     * covered.
+     *
+     * @param caseIndex the index of a remaining test case
+     * @return the files it catches that remain to be covered
+     */
+    public BitSet getColumn(int caseIndex) {
+        return this.columns.get(caseIndex);
+    }
+
+    /**
+     * Returns the files that remain to be covered once the essential test cases are
+     * chosen.
+     *
+     * @return the files that remain to be covered
+     */
+    public BitSet getUncovered() {
+        return this.uncovered;
+    }
+
+    /**
+     * Drops every column that is empty, or that is a subset of another column: one that
+     * is larger, or the same size (and hence equal) but earlier. If earlierOnly, a column
+     * is only dropped if it's a subset of an earlier one. Identical columns are found by
+     * hashing, and candidates for containing a column are found through the test cases
+     * that catch its least-caught file, so that most pairs are never compared. Since
+     * containment is transitive, a column is dropped if and only if it's dominated by
+     * one that's kept. If the test cases have costs, a column is only dominated by one
+     * that costs no more, and of identical columns, the cheapest (and then the first) is
+     * kept.
+     *
+     * @param columns     the columns, keyed by the index of their test case; modified
+     *                    in place
+     * @param earlierOnly true if a column may only be dominated by an earlier one
+     * @param costs       the cost of each test case, or null if they all cost the same
+     */
+    private static void dropDominated(Map<Integer, BitSet> columns, boolean earlierOnly,
+                                      double[] costs) {
+        // Collapse identical columns into the first (cheapest) of them
+        Map<BitSet, Integer> keptIndices = new HashMap<>();
+        List<Integer> duplicates = new ArrayList<>();
+        for (Map.Entry<Integer, BitSet> entry : columns.entrySet()) {
+            int caseIndex = entry.getKey();
+            if (entry.getValue().isEmpty()) {
+                duplicates.add(caseIndex);
+                continue;
+            }
+            Integer kept = keptIndices.putIfAbsent(entry.getValue(), caseIndex);
+            if (kept != null && costs != null && costs[caseIndex] < costs[kept]) {
+                keptIndices.put(entry.getValue(), caseIndex);
+                duplicates.add(kept);
+            } else if (kept != null) {
+                duplicates.add(caseIndex);
+            }
+        }
+        for (int caseIndex : duplicates) {
+            columns.remove(caseIndex);
+        }
+
+        // Index the (distinct) columns by the files they catch, keeping the columns and
+        // their sizes in arrays, since they're looked up for every candidate pair
+        int numCases = columns.isEmpty() ? 0 : Collections.max(columns.keySet()) + 1;
+        BitSet[] byIndex = new BitSet[numCases];
+        int[] cardinalities = new int[numCases];
+        int numFiles = 0;
+        for (Map.Entry<Integer, BitSet> entry : columns.entrySet()) {
+            byIndex[entry.getKey()] = entry.getValue();
+            cardinalities[entry.getKey()] = entry.getValue().cardinality();
+            numFiles = Math.max(numFiles, entry.getValue().length());
+        }
+        int[] numCatchers = new int[numFiles];
+        for (BitSet column : byIndex) {
+            for (int file = column == null ? -1 : column.nextSetBit(0); file >= 0;
+                 file = column.nextSetBit(file + 1)) {
+                numCatchers[file]++;
+            }
+        }
+        int[][] fileToCases = new int[numFiles][];
+        for (int file = 0; file < numFiles; file++) {
+            fileToCases[file] = new int[numCatchers[file]];
+            numCatchers[file] = 0;
+        }
+        for (int caseIndex = 0; caseIndex < numCases; caseIndex++) {
+            BitSet column = byIndex[caseIndex];
+            for (int file = column == null ? -1 : column.nextSetBit(0); file >= 0;
+                 file = column.nextSetBit(file + 1)) {
+                fileToCases[file][numCatchers[file]++] = caseIndex;
+            }
+        }
+
+        // Drop each column contained in a larger one
+        List<Integer> dominated = new ArrayList<>();
+        for (int caseIndex = 0; caseIndex < numCases; caseIndex++) {
+            BitSet column = byIndex[caseIndex];
+            if (column == null) {
+                continue;
+            }
+            int[] candidates = null;
+            for (int file = column.nextSetBit(0); file >= 0;
+                 file = column.nextSetBit(file + 1)) {
+                if (candidates == null || fileToCases[file].length < candidates.length) {
+                    candidates = fileToCases[file];
+                }
+            }
+            for (int other : candidates) {
+                if ((earlierOnly && other > caseIndex)
+                        || cardinalities[other] <= cardinalities[caseIndex]
+                        || (costs != null && costs[other] > costs[caseIndex])) {
+                    continue;
+                }
+                if (isSubset(column, byIndex[other])) {
+                    dominated.add(caseIndex);
+                    break;
+                }
+            }
+        }
+        for (int caseIndex : dominated) {
+            columns.remove(caseIndex);
+        }
+    }
+
+    /**
+     * Returns whether one bitset is a subset of another, checking bit by bit so that
+     * (as is usual) a bitset that isn't a subset is rejected early.
+     *
+     * @param subset   the potential subset
+     * @param superset the potential superset
+     * @return true if every bit set in subset is set in superset; false otherwise
+     */
+    private static boolean isSubset(BitSet subset, BitSet superset) {
+        for (int i = subset.nextSetBit(0); i >= 0; i = subset.nextSetBit(i + 1)) {
+            if (!superset.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Converts a set of non-negative integers into a bitset.
+     *
+     * @param set the set to be converted
+     * @return a bitset with exactly the bits in set set
+     */
+    private static BitSet toBitSet(Set<Integer> set) {
+        BitSet bits = new BitSet();
+        for (int i : set) {
+            bits.set(i);
+        }
+        return bits;
+    }
+}
@@ -0,0 +1,287 @@
+package main.rice.concisegen;
+
+import java.util.*;
+
+/**
+ * A branch-and-bound solver for (reduced) set cover instances, used by
+ * ConciseSetGenerator.exactSetCover() and weightedSetCover(), which minimizes the total
+ * cost of the cover (by default, every test case costs 1, so that its size is
+ * minimized). The search repeatedly picks the uncovered file caught by the fewest test
+ * cases and branches on which of those test cases covers it, pruning any branch that
+ * can't beat the best cover found so far according to two LP-free lower bounds: the
+ * number of uncovered files divided by the most that any test case can still catch
+ * (times the cost of the cheapest test case), and the total cost of the cheapest test
+ * case catching each of a set of uncovered files no two of which are caught by the same
+ * test case (each of which needs a test case of its own).
+ */
+class ExactCover {
+
+    /**
+     * The indices of the test cases that may be chosen.
+     */
+    private final int[] caseIndices;
+
+    /**
+     * The files caught by each test case that may be chosen, where the i-th element
+     * belongs to the test case whose index is caseIndices[i].
+     */
+    private final BitSet[] columns;
+
+    /**
+     * The cost of each test case that may be chosen, where the i-th element belongs to
+     * the test case whose index is caseIndices[i].
+     */
+    private final double[] costs;
+
+    /**
+     * For each file, the positions (in columns) of the test cases that catch it.
+     */
+    private final int[][] fileToColumns;
+
+    /**
+     * The value of System.nanoTime() after which the search gives up.
+     */
+    private final long deadline;
+
+    /**
+     * The positions (in columns) of the test cases chosen on the current branch.
+     */
+    private final int[] chosen;
+
+    /**
+     * The cost of the best cover (of the reduced instance) found so far.
+     */
+    private double bestCost;
+
+    /**
+     * The positions (in columns) of the test cases in the best cover found so far, or
+     * null if none has been found by the search.
+     */
+    private int[] best;
+
+    /**
+     * Whether the search has run out of time.
+     */
+    private boolean timedOut;
+
+    /**
+     * Constructor for an ExactCover; sets up the search over the given columns.
+     *
+     * @param reduction the reduced instance
+     * @param caseCosts an array where the i-th element is the cost of the i-th test
+     *                  case, or null if every test case costs 1
+     * @param bestCost  the cost of the best known cover of the reduced instance
+     * @param deadline  the value of System.nanoTime() after which to give up
+     */
+    private ExactCover(CoverReduction reduction, double[] caseCosts, double bestCost,
+                       long deadline) {
+        List<Integer> remaining = reduction.getRemaining();
+        this.caseIndices = new int[remaining.size()];
+        this.columns = new BitSet[remaining.size()];
+        this.costs = new double[remaining.size()];
+        for (int i = 0; i < remaining.size(); i++) {
+            this.caseIndices[i] = remaining.get(i);
+            this.columns[i] = reduction.getColumn(remaining.get(i));
+            this.costs[i] = caseCosts == null ? 1 : caseCosts[remaining.get(i)];
+        }
+
+        int numFiles = reduction.getUncovered().length();
+        int[] numCatchers = new int[numFiles];
+        for (BitSet column : this.columns) {
+            for (int file = column.nextSetBit(0); file >= 0;
+                 file = column.nextSetBit(file + 1)) {
+                numCatchers[file]++;
+            }
+        }
+        this.fileToColumns = new int[numFiles][];
+        for (int file = 0; file < numFiles; file++) {
+            this.fileToColumns[file] = new int[numCatchers[file]];
+            numCatchers[file] = 0;
+        }
+        for (int i = 0; i < this.columns.length; i++) {
+            for (int file = this.columns[i].nextSetBit(0); file >= 0;
+                 file = this.columns[i].nextSetBit(file + 1)) {
+                this.fileToColumns[file][numCatchers[file]++] = i;
+            }
+        }
+
+        this.deadline = deadline;
+        this.bestCost = bestCost;
+        this.chosen = new int[this.columns.length];
+    }
+
+    /**
+     * Finds a minimum cover of the original instance, given its reduction and a known
+     * cover (e.g. the greedy one) to improve upon.
+     *
+     * @param reduction the reduced instance
+     * @param warmStart the indices of the test cases in a known cover of the original
+     *                  instance
+     * @param deadline  the value of System.nanoTime() after which to give up and return
+     *                  the best cover found so far
+     * @return the indices of the test cases in a minimum cover, if the search finished
+     * in time; in the best cover found (possibly warmStart itself) otherwise
+     */
+    static List<Integer> solve(CoverReduction reduction, List<Integer> warmStart,
+                               long deadline) {
+        return solve(reduction, warmStart, null, deadline);
+    }
+
+    /**
+     * Finds a minimum-cost cover of the original instance, given its reduction (with
+     * the same costs; see CoverReduction.reduce()) and a known cover to improve upon.
+     *
+     * @param reduction the reduced instance
+     * @param warmStart the indices of the test cases in a known cover of the original
+     *                  instance
+     * @param caseCosts an array where the i-th element is the cost of the i-th test
+     *                  case, or null if every test case costs 1
+     * @param deadline  the value of System.nanoTime() after which to give up and return
+     *                  the best cover found so far
+     * @return the indices of the test cases in a minimum-cost cover, if the search
+     * finished in time; in the best cover found (possibly warmStart itself) otherwise
+     */
+    static List<Integer> solve(CoverReduction reduction, List<Integer> warmStart,
+                               double[] caseCosts, long deadline) {
+        double bestCost = 0;
+        for (int caseIndex : warmStart) {
+            bestCost += caseCosts == null ? 1 : caseCosts[caseIndex];
+        }
+        for (int caseIndex : reduction.getEssential()) {
+            bestCost -= caseCosts == null ? 1 : caseCosts[caseIndex];
+        }
+        ExactCover search = new ExactCover(reduction, caseCosts, bestCost, deadline);
+        search.search(reduction.getUncovered(), 0, 0);
+        if (search.best == null) {
+            return warmStart;
+        }
+
+        List<Integer> cover = new ArrayList<>(reduction.getEssential());
+        for (int position : search.best) {
+            cover.add(search.caseIndices[position]);
+        }
+        Collections.sort(cover);
+        return cover;
+    }
+
+    /**
+     * Searches for covers of the given files that improve on the best one so far, given
+     * the test cases already chosen on this branch.
+     *
+     * @param uncovered the files that remain to be covered
+     * @param depth     the number of test cases already chosen on this branch
+     * @param cost      the total cost of the test cases already chosen on this branch
+     */
+    private void search(BitSet uncovered, int depth, double cost) {
+        if (this.timedOut || System.nanoTime() > this.deadline) {
+            this.timedOut = true;
+            return;
+        }
+        if (uncovered.isEmpty()) {
+            if (cost < this.bestCost) {
+                this.bestCost = cost;
+                this.best = Arrays.copyOf(this.chosen, depth);
+            }
+            return;
+        }
+        if (cost + this.lowerBound(uncovered) >= this.bestCost) {
+            return;
+        }
+
+        // Branch on the test cases that catch the least-caught uncovered file
+        int[] candidates = null;
+        for (int file = uncovered.nextSetBit(0); file >= 0;
+             file = uncovered.nextSetBit(file + 1)) {
+            if (candidates == null || this.fileToColumns[file].length < candidates.length) {
+                candidates = this.fileToColumns[file];
+            }
+        }
+
+        // Try the test cases that catch the most uncovered files (per unit of cost)
+        // first, so that good covers (and hence tight bounds) are found early
+        Integer[] order = new Integer[candidates.length];
+        double[] gains = new double[this.columns.length];
+        for (int i = 0; i < candidates.length; i++) {
+            int position = candidates[i];
+            order[i] = position;
+            gains[position] = intersectionSize(this.columns[position], uncovered)
+                    / this.costs[position];
+        }
+        Arrays.sort(order, (a, b) -> gains[a] != gains[b]
+                ? Double.compare(gains[b], gains[a]) : a - b);
+
+        for (int position : order) {
+            BitSet remaining = (BitSet) uncovered.clone();
+            remaining.andNot(this.columns[position]);
+            this.chosen[depth] = position;
+            this.search(remaining, depth + 1, cost + this.costs[position]);
+            if (this.timedOut) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Computes a lower bound on the cost of covering the given files: the larger of the
+     * number of files divided (rounding up) by the most that any test case catches,
+     * times the cost of the cheapest test case that catches any of them, and the total
+     * cost of the cheapest test case catching each of a set of files no two of which
+     * share a test case that catches them, found greedily starting from the least-caught
+     * files.
+     *
+     * @param uncovered the files that remain to be covered
+     * @return a lower bound on the cost of covering them
+     */
+    private double lowerBound(BitSet uncovered) {
+        int numUncovered = uncovered.cardinality();
+        int maxGain = 0;
+        double minCost = Double.POSITIVE_INFINITY;
+        for (int position = 0; position < this.columns.length; position++) {
+            int gain = intersectionSize(this.columns[position], uncovered);
+            if (gain > 0) {
+                maxGain = Math.max(maxGain, gain);
+                minCost = Math.min(minCost, this.costs[position]);
+            }
+        }
+        double bySize = ((numUncovered + maxGain - 1) / maxGain) * minCost;
+
+        // Consider the files that are hardest to cover first
+        Integer[] files = new Integer[numUncovered];
+        int i = 0;
+        for (int file = uncovered.nextSetBit(0); file >= 0;
+             file = uncovered.nextSetBit(file + 1)) {
+            files[i++] = file;
+        }
+        Arrays.sort(files, Comparator.comparingInt(file -> this.fileToColumns[file].length));
+        boolean[] used = new boolean[this.columns.length];
+        double independent = 0;
+        for (int file : files) {
+            boolean disjoint = true;
+            double cheapest = Double.POSITIVE_INFINITY;
+            for (int position : this.fileToColumns[file]) {
+                disjoint &= !used[position];
+                cheapest = Math.min(cheapest, this.costs[position]);
+            }
+            if (disjoint) {
+                independent += cheapest;
+                for (int position : this.fileToColumns[file]) {
+                    used[position] = true;
+                }
+            }
+        }
+        return Math.max(bySize, independent);
+    }
+
+    /**
+     * Returns the number of bits set in both of the given bitsets.
+     *
+     * @param a the first bitset
+     * @param b the second bitset
+     * @return the size of their intersection
+     */
+    private static int intersectionSize(BitSet a, BitSet b) {
+        BitSet intersection = (BitSet) a.clone();
+        intersection.and(b);
+        return intersection.cardinality();
+    }
+}
@@ -0,0 +1,266 @@
+package main.rice.concisegen;
+
+import main.rice.test.TestCase;
+import main.rice.test.TestResults;
+import main.rice.test.WireFormat;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * A concise set of test cases that is maintained across runs as new implementations
+ * arrive, so that only the new ones need to be tested. The results of each run are
+ * merged into those of the earlier ones (with files identified by name), and the cover
+ * is only ever extended: test cases chosen by earlier runs are kept, and the greedy
+ * algorithm (see ConciseSetGenerator.setCover()) chooses further test cases only to
+ * catch the incorrect files that they don't. The state can be saved to (and loaded
+ * from) a file between runs.
+ */
+public class IncrementalCover {
+
+    /**
+     * The version of the format written by save().
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * The test cases being run, which are the same in every run.
+     */
+    private final List<TestCase> tests;
+
+    /**
+     * The names of every file tested so far, in the order in which they were added; the
+     * index of a file is its position in this list.
+     */
+    private final List<String> filenames = new ArrayList<>();
+
+    /**
+     * A list where the i-th element is the set of (indices of) files caught by the i-th
+     * test case.
+     */
+    private final List<Set<Integer>> caseToFiles = new ArrayList<>();
+
+    /**
+     * The (indices of the) files caught by at least one test case.
+     */
+    private final Set<Integer> wrongSet = new HashSet<>();
+
+    /**
+     * The indices of the chosen test cases, in the order in which they were chosen.
+     */
+    private final List<Integer> cover = new ArrayList<>();
+
+    /**
+     * Constructor for an IncrementalCover, which starts out with no files tested.
+     *
+     * @param tests the test cases to be run, in the order in which they're indexed
+     */
+    public IncrementalCover(List<TestCase> tests) {
+        this.tests = tests;
+        for (int i = 0; i < tests.size(); i++) {
+            this.caseToFiles.add(new HashSet<>());
+        }
+    }
+
+    /**
+     * Merges in the results of testing some new files, and extends the cover to catch
+     * every newly uncovered incorrect file. On the first run, this chooses exactly the
+     * test cases that ConciseSetGenerator.setCover() would.
+     *
+     * @param newFiles the names of the newly tested files, in the order in which they're
+     *                 indexed in results (see Tester.getTestedFiles())
+     * @param results  the results of running the same test cases on the new files
+     * @return the newly chosen test cases, in the order in which they were chosen
+     * @throws IllegalArgumentException if the results are for different test cases, or
+     *                                  if any of the files was already tested
+     */
+    public List<TestCase> addResults(List<String> newFiles, TestResults results) {
+        if (results.getCaseToFiles().size() != this.tests.size()) {
+            throw new IllegalArgumentException("Expected results for "
+                    + this.tests.size() + " tests but got "
+                    + results.getCaseToFiles().size());
+        }
+        Set<String> known = new HashSet<>(this.filenames);
+        for (String filename : newFiles) {
+            if (!known.add(filename)) {
+                throw new IllegalArgumentException(filename + " was already tested");
+            }
+        }
+
+        // Shift the indices of the new files past those of the old ones
+        int offset = this.filenames.size();
+        this.filenames.addAll(newFiles);
+        for (int i = 0; i < this.tests.size(); i++) {
+            for (int file : results.getCaseToFiles().get(i)) {
+                this.caseToFiles.get(i).add(offset + file);
+            }
+        }
+        for (int file : results.getWrongSet()) {
+            this.wrongSet.add(offset + file);
+        }
+
+        // Only the incorrect files that no chosen test case catches need covering
+        Set<Integer> uncovered = new HashSet<>(this.wrongSet);
+        for (int caseIndex : this.cover) {
+            uncovered.removeAll(this.caseToFiles.get(caseIndex));
+        }
+        List<Set<Integer>> restricted = new ArrayList<>();
+        for (Set<Integer> files : this.caseToFiles) {
+            Set<Integer> remaining = new HashSet<>(files);
+            remaining.retainAll(uncovered);
+            restricted.add(remaining);
+        }
+        List<TestCase> chosen = new ArrayList<>();
+        for (int caseIndex : ConciseSetGenerator.greedyCover(
+                new TestResults(this.tests, restricted, uncovered))) {
+            this.cover.add(caseIndex);
+            chosen.add(this.tests.get(caseIndex));
+        }
+        return chosen;
+    }
+
+    /**
+     * Returns the test cases being run.
+     *
+     * @return the test cases, in the order in which they're indexed
+     */
+    public List<TestCase> getTests() {
+        return this.tests;
+    }
+
+    /**
+     * Returns the names of every file tested so far (e.g. to be skipped by the next run;
+     * see Tester.setSkippedFiles()).
+     *
+     * @return the names of the tested files, in the order in which they're indexed
+     */
+    public List<String> getFilenames() {
+        return this.filenames;
+    }
+
+    /**
+     * Returns the current cover, which catches every incorrect file tested so far.
+     *
+     * @return the chosen test cases
+     */
+    public Set<TestCase> getCover() {
+        Set<TestCase> hittingSet = new HashSet<>();
+        for (int caseIndex : this.cover) {
+            hittingSet.add(this.tests.get(caseIndex));
+        }
+        return hittingSet;
+    }
+
+    /**
+     * Returns the merged results of every run so far, with files indexed as in
+     * getFilenames().
+     *
+     * @return the merged results
+     */
+    public TestResults getTestResults() {
+        List<Set<Integer>> copy = new ArrayList<>();
+        for (Set<Integer> files : this.caseToFiles) {
+            copy.add(new HashSet<>(files));
+        }
+        return new TestResults(this.tests, copy, new HashSet<>(this.wrongSet));
+    }
+
+    /**
+     * Saves the state (the test cases, the names of the tested files, which test cases
+     * caught which files, and the cover) to the given file, in a binary format.
+     *
+     * @param path the file to save to
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(path)))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(this.tests.size());
+            for (TestCase test : this.tests) {
+                byte[] encoded = WireFormat.encodeArgs(test);
+                out.writeInt(encoded.length);
+                out.write(encoded);
+            }
+            out.writeInt(this.filenames.size());
+            for (String filename : this.filenames) {
+                out.writeUTF(filename);
+            }
+            for (Set<Integer> files : this.caseToFiles) {
+                writeInts(new TreeSet<>(files), out);
+            }
+            writeInts(this.cover, out);
+        }
+    }
+
+    /**
+     * Loads a state saved by save().
+     *
+     * @param path the file to load from
+     * @return the loaded state
+     * @throws IOException if the file cannot be read or isn't a saved state
+     */
+    public static IncrementalCover load(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(path)))) {
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported concise set state version: " + version);
+            }
+            List<TestCase> tests = new ArrayList<>();
+            int numTests = in.readInt();
+            for (int i = 0; i < numTests; i++) {
+                byte[] encoded = new byte[in.readInt()];
+                in.readFully(encoded);
+                tests.add(WireFormat.decodeArgs(encoded));
+            }
+
+            IncrementalCover state = new IncrementalCover(tests);
+            int numFiles = in.readInt();
+            for (int i = 0; i < numFiles; i++) {
+                state.filenames.add(in.readUTF());
+            }
+            for (int i = 0; i < numTests; i++) {
+                state.caseToFiles.get(i).addAll(readInts(in));
+                state.wrongSet.addAll(state.caseToFiles.get(i));
+            }
+            state.cover.addAll(readInts(in));
+            return state;
+        } catch (EOFException e) {
+            throw new IOException("Truncated concise set state: " + path, e);
+        }
+    }
+
+    /**
+     * Writes a collection of integers: its size, followed by its elements.
+     *
+     * @param ints the integers to be written
+     * @param out  the output to write to
+     * @throws IOException if the output cannot be written to
+     */
+    private static void writeInts(Collection<Integer> ints, DataOutput out)
+            throws IOException {
+        out.writeInt(ints.size());
+        for (int i : ints) {
+            out.writeInt(i);
+        }
+    }
+
+    /**
+     * Reads a list of integers written by writeInts().
+     *
+     * @param in the input to read from
+     * @return the integers, in the order in which they were written
+     * @throws IOException if the input cannot be read
+     */
+    private static List<Integer> readInts(DataInput in) throws IOException {
+        int size = in.readInt();
+        List<Integer> ints = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            ints.add(in.readInt());
+        }
+        return ints;
+    }
+}
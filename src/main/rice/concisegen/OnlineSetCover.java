@@ -0,0 +1,226 @@
+package main.rice.concisegen;
+
+import main.rice.test.TestCase;
+import main.rice.test.TestResults;
+import main.rice.test.VerdictListener;
+
+import java.util.*;
+
+/**
+ * An incrementally maintained approximation of the set cover computed by
+ * ConciseSetGenerator.setCover(), which is updated as verdicts stream out of the Tester
+ * (see Tester.setVerdictListener()), so that a concise set of test cases is available
+ * as soon as testing ends, and can be read (from any thread) while it's going on.
+ *
+ * Once all of the verdicts on a file are known, if no chosen test case catches it, the
+ * test case that catches it and the most other files so far is chosen (the first, on
+ * ties), and any chosen test case that no longer catches a file that no other chosen
+ * test case catches is dropped. Since the first files to arrive say little about which
+ * test cases are best overall, the cover is replaced by the greedy one over everything
+ * seen so far whenever the number of incorrect files has grown by half since it was
+ * last computed, if that's smaller; since the sizes grow geometrically, this costs no
+ * more than a constant factor over computing the greedy cover once at the end.
+ */
+public class OnlineSetCover implements VerdictListener {
+
+    /**
+     * The test cases being run.
+     */
+    private final List<TestCase> tests;
+
+    /**
+     * A list where the i-th element is the set of files caught by the i-th test case so
+     * far.
+     */
+    private final List<Set<Integer>> caseToFiles = new ArrayList<>();
+
+    /**
+     * The files caught by at least one test case so far.
+     */
+    private final Set<Integer> wrongSet = new HashSet<>();
+
+    /**
+     * The test cases that caught each file whose verdicts are still arriving.
+     */
+    private final Map<Integer, List<Integer>> pending = new HashMap<>();
+
+    /**
+     * The indices of the chosen test cases, in the order in which they were chosen.
+     */
+    private final List<Integer> cover = new ArrayList<>();
+
+    /**
+     * A bitset where the i-th bit is set if the i-th test case is chosen.
+     */
+    private final BitSet chosen = new BitSet();
+
+    /**
+     * The number of chosen test cases that catch each incorrect file.
+     */
+    private final Map<Integer, Integer> timesCaught = new HashMap<>();
+
+    /**
+     * The number of incorrect files when the greedy cover was last computed.
+     */
+    private int lastRecomputed;
+
+    /**
+     * The factor by which the number of incorrect files must grow before the greedy
+     * cover is recomputed.
+     */
+    private static final double RECOMPUTE_GROWTH = 1.5;
+
+    /**
+     * Constructor for an OnlineSetCover, which starts out having seen no verdicts.
+     *
+     * @param tests the test cases being run, in the order in which they're indexed
+     */
+    public OnlineSetCover(List<TestCase> tests) {
+        this.tests = tests;
+        for (int i = 0; i < tests.size(); i++) {
+            this.caseToFiles.add(new HashSet<>());
+        }
+    }
+
+    /**
+     * Records the verdict of a single test case on a single file.
+     *
+     * @param fileIndex the index of the file
+     * @param caseIndex the index of the test case
+     * @param caught    true if the test case caught the file; false otherwise
+     */
+    @Override
+    public void onVerdict(int fileIndex, int caseIndex, boolean caught) {
+        // Passes (by far the most common verdict) change nothing, so don't even lock
+        if (!caught) {
+            return;
+        }
+        synchronized (this) {
+            if (!this.caseToFiles.get(caseIndex).add(fileIndex)) {
+                return;
+            }
+            this.wrongSet.add(fileIndex);
+            this.pending.computeIfAbsent(fileIndex, k -> new ArrayList<>())
+                    .add(caseIndex);
+            if (this.chosen.get(caseIndex)) {
+                this.timesCaught.merge(fileIndex, 1, Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * Updates the cover once all of the verdicts on a file are known, as described
+     * above.
+     *
+     * @param fileIndex the index of the file
+     */
+    @Override
+    public synchronized void onFileDone(int fileIndex) {
+        List<Integer> catchers = this.pending.remove(fileIndex);
+        if (catchers == null || this.timesCaught.containsKey(fileIndex)) {
+            return;
+        }
+
+        if (this.wrongSet.size() >= RECOMPUTE_GROWTH * this.lastRecomputed) {
+            this.recompute();
+            return;
+        }
+
+        int best = catchers.get(0);
+        for (int caseIndex : catchers) {
+            if (this.caseToFiles.get(caseIndex).size()
+                    > this.caseToFiles.get(best).size()) {
+                best = caseIndex;
+            }
+        }
+        this.choose(best);
+
+        // Drop whatever the new test case made redundant, the earliest chosen first
+        for (int caseIndex : new ArrayList<>(this.cover)) {
+            if (caseIndex != best && this.isRedundant(caseIndex)) {
+                this.unchoose(caseIndex);
+            }
+        }
+    }
+
+    /**
+     * Returns the current cover: a set of test cases that catches every file caught by
+     * any test case so far, except possibly those whose verdicts are still arriving.
+     *
+     * @return the chosen test cases
+     */
+    public synchronized Set<TestCase> getCover() {
+        Set<TestCase> hittingSet = new HashSet<>();
+        for (int caseIndex : this.cover) {
+            hittingSet.add(this.tests.get(caseIndex));
+        }
+        return hittingSet;
+    }
+
+    /**
+     * Replaces the cover with the greedy one over every verdict so far, if that's
+     * smaller (or if every file isn't already covered).
+     */
+    private void recompute() {
+        this.lastRecomputed = this.wrongSet.size();
+        List<Set<Integer>> snapshot = new ArrayList<>();
+        for (Set<Integer> files : this.caseToFiles) {
+            snapshot.add(new HashSet<>(files));
+        }
+        List<Integer> greedy = ConciseSetGenerator.greedyCover(new TestResults(this.tests,
+                snapshot, new HashSet<>(this.wrongSet)));
+        if (greedy.size() < this.cover.size()
+                || this.timesCaught.size() < this.wrongSet.size()) {
+            for (int caseIndex : new ArrayList<>(this.cover)) {
+                this.unchoose(caseIndex);
+            }
+            for (int caseIndex : greedy) {
+                this.choose(caseIndex);
+            }
+        }
+    }
+
+    /**
+     * Adds a test case to the cover.
+     *
+     * @param caseIndex the index of the test case
+     */
+    private void choose(int caseIndex) {
+        this.cover.add(caseIndex);
+        this.chosen.set(caseIndex);
+        for (int file : this.caseToFiles.get(caseIndex)) {
+            this.timesCaught.merge(file, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Removes a test case from the cover.
+     *
+     * @param caseIndex the index of the test case
+     */
+    private void unchoose(int caseIndex) {
+        this.cover.remove(Integer.valueOf(caseIndex));
+        this.chosen.clear(caseIndex);
+        for (int file : this.caseToFiles.get(caseIndex)) {
+            // Remove the count entirely once it reaches 0
+            this.timesCaught.merge(file, -1, (a, b) -> a + b == 0 ? null : a + b);
+        }
+    }
+
+    /**
+     * Returns whether every file that a chosen test case catches is also caught by
+     * another chosen test case.
+     *
+     * @param caseIndex the index of the chosen test case
+     * @return true if the test case can be dropped without uncovering anything; false
+     * otherwise
+     */
+    private boolean isRedundant(int caseIndex) {
+        for (int file : this.caseToFiles.get(caseIndex)) {
+            if (this.timesCaught.get(file) < 2) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
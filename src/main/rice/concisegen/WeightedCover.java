@@ -0,0 +1,64 @@
+package main.rice.concisegen;
+
+import main.rice.test.TestCase;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * A concise set of test cases chosen to minimize its total expected runtime (see
+ * ConciseSetGenerator.weightedSetCover()), together with that runtime.
+ */
+public class WeightedCover {
+
+    /**
+     * The chosen test cases.
+     */
+    private final Set<TestCase> testCases;
+
+    /**
+     * The total expected runtime of the chosen test cases, in seconds.
+     */
+    private final double totalCost;
+
+    /**
+     * Constructor for a WeightedCover; initializes all fields.
+     *
+     * @param testCases the chosen test cases
+     * @param totalCost the total expected runtime of the chosen test cases, in seconds
+     */
+    public WeightedCover(Set<TestCase> testCases, double totalCost) {
+        this.testCases = testCases;
+        this.totalCost = totalCost;
+    }
+
+    /**
+     * Returns the chosen test cases.
+     *
+     * @return the chosen test cases
+     */
+    public Set<TestCase> getTestCases() {
+        return this.testCases;
+    }
+
+    /**
+     * Returns the total expected runtime of the chosen test cases.
+     *
+     * @return the total expected runtime, in seconds
+     */
+    public double getTotalCost() {
+        return this.totalCost;
+    }
+
+    /**
+     * Returns a summary of the cover: the number of test cases and their total expected
+     * runtime, in milliseconds.
+     *
+     * @return a summary of the cover
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%d test cases, %.3f ms",
+                this.testCases.size(), this.totalCost * 1000);
+    }
+}
@@ -1,5 +1,8 @@
 package main.rice.obj;
 
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 
 /**
@@ -22,6 +25,114 @@ public abstract class APyObj<JavaType> {
         return this.value;
     }
 
+    /**
+     * Writes the binary wire encoding of this object to the given output: a one-byte
+     * type tag ('B', 'I', 'F', 'U', 'L', 'T', 'S', or 'D') followed by a payload whose
+     * layout depends on the type. All numbers are big-endian.
+     *
+     * @param out the output to write to
+     * @throws IOException if the output cannot be written to
+     */
+    public abstract void encode(DataOutput out) throws IOException;
+
+    /**
+     * Writes the binary wire encoding of a sequence of objects (e.g. the elements of a
+     * list, or the arguments of a test case) to the given output. The encoding is a
+     * one-byte kind and the number of elements (a 4-byte int), followed by the elements.
+     * Sequences of ints, floats, bools, or strings are packed into flat arrays (kinds
+     * 'q', 'd', '?', and 'w') so that they can be decoded in bulk; any other sequence
+     * (kind 'x') is followed by the encoding of each element in turn.
+     *
+     * @param elems the objects to be encoded, in order
+     * @param out   the output to write to
+     * @throws IOException if the output cannot be written to
+     */
+    public static void encodeAll(Collection<? extends APyObj<?>> elems,
+                                 DataOutput out) throws IOException {
+        // Determine whether all elements share a type that can be packed
+        Class<?> packedType = null;
+        for (APyObj<?> elem : elems) {
+            Class<?> type = elem instanceof PyCharObj ? PyStringObj.class : elem.getClass();
+            if (packedType == null) {
+                packedType = type;
+            } else if (packedType != type) {
+                packedType = null;
+                break;
+            }
+        }
+
+        if (packedType == PyIntObj.class) {
+            out.writeByte('q');
+            out.writeInt(elems.size());
+            for (APyObj<?> elem : elems) {
+                out.writeLong((Integer) elem.getValue());
+            }
+        } else if (packedType == PyFloatObj.class) {
+            out.writeByte('d');
+            out.writeInt(elems.size());
+            for (APyObj<?> elem : elems) {
+                out.writeDouble((Double) elem.getValue());
+            }
+        } else if (packedType == PyBoolObj.class) {
+            out.writeByte('?');
+            out.writeInt(elems.size());
+            for (APyObj<?> elem : elems) {
+                out.writeBoolean((Boolean) elem.getValue());
+            }
+        } else if (packedType == PyStringObj.class) {
+            // The lengths (in code points) of all strings, followed by the UTF-8 bytes
+            // of their concatenation
+            out.writeByte('w');
+            out.writeInt(elems.size());
+            StringBuilder text = new StringBuilder();
+            for (APyObj<?> elem : elems) {
+                String str = rawString(elem);
+                out.writeInt(str.codePointCount(0, str.length()));
+                text.append(str);
+            }
+            byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        } else {
+            out.writeByte('x');
+            out.writeInt(elems.size());
+            for (APyObj<?> elem : elems) {
+                elem.encode(out);
+            }
+        }
+    }
+
+    /**
+     * Writes the tag-less encoding of a single string: its length in bytes (a 4-byte
+     * int) followed by its UTF-8 bytes.
+     *
+     * @param str the string to be encoded
+     * @param out the output to write to
+     * @throws IOException if the output cannot be written to
+     */
+    protected static void encodeString(String str, DataOutput out) throws IOException {
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Returns the contents (without quotes) of a PyStringObj or PyCharObj.
+     *
+     * @param obj the string or character object
+     * @return the characters that obj represents
+     */
+    private static String rawString(APyObj<?> obj) {
+        if (obj instanceof PyCharObj character) {
+            return character.getValue().toString();
+        }
+        StringBuilder sb = new StringBuilder();
+        for (PyCharObj character : ((PyStringObj) obj).getValue()) {
+            sb.append(character.getValue());
+        }
+        return sb.toString();
+    }
+
     /**
      * Compares this to the input object by value.
      *
@@ -1,5 +1,8 @@
 package main.rice.obj;
 
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * A representation of Python objects of type bool.
  */
@@ -14,6 +17,19 @@ public class PyBoolObj extends APyObj<Boolean> {
         this.value = value;
     }
 
+    /**
+     * Writes the binary wire encoding of this object: the tag 'B' followed by a single
+     * byte that is 1 for True and 0 for False.
+     *
+     * @param out the output to write to
+     * @throws IOException if the output cannot be written to
+     */
+    @Override
+    public void encode(DataOutput out) throws IOException {
+        out.writeByte('B');
+        out.writeBoolean(this.value);
+    }
+
     /**
      * Builds and returns a string representation of this object that mirrors the Python
      * string representation (i.e., True or False).
@@ -1,5 +1,8 @@
 package main.rice.obj;
 
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * A helper class for implementing PyStringObjs; each instance represents a single
  * character in a Python string.
@@ -15,6 +18,19 @@ public class PyCharObj extends APyObj<Character> {
         this.value = value;
     }
 
+    /**
+     * Writes the binary wire encoding of this object, which is that of a string of
+     * length one: the tag 'U' followed by the length and UTF-8 bytes of the character.
+     *
+     * @param out the output to write to
+     * @throws IOException if the output cannot be written to
+     */
+    @Override
+    public void encode(DataOutput out) throws IOException {
+        out.writeByte('U');
+        encodeString(this.value.toString(), out);
+    }
+
     /**
      * Builds and returns a string representation of this object that mirrors the Python
      * string representation; uses single quotes for compatibility with command-line
@@ -1,5 +1,7 @@
 package main.rice.obj;
 
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Map;
 
 /**
@@ -8,7 +10,7 @@ import java.util.Map;
  * @param <KeyType> the type of each key in the dictionary
  * @param <ValType> the type of each value in the dictionary
  */
-public class PyDictObj<KeyType extends APyObj, ValType extends APyObj> extends APyObj<Map<KeyType, ValType>> {
+public class PyDictObj<KeyType extends APyObj<?>, ValType extends APyObj<?>> extends APyObj<Map<KeyType, ValType>> {
 
     /**
      * Constructor for a PyDictObj; initializes its value to the input.
@@ -19,6 +21,23 @@ public class PyDictObj<KeyType extends APyObj, ValType extends APyObj> extends A
         this.value = value;
     }
 
+    /**
+     * Writes the binary wire encoding of this object: the tag 'D' followed by the
+     * encoding of its keys as a sequence and then that of its values (in the same order)
+     * as a sequence.
+     *
+     * @param out the output to write to
+     * @throws IOException if the output cannot be written to
+     */
+    @Override
+    public void encode(DataOutput out) throws IOException {
+        // Keys and values are encoded as two parallel sequences, so that each can be
+        // packed if its elements share a type
+        out.writeByte('D');
+        encodeAll(this.value.keySet(), out);
+        encodeAll(this.value.values(), out);
+    }
+
     /**
      * Builds and returns a string representation of this object that mirrors the Python
      * string representation (i.e., {key1: val1, key2: val2, ...}).
@@ -1,5 +1,8 @@
 package main.rice.obj;
 
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * A representation of Python objects of type float.
  */
@@ -14,6 +17,19 @@ public class PyFloatObj extends APyObj<Double> {
         this.value = value;
     }
 
+    /**
+     * Writes the binary wire encoding of this object: the tag 'F' followed by its value
+     * as an 8-byte double.
+     *
+     * @param out the output to write to
+     * @throws IOException if the output cannot be written to
+     */
+    @Override
+    public void encode(DataOutput out) throws IOException {
+        out.writeByte('F');
+        out.writeDouble(this.value);
+    }
+
     /**
      * Builds and returns a string representation of this object that mirrors the Python
      * string representation.
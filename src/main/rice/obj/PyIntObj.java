@@ -1,5 +1,8 @@
 package main.rice.obj;
 
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * A representation of Python objects of type int.
  */
@@ -14,6 +17,19 @@ public class PyIntObj extends APyObj<Integer> {
         this.value = value;
     }
 
+    /**
+     * Writes the binary wire encoding of this object: the tag 'I' followed by its value
+     * as an 8-byte long.
+     *
+     * @param out the output to write to
+     * @throws IOException if the output cannot be written to
+     */
+    @Override
+    public void encode(DataOutput out) throws IOException {
+        out.writeByte('I');
+        out.writeLong(this.value);
+    }
+
     /**
      * Builds and returns a string representation of this object that mirrors the Python
      * string representation.
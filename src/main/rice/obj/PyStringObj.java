@@ -1,5 +1,7 @@
 package main.rice.obj;
 
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -30,6 +32,23 @@ public class PyStringObj extends AIterablePyObj<PyCharObj> {
         this.value = value;
     }
 
+    /**
+     * Writes the binary wire encoding of this object: the tag 'U' followed by the
+     * length (in bytes) and UTF-8 bytes of the string.
+     *
+     * @param out the output to write to
+     * @throws IOException if the output cannot be written to
+     */
+    @Override
+    public void encode(DataOutput out) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (PyCharObj character : this.value) {
+            sb.append(character.getValue());
+        }
+        out.writeByte('U');
+        encodeString(sb.toString(), out);
+    }
+
     /**
      * Builds and returns a string representation of this object that mirrors the Python
      * string representation; uses single quotes for compatibility with command-line
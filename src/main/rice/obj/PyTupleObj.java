@@ -1,5 +1,7 @@
 package main.rice.obj;
 
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -18,6 +20,19 @@ public class PyTupleObj<InnerType extends APyObj<?>> extends AIterablePyObj<Inne
         this.value = value;
     }
 
+    /**
+     * Writes the binary wire encoding of this object: the tag 'T' followed by the
+     * encoding of its elements as a sequence.
+     *
+     * @param out the output to write to
+     * @throws IOException if the output cannot be written to
+     */
+    @Override
+    public void encode(DataOutput out) throws IOException {
+        out.writeByte('T');
+        encodeAll(this.value, out);
+    }
+
     /**
      * Builds and returns a string representation of this object that mirrors the Python
      * string representation (i.e., (elem1, elem2, elem3, ...)).
@@ -0,0 +1,29 @@
+package main.rice.test;
+
+/**
+ * The ways in which the Tester can decide whether an implementation's result on a test
+ * case matches the expected result.
+ */
+public enum ComparisonMode {
+
+    /**
+     * The wrapper imports the expected results (from expected.py) and compares them to
+     * the actual result using Python's ==, reporting only True or False.
+     */
+    IN_PYTHON,
+
+    /**
+     * The wrapper reports a canonical repr of the actual result (see
+     * Tester.appendCanonicalizer()), which the Tester compares to the canonical repr of
+     * the expected result held in memory; expected.py is never written or loaded.
+     */
+    CANONICAL,
+
+    /**
+     * Like CANONICAL, except that only a 128-bit digest of each canonical repr is
+     * reported and held in memory, so that huge results never cross a pipe or fill the
+     * heap; the full values of failing test cases can be captured separately (see
+     * Tester.setCaptureFailures()).
+     */
+    DIGEST
+}
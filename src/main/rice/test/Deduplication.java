@@ -0,0 +1,28 @@
+package main.rice.test;
+
+/**
+ * The ways in which the Tester can recognize implementations that are equivalent to one
+ * another, so that only one implementation from each class of equivalent ones needs to
+ * be tested.
+ */
+public enum Deduplication {
+
+    /**
+     * Every implementation is tested.
+     */
+    NONE,
+
+    /**
+     * Implementations whose contents are byte-for-byte identical are considered
+     * equivalent.
+     */
+    IDENTICAL,
+
+    /**
+     * Implementations whose Python token streams are identical are considered
+     * equivalent, so differences in comments, blank lines, whitespace within lines,
+     * the width of indentation, and line endings are ignored. Implementations that
+     * cannot be tokenized are only equivalent to identical ones.
+     */
+    NORMALIZED
+}
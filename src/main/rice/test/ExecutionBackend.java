@@ -0,0 +1,212 @@
+package main.rice.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A strategy for executing test cases, used by the Tester. The Tester is responsible for
+ * preparing the harness (the solution footer, the wrapper, the expected results, and the
+ * argument file) and for aggregating the results; a backend is only responsible for
+ * finding the implementations and actually running the test cases on them.
+ */
+public interface ExecutionBackend {
+
+    /**
+     * Returns the names of the implementations to be tested, in the order in which they
+     * should be indexed: every .py file in the given directory (or at the top level of
+     * the given archive), other than the wrapper and the expected results, sorted by
+     * name.
+     *
+     * @param implDirPath the absolute path to the directory (or archive) containing the
+     *                    implementations
+     * @return the sorted names of the implementations
+     * @throws IOException if implDirPath does not point to a readable directory or
+     *                     archive
+     */
+    default List<String> listImplementations(String implDirPath) throws IOException {
+        if (ImplementationArchive.isArchive(implDirPath)) {
+            return new ImplementationArchive(implDirPath).listImplementations();
+        }
+
+        // If implDirPath didn't actually point to a directory, filenames would be null
+        String[] filenames = new File(implDirPath).list();
+        if (filenames == null) {
+            throw new IOException("Error: implDir is empty");
+        }
+        Arrays.sort(filenames);
+
+        List<String> implementations = new ArrayList<>();
+        for (String filename : filenames) {
+            if (filename.endsWith(".py") && !filename.equals("wrapper.py")
+                    && !filename.equals("expected.py")) {
+                implementations.add(filename);
+            }
+        }
+        return implementations;
+    }
+
+    /**
+     * Reads the contents of each of the given implementations, from the given directory
+     * or archive; an archive is opened (and, for a tar archive, scanned) only once for
+     * all of them.
+     *
+     * @param implDirPath the absolute path to the directory (or archive) containing the
+     *                    implementations
+     * @param filenames   the names of the implementations
+     * @return a list where the i-th element is the contents of the i-th implementation
+     * @throws IOException if an implementation cannot be read
+     */
+    default List<byte[]> readImplementations(String implDirPath, List<String> filenames)
+            throws IOException {
+        if (ImplementationArchive.isArchive(implDirPath)) {
+            return new ImplementationArchive(implDirPath).readAll(filenames);
+        }
+        List<byte[]> contents = new ArrayList<>();
+        for (String filename : filenames) {
+            contents.add(Files.readAllBytes(Path.of(implDirPath, filename)));
+        }
+        return contents;
+    }
+
+    /**
+     * Computes a fingerprint of each of the given implementations, such that
+     * implementations with equal fingerprints are equivalent and need only be tested
+     * once. By default, the fingerprint is a SHA-256 hash of the contents of the file,
+     * whether or not it should be normalized.
+     *
+     * @param implDirPath the absolute path to the directory (or archive) containing the
+     *                    implementations
+     * @param filenames   the names of the implementations
+     * @param normalize   true if implementations that differ only in comments and
+     *                    whitespace should have equal fingerprints; false if only
+     *                    identical implementations should
+     * @return a list where the i-th element is the fingerprint of the i-th
+     * implementation
+     * @throws IOException if an implementation cannot be read
+     * @throws InterruptedException if a process is interrupted
+     */
+    default List<String> fingerprint(String implDirPath, List<String> filenames,
+                                     boolean normalize)
+            throws IOException, InterruptedException {
+        MessageDigest sha256;
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+
+        List<String> fingerprints = new ArrayList<>();
+        for (byte[] contents : this.readImplementations(implDirPath, filenames)) {
+            fingerprints.add(HexFormat.of().formatHex(sha256.digest(contents)));
+        }
+        return fingerprints;
+    }
+
+    /**
+     * Tells the backend that the Tester has (re)written the wrapper to report results in
+     * the given comparison mode; called before any runImplementation() call against that
+     * wrapper. Backends that run the wrapper need nothing from this, and do nothing by
+     * default; one that answers in the wrapper's place (e.g. FakeBackend) uses it to
+     * answer in the same form.
+     *
+     * @param mode the comparison mode that the wrapper reports results for
+     */
+    default void onWrapperWritten(ComparisonMode mode) {
+    }
+
+    /**
+     * Prepares for a run of runImplementation() calls over the given implementations
+     * (e.g. by precompiling them); called by the Tester once the wrapper, the expected
+     * results, and the argument file have been written. Does nothing by default.
+     *
+     * @param implDirPath the absolute path to the directory containing the
+     *                    implementations, the wrapper, and the expected results
+     * @param filenames   the names of the implementations that will be tested
+     * @throws IOException if preparation fails
+     * @throws InterruptedException if a process is interrupted
+     */
+    default void beginRun(String implDirPath, List<String> filenames)
+            throws IOException, InterruptedException {
+    }
+
+    /**
+     * Loads each of the given implementations once, before any test case is run on it,
+     * to check that it can be imported and that it defines the function under test as
+     * something callable; called by the Tester after beginRun(). Every implementation
+     * that fails this check would fail every test case, so the Tester marks it as such
+     * without running any. Checks nothing by default.
+     *
+     * @param implDirPath the absolute path to the directory containing the
+     *                    implementations
+     * @param filenames   the names of the implementations to be checked
+     * @param funcName    the name of the function under test
+     * @return a map from the name of each implementation that failed the check to the
+     * reason why; implementations that passed are absent
+     * @throws IOException if the check cannot be run
+     * @throws InterruptedException if a process is interrupted
+     */
+    default Map<String, String> preflight(String implDirPath, List<String> filenames,
+                                          String funcName)
+            throws IOException, InterruptedException {
+        return Map.of();
+    }
+
+    /**
+     * Releases anything acquired by beginRun(); called by the Tester once all
+     * implementations have been tested, even if testing failed. Does nothing by
+     * default.
+     *
+     * @throws IOException if cleaning up fails
+     */
+    default void endRun() throws IOException {
+    }
+
+    /**
+     * Runs the given test cases on the reference solution, whose footer (see
+     * Tester.appendToSolution()) prints the repr of the result of a single test case.
+     *
+     * @param solutionPath the absolute path to the reference solution
+     * @param argFilePath  the absolute path to the argument file
+     * @param testIndices  the indices of the test cases to be run
+     * @return a list where the i-th element is the result of running the test case whose
+     * index is the i-th element of testIndices
+     * @throws IOException if the solution cannot be run or its output cannot be read
+     * @throws InterruptedException if a process is interrupted
+     */
+    List<String> runSolution(String solutionPath, String argFilePath,
+                             List<Integer> testIndices)
+            throws IOException, InterruptedException;
+
+    /**
+     * Runs the given test cases on a single implementation via the wrapper (see
+     * Tester.createWrapperFile()), which either compares the actual result of each test
+     * case to the expected result or reports its canonical repr (or a digest of it),
+     * depending on the Tester's comparison mode.
+     *
+     * @param implDirPath the absolute path to the directory containing the
+     *                    implementation and the wrapper
+     * @param filename    the name of the implementation being tested
+     * @param funcName    the name of the function under test
+     * @param argFilePath the absolute path to the argument file
+     * @param testIndices the indices of the test cases to be run
+     * @return a list where the i-th element is the verdict ("True" if passed), the
+     * canonical repr, or the digest of the result of running the test case whose index
+     * is the i-th element of testIndices, or the marker of the resource limit it exceeded
+     * (see Outcome.marker())
+     * @throws IOException if the implementation cannot be run or its output cannot be
+     *                     read
+     * @throws InterruptedException if a process is interrupted
+     */
+    List<String> runImplementation(String implDirPath, String filename, String funcName,
+                                   String argFilePath, List<Integer> testIndices)
+            throws IOException, InterruptedException;
+}
@@ -0,0 +1,221 @@
+package main.rice.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A deterministic, in-memory execution backend which never starts a process. Verdicts
+ * are answered from a synthetic fault matrix, either given explicitly or generated from
+ * a seed, which makes it possible to benchmark (and test) the Java side of the pipeline
+ * -- generation, aggregation, and set cover -- without Python in the loop.
+ */
+public class FakeBackend implements ExecutionBackend {
+
+    /**
+     * The explicit fault matrix, where faults[f][t] is true if the f-th file fails the
+     * t-th test; null if the matrix is generated from the seed instead.
+     */
+    private final boolean[][] faults;
+
+    /**
+     * The number of (fake) implementations.
+     */
+    private final int numFiles;
+
+    /**
+     * For a generated matrix, the probability that a file is wrong at all.
+     */
+    private final double wrongRate;
+
+    /**
+     * For a generated matrix, the probability that a wrong file fails any given test.
+     */
+    private final double faultRate;
+
+    /**
+     * For a generated matrix, the seed from which every cell is derived.
+     */
+    private final long seed;
+
+    /**
+     * The number of (file, test) executions that have been answered so far.
+     */
+    private final AtomicLong numExecutions = new AtomicLong();
+
+    /**
+     * The comparison mode of the wrapper most recently written by the Tester using this
+     * backend, which determines the form of the answers of runImplementation().
+     */
+    private volatile ComparisonMode comparisonMode = ComparisonMode.IN_PYTHON;
+
+    /**
+     * Constructor for a FakeBackend which answers verdicts from an explicit fault
+     * matrix.
+     *
+     * @param faults the fault matrix, where faults[f][t] is true if the f-th file fails
+     *               the t-th test
+     */
+    public FakeBackend(boolean[][] faults) {
+        this.faults = faults;
+        this.numFiles = faults.length;
+        this.wrongRate = 0;
+        this.faultRate = 0;
+        this.seed = 0;
+    }
+
+    /**
+     * Constructor for a FakeBackend which answers verdicts from a fault matrix generated
+     * from the given seed: each file is wrong with probability wrongRate, and each wrong
+     * file fails each test with probability faultRate. The matrix has no fixed number of
+     * tests; any test index can be queried.
+     *
+     * @param numFiles  the number of (fake) implementations
+     * @param wrongRate the probability that a file is wrong
+     * @param faultRate the probability that a wrong file fails a given test
+     * @param seed      the seed from which every cell is derived
+     */
+    public FakeBackend(int numFiles, double wrongRate, double faultRate, long seed) {
+        this.faults = null;
+        this.numFiles = numFiles;
+        this.wrongRate = wrongRate;
+        this.faultRate = faultRate;
+        this.seed = seed;
+    }
+
+    /**
+     * Records the comparison mode of the wrapper, so that runImplementation() answers in
+     * the form that the wrapper would have reported.
+     *
+     * @param mode the comparison mode that the wrapper reports results for
+     */
+    @Override
+    public void onWrapperWritten(ComparisonMode mode) {
+        this.comparisonMode = mode;
+    }
+
+    /**
+     * Returns the names of the fake implementations, "impl000000.py" and so on, which
+     * sort in index order. The directory itself is never read.
+     *
+     * @param implDirPath ignored
+     * @return the names of the fake implementations
+     */
+    @Override
+    public List<String> listImplementations(String implDirPath) {
+        List<String> implementations = new ArrayList<>();
+        for (int i = 0; i < this.numFiles; i++) {
+            implementations.add(String.format("impl%06d.py", i));
+        }
+        return implementations;
+    }
+
+    /**
+     * Fingerprints each (fake) implementation by its name, since there is no source to
+     * compare; no two implementations are ever equivalent.
+     *
+     * @param implDirPath ignored
+     * @param filenames   the names of the implementations
+     * @param normalize   ignored
+     * @return the names of the implementations
+     */
+    @Override
+    public List<String> fingerprint(String implDirPath, List<String> filenames,
+                                    boolean normalize) {
+        return filenames;
+    }
+
+    /**
+     * Answers the result of each test case on the (fake) reference solution, which is
+     * simply the repr of the test's index.
+     *
+     * @param solutionPath ignored
+     * @param argFilePath  ignored
+     * @param testIndices  the indices of the test cases to be run
+     * @return the per-case results
+     */
+    @Override
+    public List<String> runSolution(String solutionPath, String argFilePath,
+                                    List<Integer> testIndices) {
+        List<String> results = new ArrayList<>();
+        for (int testIndex : testIndices) {
+            results.add(String.valueOf(testIndex));
+        }
+        return results;
+    }
+
+    /**
+     * Answers the result of each test case on a single (fake) implementation from the
+     * fault matrix, in the form reported by the wrapper (see onWrapperWritten()): in the
+     * IN_PYTHON mode, the verdict ("True" or "False"); otherwise, the result of the
+     * (fake) reference solution if the test passes, and the repr of a negative number
+     * (which never matches it) if it fails.
+     *
+     * @param implDirPath ignored
+     * @param filename    the name of the implementation, as returned by
+     *                    listImplementations()
+     * @param funcName    ignored
+     * @param argFilePath ignored
+     * @param testIndices the indices of the test cases to be run
+     * @return the per-case results
+     */
+    @Override
+    public List<String> runImplementation(String implDirPath, String filename,
+                                          String funcName, String argFilePath,
+                                          List<Integer> testIndices) {
+        int fileIndex = Integer.parseInt(filename.substring(4, filename.length() - 3));
+        List<String> results = new ArrayList<>();
+        for (int testIndex : testIndices) {
+            boolean fault = this.isFault(fileIndex, testIndex);
+            if (this.comparisonMode == ComparisonMode.IN_PYTHON) {
+                results.add(fault ? "False" : "True");
+            } else {
+                results.add(String.valueOf(fault ? -testIndex - 1 : testIndex));
+            }
+        }
+        this.numExecutions.addAndGet(testIndices.size());
+        return results;
+    }
+
+    /**
+     * Returns whether the given file fails the given test according to the fault
+     * matrix.
+     *
+     * @param fileIndex the index of the file
+     * @param testIndex the index of the test
+     * @return true if the file fails the test; false otherwise
+     */
+    public boolean isFault(int fileIndex, int testIndex) {
+        if (this.faults != null) {
+            return this.faults[fileIndex][testIndex];
+        }
+        return unitHash(fileIndex, -1) < this.wrongRate
+                && unitHash(fileIndex, testIndex) < this.faultRate;
+    }
+
+    /**
+     * Returns the number of (file, test) executions answered so far.
+     *
+     * @return the number of executions answered so far
+     */
+    public long getNumExecutions() {
+        return this.numExecutions.get();
+    }
+
+    /**
+     * Deterministically maps the seed and a (file, test) cell to a number in [0, 1),
+     * using the SplitMix64 finalizer.
+     *
+     * @param fileIndex the index of the file
+     * @param testIndex the index of the test
+     * @return a pseudorandom number in [0, 1)
+     */
+    private double unitHash(int fileIndex, int testIndex) {
+        long h = this.seed + 0x9E3779B97F4A7C15L * (((long) fileIndex << 32)
+                ^ (testIndex & 0xFFFFFFFFL));
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        h = h ^ (h >>> 31);
+        return (h >>> 11) * 0x1.0p-53;
+    }
+}
@@ -0,0 +1,83 @@
+package main.rice.test;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An execution backend which tests each implementation through a fork server (a
+ * "zygote"): a single python3 process which imports the implementation and the expected
+ * results once, then forks a child to run each test case. Each test case still runs in
+ * its own process, so tests remain isolated from one another (e.g. from mutated
+ * globals), but interpreter startup and imports are only paid for once per
+ * implementation. The reference solution is run the same way as by the
+ * SubprocessBackend.
+ */
+public class ForkServerBackend extends SubprocessBackend {
+
+    /**
+     * Runs the given test cases on a single implementation through a fork server (the
+     * wrapper, invoked with --serve), which reads test indices from its stdin (the
+     * control pipe) and reports the verdict and exit status of the child that ran each
+     * one on a single line of its stdout. Tests are sent one at a time, so neither pipe
+     * can fill up.
+     *
+     * @param implDirPath the absolute path to the directory containing the
+     *                    implementation and the wrapper
+     * @param filename    the name of the implementation being tested
+     * @param funcName    the name of the function under test
+     * @param argFilePath the absolute path to the argument file
+     * @param testIndices the indices of the test cases to be run
+     * @return the per-case verdicts of running the implementation
+     * @throws IOException if the fork server cannot be started or exits early
+     * @throws InterruptedException if the process is interrupted
+     */
+    @Override
+    public List<String> runImplementation(String implDirPath, String filename,
+                                          String funcName, String argFilePath,
+                                          List<Integer> testIndices)
+            throws IOException, InterruptedException {
+        ProcessBuilder pb = this.newProcessBuilder(List.of("python3",
+                implDirPath + "/wrapper.py", "--serve", filename, funcName, argFilePath));
+
+        // Tracebacks from failing children would otherwise accumulate in an unread pipe
+        pb.redirectError(ProcessBuilder.Redirect.DISCARD);
+        Process process = pb.start();
+
+        List<String> results = new ArrayList<>();
+        try (var writer = new BufferedWriter(new OutputStreamWriter(
+                process.getOutputStream()));
+             var reader = new BufferedReader(new InputStreamReader(
+                     process.getInputStream()))) {
+            for (int testIndex : testIndices) {
+                writer.write(testIndex + "\n");
+                writer.flush();
+
+                // Each line has the form "<test index> <exit status> <verdict>"
+                String line = reader.readLine();
+                if (line == null) {
+                    throw new IOException("fork server for " + filename + " exited early");
+                }
+                String[] fields = line.split(" ", 3);
+                int exitStatus = Integer.parseInt(fields[1]);
+                String verdict = fields.length > 2 ? fields[2] : "";
+
+                // A child that exceeded a resource limit reports it (or is killed by a
+                // signal that indicates it); otherwise, a child that exited abnormally
+                // fails regardless of what it reported
+                Outcome violation = exitStatus < 0 ? Outcome.fromSignal(-exitStatus)
+                        : null;
+                if (Outcome.fromMarker(verdict) != null || exitStatus == 0) {
+                    results.add(verdict);
+                } else if (violation != null) {
+                    results.add(violation.marker());
+                } else {
+                    results.add("exit status " + exitStatus);
+                }
+            }
+        }
+
+        process.waitFor();
+        return results;
+    }
+}
@@ -0,0 +1,493 @@
+package main.rice.test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * A zip or (optionally gzipped) tar archive of implementations, which can be listed and
+ * read without being extracted. Only regular files at the top level of the archive are
+ * considered, so that an archive behaves like the directory it was made from.
+ */
+public class ImplementationArchive {
+
+    /**
+     * The size of a block (and of an entry header) in a tar archive.
+     */
+    private static final int TAR_BLOCK_SIZE = 512;
+
+    /**
+     * The absolute path to the archive.
+     */
+    private final String archivePath;
+
+    /**
+     * Constructor for an ImplementationArchive.
+     *
+     * @param archivePath the absolute path to the archive
+     */
+    public ImplementationArchive(String archivePath) {
+        this.archivePath = archivePath;
+    }
+
+    /**
+     * Returns whether the given path points to an archive of implementations (a regular
+     * file whose name ends in .zip, .tar, .tar.gz, or .tgz), rather than to a directory.
+     *
+     * @param path the path to be checked
+     * @return true if the path points to an archive; false otherwise
+     */
+    public static boolean isArchive(String path) {
+        if (path == null || !Files.isRegularFile(Path.of(path))) {
+            return false;
+        }
+        String name = path.toLowerCase();
+        return name.endsWith(".zip") || name.endsWith(".tar") || name.endsWith(".tar.gz")
+                || name.endsWith(".tgz");
+    }
+
+    /**
+     * Returns the names of the implementations in the archive, with the same filtering
+     * and order as for a directory (see ExecutionBackend.listImplementations()): every
+     * .py file at the top level of the archive, other than the wrapper and the expected
+     * results, sorted by name. Only the entries' headers are read.
+     *
+     * @return the sorted names of the implementations
+     * @throws IOException if the archive cannot be read
+     */
+    public List<String> listImplementations() throws IOException {
+        List<String> implementations = new ArrayList<>();
+        for (String name : this.listTopLevelFiles()) {
+            if (name.endsWith(".py") && !name.equals("wrapper.py")
+                    && !name.equals("expected.py")) {
+                implementations.add(name);
+            }
+        }
+        Collections.sort(implementations);
+        return implementations;
+    }
+
+    /**
+     * Reads the contents of a single implementation from the archive.
+     *
+     * @param filename the name of the implementation
+     * @return the contents of the implementation
+     * @throws IOException if the archive cannot be read or has no such implementation
+     */
+    public byte[] read(String filename) throws IOException {
+        return this.readAll(List.of(filename)).get(0);
+    }
+
+    /**
+     * Reads the contents of each of the given implementations from the archive, which
+     * is opened only once; a tar archive (which has no index) is read in a single pass,
+     * which stops as soon as every implementation has been found.
+     *
+     * @param filenames the names of the implementations
+     * @return a list where the i-th element is the contents of the i-th implementation
+     * @throws IOException if the archive cannot be read or is missing any of the
+     *                     implementations
+     */
+    public List<byte[]> readAll(List<String> filenames) throws IOException {
+        Map<String, byte[]> contents = new HashMap<>();
+        if (this.isZip()) {
+            try (ZipFile zip = new ZipFile(this.archivePath)) {
+                for (String filename : filenames) {
+                    ZipEntry entry = zip.getEntry(filename);
+                    if (entry != null && !entry.isDirectory()) {
+                        contents.put(filename, zip.getInputStream(entry).readAllBytes());
+                    }
+                }
+            }
+        } else {
+            Set<String> wanted = new HashSet<>(filenames);
+            try (InputStream in = this.openTar()) {
+                TarHeader header;
+                while (contents.size() < wanted.size()
+                        && (header = readTarHeader(in)) != null) {
+                    if (header.isFile && wanted.contains(header.name)
+                            && !contents.containsKey(header.name)) {
+                        contents.put(header.name, in.readNBytes((int) header.size));
+                        skipTarPadding(in, header.size);
+                    } else {
+                        skipTarContents(in, header.size);
+                    }
+                }
+            }
+        }
+
+        List<byte[]> results = new ArrayList<>();
+        for (String filename : filenames) {
+            byte[] result = contents.get(filename);
+            if (result == null) {
+                throw new FileNotFoundException(this.archivePath + "/" + filename);
+            }
+            results.add(result);
+        }
+        return results;
+    }
+
+    /**
+     * Locates each regular file at the top level of a tar archive within its
+     * (decompressed, if necessary) contents, so that a reader can seek straight to a
+     * file rather than scanning the headers of every entry before it. If a name appears
+     * more than once, its first entry is the one located, as for read().
+     *
+     * @return a map from the name of each file to a two-element array holding the offset
+     * of its contents and their size, in bytes
+     * @throws IOException if the archive cannot be read
+     * @throws IllegalStateException if the archive is a zip archive, whose central
+     *                               directory already serves this purpose
+     */
+    public Map<String, long[]> locateTarMembers() throws IOException {
+        if (this.isZip()) {
+            throw new IllegalStateException("not a tar archive");
+        }
+        Map<String, long[]> members = new LinkedHashMap<>();
+        try (CountingInputStream in = new CountingInputStream(this.openTar())) {
+            TarHeader header;
+            while ((header = readTarHeader(in)) != null) {
+                if (header.isFile) {
+                    members.putIfAbsent(header.name,
+                            new long[]{in.position, header.size});
+                }
+                skipTarContents(in, header.size);
+            }
+        }
+        return members;
+    }
+
+    /**
+     * Returns whether the archive is a zip archive (as opposed to a tar archive).
+     *
+     * @return true if the archive is a zip archive; false otherwise
+     */
+    public boolean isZip() {
+        return this.archivePath.toLowerCase().endsWith(".zip");
+    }
+
+    /**
+     * Returns whether the archive is gzipped (which only a tar archive can be).
+     *
+     * @return true if the archive is gzipped; false otherwise
+     */
+    public boolean isGzipped() {
+        String name = this.archivePath.toLowerCase();
+        return name.endsWith(".gz") || name.endsWith(".tgz");
+    }
+
+    /**
+     * Returns the name of each regular file at the top level of the archive, in the order
+     * in which they appear, streaming through the entries' headers.
+     *
+     * @return the names of the files at the top level of the archive
+     * @throws IOException if the archive cannot be read
+     */
+    private List<String> listTopLevelFiles() throws IOException {
+        List<String> names = new ArrayList<>();
+        if (this.isZip()) {
+            // The central directory lists every entry without reading their contents
+            try (ZipFile zip = new ZipFile(this.archivePath)) {
+                Enumeration<? extends ZipEntry> entries = zip.entries();
+                while (entries.hasMoreElements()) {
+                    ZipEntry entry = entries.nextElement();
+                    String name = topLevelName(entry.getName());
+                    if (!entry.isDirectory() && name != null) {
+                        names.add(name);
+                    }
+                }
+            }
+            return names;
+        }
+
+        try (InputStream in = this.openTar()) {
+            TarHeader header;
+            while ((header = readTarHeader(in)) != null) {
+                if (header.isFile) {
+                    names.add(header.name);
+                }
+                skipTarContents(in, header.size);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Opens a stream over the (decompressed, if necessary) contents of a tar archive.
+     *
+     * @return a stream over the tar archive
+     * @throws IOException if the archive cannot be opened
+     */
+    private InputStream openTar() throws IOException {
+        InputStream in = new BufferedInputStream(new FileInputStream(this.archivePath));
+        if (this.isGzipped()) {
+            in = new BufferedInputStream(new GZIPInputStream(in));
+        }
+        return in;
+    }
+
+    /**
+     * Reads the header of the next entry of a tar archive, including any GNU long name or
+     * pax extended header that precedes it, leaving the stream at the start of the
+     * entry's contents.
+     *
+     * @param in the stream over the tar archive
+     * @return the header of the next entry, or null at the end of the archive
+     * @throws IOException if the archive cannot be read or is malformed
+     */
+    private static TarHeader readTarHeader(InputStream in) throws IOException {
+        String longName = null;
+        while (true) {
+            byte[] block = in.readNBytes(TAR_BLOCK_SIZE);
+            if (block.length < TAR_BLOCK_SIZE || block[0] == 0) {
+                return null;
+            }
+
+            long size = parseOctal(block, 124, 12);
+            char type = (char) block[156];
+            if (type == 'L') {
+                // A GNU long name, which applies to the next entry
+                longName = cString(in.readNBytes((int) size), 0, (int) size);
+                skipTarPadding(in, size);
+                continue;
+            } else if (type == 'x') {
+                // A pax extended header, which may override the next entry's path
+                String path = paxPath(in.readNBytes((int) size));
+                if (path != null) {
+                    longName = path;
+                }
+                skipTarPadding(in, size);
+                continue;
+            }
+
+            String name = longName;
+            if (name == null) {
+                name = cString(block, 0, 100);
+                if (new String(block, 257, 5, StandardCharsets.US_ASCII).equals("ustar")) {
+                    String prefix = cString(block, 345, 155);
+                    if (!prefix.isEmpty()) {
+                        name = prefix + "/" + name;
+                    }
+                }
+            }
+            String topLevel = topLevelName(name);
+            boolean isFile = (type == '0' || type == '\0') && topLevel != null;
+            return new TarHeader(isFile ? topLevel : name, size, isFile);
+        }
+    }
+
+    /**
+     * Skips over the contents of a tar entry of the given size, including its padding.
+     *
+     * @param in   the stream over the tar archive
+     * @param size the size of the entry
+     * @throws IOException if the archive cannot be read
+     */
+    private static void skipTarContents(InputStream in, long size) throws IOException {
+        in.skipNBytes(size);
+        skipTarPadding(in, size);
+    }
+
+    /**
+     * Skips over the padding after the contents of a tar entry of the given size.
+     *
+     * @param in   the stream over the tar archive
+     * @param size the size of the entry
+     * @throws IOException if the archive cannot be read
+     */
+    private static void skipTarPadding(InputStream in, long size) throws IOException {
+        long remainder = size % TAR_BLOCK_SIZE;
+        if (remainder != 0) {
+            in.skipNBytes(TAR_BLOCK_SIZE - remainder);
+        }
+    }
+
+    /**
+     * Returns the name of an archive entry if it's at the top level of the archive
+     * (ignoring any leading "./"), or null if it's nested within a directory.
+     *
+     * @param entryName the name of the entry within the archive
+     * @return the name of the entry, if it's at the top level; null otherwise
+     */
+    private static String topLevelName(String entryName) {
+        String name = entryName.startsWith("./") ? entryName.substring(2) : entryName;
+        return name.isEmpty() || name.contains("/") ? null : name;
+    }
+
+    /**
+     * Parses an octal number (as used in tar headers) from the given field.
+     *
+     * @param block  the header block
+     * @param offset the offset of the field
+     * @param length the length of the field
+     * @return the parsed number
+     * @throws IOException if the field is not a valid octal number
+     */
+    private static long parseOctal(byte[] block, int offset, int length)
+            throws IOException {
+        String field = cString(block, offset, length).trim();
+        try {
+            return field.isEmpty() ? 0 : Long.parseLong(field, 8);
+        } catch (NumberFormatException e) {
+            throw new IOException("malformed tar header", e);
+        }
+    }
+
+    /**
+     * Decodes a NUL-terminated UTF-8 string from the given field.
+     *
+     * @param bytes  the bytes containing the field
+     * @param offset the offset of the field
+     * @param length the length of the field
+     * @return the decoded string
+     */
+    private static String cString(byte[] bytes, int offset, int length) {
+        int end = offset;
+        while (end < offset + length && end < bytes.length && bytes[end] != 0) {
+            end++;
+        }
+        return new String(bytes, offset, end - offset, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Extracts the path record, if any, from the contents of a pax extended header,
+     * whose records have the form "length key=value\n".
+     *
+     * @param contents the contents of the pax extended header
+     * @return the path, or null if there is no path record
+     */
+    private static String paxPath(byte[] contents) {
+        int pos = 0;
+        while (pos < contents.length) {
+            int space = pos;
+            while (space < contents.length && contents[space] != ' ') {
+                space++;
+            }
+            int length;
+            try {
+                length = Integer.parseInt(new String(contents, pos, space - pos,
+                        StandardCharsets.US_ASCII));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            if (length <= 0 || pos + length > contents.length) {
+                return null;
+            }
+            String record = new String(contents, space + 1, pos + length - space - 2,
+                    StandardCharsets.UTF_8);
+            if (record.startsWith("path=")) {
+                return record.substring(5);
+            }
+            pos += length;
+        }
+        return null;
+    }
+
+    /**
+     * The parts of a tar entry's header that matter here.
+     */
+    private static class TarHeader {
+
+        /**
+         * The name of the entry (relative to the top level, if it's a regular file
+         * there).
+         */
+        private final String name;
+
+        /**
+         * The size of the entry's contents.
+         */
+        private final long size;
+
+        /**
+         * Whether the entry is a regular file at the top level of the archive.
+         */
+        private final boolean isFile;
+
+        /**
+         * Constructor for a TarHeader; initializes all fields.
+         *
+         * @param name   the name of the entry
+         * @param size   the size of the entry's contents
+         * @param isFile whether the entry is a regular file at the top level
+         */
+        private TarHeader(String name, long size, boolean isFile) {
+            this.name = name;
+            this.size = size;
+            this.isFile = isFile;
+        }
+    }
+
+    /**
+     * A stream which keeps track of how far into the underlying stream it has read (or
+     * skipped).
+     */
+    private static class CountingInputStream extends FilterInputStream {
+
+        /**
+         * The number of bytes read or skipped so far.
+         */
+        private long position;
+
+        /**
+         * Constructor for a CountingInputStream, which starts at position 0.
+         *
+         * @param in the underlying stream
+         */
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        /**
+         * Reads a single byte, counting it.
+         *
+         * @return the byte read, or -1 at the end of the stream
+         * @throws IOException if the stream cannot be read
+         */
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                this.position++;
+            }
+            return b;
+        }
+
+        /**
+         * Reads up to the given number of bytes into the given array, counting them.
+         *
+         * @param b   the array to read into
+         * @param off the offset in the array of the first byte read
+         * @param len the largest number of bytes to read
+         * @return the number of bytes read, or -1 at the end of the stream
+         * @throws IOException if the stream cannot be read
+         */
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                this.position += n;
+            }
+            return n;
+        }
+
+        /**
+         * Skips up to the given number of bytes, counting them.
+         *
+         * @param n the largest number of bytes to skip
+         * @return the number of bytes skipped
+         * @throws IOException if the stream cannot be skipped
+         */
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            this.position += skipped;
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package main.rice.test;
+
+/**
+ * The possible outcomes of running a single test case on a single implementation.
+ */
+public enum Outcome {
+
+    /**
+     * The implementation returned the expected result.
+     */
+    PASSED,
+
+    /**
+     * The implementation returned something else, raised an exception, or crashed.
+     */
+    FAILED,
+
+    /**
+     * The implementation exceeded its CPU time limit.
+     */
+    CPU_LIMIT,
+
+    /**
+     * The implementation exceeded its memory (address space) limit.
+     */
+    MEMORY_LIMIT,
+
+    /**
+     * The implementation exceeded its output size limit.
+     */
+    OUTPUT_LIMIT,
+
+    /**
+     * The implementation returned the expected result, but took too long to do so
+     * relative to the reference solution.
+     */
+    TOO_SLOW;
+
+    /**
+     * The prefix of the marker that the harness reports instead of a result when a
+     * resource limit is exceeded; no result (a verdict, repr, or digest) starts with it.
+     */
+    private static final String MARKER_PREFIX = "!";
+
+    /**
+     * Returns the marker that the harness reports when this limit is exceeded, e.g.
+     * "!CPU_LIMIT".
+     *
+     * @return the marker for this outcome
+     */
+    public String marker() {
+        return MARKER_PREFIX + this.name();
+    }
+
+    /**
+     * Returns the resource limit violation reported by the given result, if it's the
+     * marker of one (see marker()).
+     *
+     * @param result the result reported by the harness
+     * @return the outcome named by the marker, or null if the result is not a marker
+     */
+    public static Outcome fromMarker(String result) {
+        if (!result.startsWith(MARKER_PREFIX)) {
+            return null;
+        }
+        for (Outcome outcome : new Outcome[] {CPU_LIMIT, MEMORY_LIMIT, OUTPUT_LIMIT}) {
+            if (outcome.marker().equals(result)) {
+                return outcome;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the limit violation indicated by a process having been killed by the given
+     * signal: SIGXCPU (24) when the CPU time limit is exceeded, or SIGXFSZ (25) when the
+     * file size limit is exceeded.
+     *
+     * @param signal the number of the signal that killed the process
+     * @return the corresponding outcome, or null if the signal doesn't indicate a limit
+     * violation
+     */
+    public static Outcome fromSignal(int signal) {
+        return switch (signal) {
+            case 24 -> CPU_LIMIT;
+            case 25 -> OUTPUT_LIMIT;
+            default -> null;
+        };
+    }
+}
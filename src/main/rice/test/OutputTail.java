@@ -0,0 +1,104 @@
+package main.rice.test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A capped ring buffer holding the tail of a stream of output (e.g. a process's stderr):
+ * only the most recent bytes, up to a fixed capacity, are kept, so that draining a
+ * stream of any length takes bounded memory.
+ */
+public class OutputTail {
+
+    /**
+     * The ring buffer holding the most recent bytes.
+     */
+    private final byte[] buffer;
+
+    /**
+     * The total number of bytes that have been written, including those that have since
+     * been overwritten.
+     */
+    private long totalBytes;
+
+    /**
+     * Constructor for an OutputTail.
+     *
+     * @param capacity the maximum number of bytes to keep
+     */
+    public OutputTail(int capacity) {
+        this.buffer = new byte[capacity];
+    }
+
+    /**
+     * Reads the given stream until it ends, keeping only its tail.
+     *
+     * @param in the stream to be drained
+     * @throws IOException if the stream cannot be read
+     */
+    public void drain(InputStream in) throws IOException {
+        byte[] chunk = new byte[8192];
+        int length;
+        while ((length = in.read(chunk)) != -1) {
+            this.write(chunk, 0, length);
+        }
+    }
+
+    /**
+     * Appends the given bytes, overwriting the oldest bytes if the capacity is exceeded.
+     *
+     * @param bytes  the array holding the bytes to be appended
+     * @param offset the offset of the first byte to be appended
+     * @param length the number of bytes to be appended
+     */
+    public synchronized void write(byte[] bytes, int offset, int length) {
+        int capacity = this.buffer.length;
+        if (capacity > 0) {
+            // Only the last (capacity) bytes of a long write can survive
+            int skip = Math.max(0, length - capacity);
+            int pos = (int) ((this.totalBytes + skip) % capacity);
+            for (int i = offset + skip; i < offset + length; i++) {
+                this.buffer[pos] = bytes[i];
+                pos = pos + 1 == capacity ? 0 : pos + 1;
+            }
+        }
+        this.totalBytes += length;
+    }
+
+    /**
+     * Returns the total number of bytes that have been written, including those that are
+     * no longer kept.
+     *
+     * @return the total number of bytes written
+     */
+    public synchronized long getTotalBytes() {
+        return this.totalBytes;
+    }
+
+    /**
+     * Returns whether any bytes have been dropped because the capacity was exceeded.
+     *
+     * @return true if the output was truncated; false otherwise
+     */
+    public synchronized boolean isTruncated() {
+        return this.totalBytes > this.buffer.length;
+    }
+
+    /**
+     * Returns the bytes that are kept, oldest first, decoded as UTF-8.
+     *
+     * @return the tail of the output
+     */
+    @Override
+    public synchronized String toString() {
+        int capacity = this.buffer.length;
+        int size = (int) Math.min(this.totalBytes, capacity);
+        byte[] tail = new byte[size];
+        int start = (int) ((this.totalBytes - size) % Math.max(capacity, 1));
+        for (int i = 0; i < size; i++) {
+            tail[i] = this.buffer[(start + i) % capacity];
+        }
+        return new String(tail, StandardCharsets.UTF_8);
+    }
+}
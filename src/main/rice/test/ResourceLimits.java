@@ -0,0 +1,70 @@
+package main.rice.test;
+
+/**
+ * Per-test resource limits for the processes that run test cases on implementations,
+ * applied (on Linux) through rlimits before any code under test is loaded. A limit of
+ * zero means that resource is unlimited.
+ */
+public class ResourceLimits {
+
+    /**
+     * The maximum CPU time, in seconds.
+     */
+    private final int cpuSeconds;
+
+    /**
+     * The maximum size of the address space, in bytes.
+     */
+    private final long memoryBytes;
+
+    /**
+     * The maximum number of characters that may be printed, and the maximum size (in
+     * bytes) of any file that may be written.
+     */
+    private final long outputBytes;
+
+    /**
+     * Constructor for a ResourceLimits object; initializes all fields.
+     *
+     * @param cpuSeconds  the maximum CPU time, in seconds (or 0 for no limit)
+     * @param memoryBytes the maximum size of the address space, in bytes (or 0 for no
+     *                    limit)
+     * @param outputBytes the maximum amount of output, in characters printed or bytes
+     *                    written to a file (or 0 for no limit)
+     */
+    public ResourceLimits(int cpuSeconds, long memoryBytes, long outputBytes) {
+        if (cpuSeconds < 0 || memoryBytes < 0 || outputBytes < 0) {
+            throw new IllegalArgumentException("limits must be non-negative");
+        }
+        this.cpuSeconds = cpuSeconds;
+        this.memoryBytes = memoryBytes;
+        this.outputBytes = outputBytes;
+    }
+
+    /**
+     * Returns the maximum CPU time, in seconds.
+     *
+     * @return the maximum CPU time, or 0 if unlimited
+     */
+    public int getCpuSeconds() {
+        return this.cpuSeconds;
+    }
+
+    /**
+     * Returns the maximum size of the address space, in bytes.
+     *
+     * @return the maximum size of the address space, or 0 if unlimited
+     */
+    public long getMemoryBytes() {
+        return this.memoryBytes;
+    }
+
+    /**
+     * Returns the maximum amount of output.
+     *
+     * @return the maximum amount of output, or 0 if unlimited
+     */
+    public long getOutputBytes() {
+        return this.outputBytes;
+    }
+}
@@ -0,0 +1,138 @@
+package main.rice.test;
+
+import java.util.Locale;
+
+/**
+ * A summary of pilot-sample screening (see Tester.setPilotScreening()): how many files
+ * were sampled, how many test cases were kept for the remaining files and why, and an
+ * estimate of the detection power that leaving out the other test cases may have cost.
+ */
+public class ScreeningReport {
+
+    /**
+     * The number of files on which every test case was run.
+     */
+    private final int sampledFiles;
+
+    /**
+     * The number of test cases kept because they caught a sampled file.
+     */
+    private final int keptTests;
+
+    /**
+     * The number of test cases kept at random, in reserve.
+     */
+    private final int reserveTests;
+
+    /**
+     * The number of test cases that weren't run on the remaining files.
+     */
+    private final int screenedOutTests;
+
+    /**
+     * The number of executions saved by not running the screened-out test cases.
+     */
+    private final long savedExecutions;
+
+    /**
+     * The estimated probability that an incorrect file is caught by none of the kept
+     * test cases.
+     */
+    private final double estimatedMissRate;
+
+    /**
+     * Constructor for a ScreeningReport; initializes all fields.
+     *
+     * @param sampledFiles      the number of files on which every test case was run
+     * @param keptTests         the number of test cases kept because they caught a
+     *                          sampled file
+     * @param reserveTests      the number of test cases kept at random
+     * @param screenedOutTests  the number of test cases not run on the remaining files
+     * @param savedExecutions   the number of executions saved by not running them
+     * @param estimatedMissRate the estimated probability that an incorrect file is
+     *                          caught by none of the kept test cases
+     */
+    public ScreeningReport(int sampledFiles, int keptTests, int reserveTests,
+                           int screenedOutTests, long savedExecutions,
+                           double estimatedMissRate) {
+        this.sampledFiles = sampledFiles;
+        this.keptTests = keptTests;
+        this.reserveTests = reserveTests;
+        this.screenedOutTests = screenedOutTests;
+        this.savedExecutions = savedExecutions;
+        this.estimatedMissRate = estimatedMissRate;
+    }
+
+    /**
+     * Returns the number of files on which every test case was run.
+     *
+     * @return the number of sampled files
+     */
+    public int getSampledFiles() {
+        return this.sampledFiles;
+    }
+
+    /**
+     * Returns the number of test cases kept because they caught a sampled file.
+     *
+     * @return the number of test cases kept for catching something
+     */
+    public int getKeptTests() {
+        return this.keptTests;
+    }
+
+    /**
+     * Returns the number of test cases kept at random, in reserve.
+     *
+     * @return the number of reserve test cases
+     */
+    public int getReserveTests() {
+        return this.reserveTests;
+    }
+
+    /**
+     * Returns the number of test cases that weren't run on the remaining files.
+     *
+     * @return the number of screened-out test cases
+     */
+    public int getScreenedOutTests() {
+        return this.screenedOutTests;
+    }
+
+    /**
+     * Returns the number of executions saved by not running the screened-out test cases
+     * on the remaining files.
+     *
+     * @return the number of saved executions
+     */
+    public long getSavedExecutions() {
+        return this.savedExecutions;
+    }
+
+    /**
+     * Returns the estimated probability that an incorrect file outside the sample is
+     * caught by none of the kept test cases (and so is missed, if the screened-out test
+     * cases would have caught it): the fraction of the incorrect sampled files that
+     * would have been missed had they been left out of the sample, i.e. that are caught
+     * by neither a reserve test case nor any test case that caught another sampled file.
+     *
+     * @return the estimated miss rate, between 0 and 1
+     */
+    public double getEstimatedMissRate() {
+        return this.estimatedMissRate;
+    }
+
+    /**
+     * Returns a one-line summary of the screening.
+     *
+     * @return a summary of the screening
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "screened %d files: kept %d + %d reserve tests, "
+                + "dropped %d (%d executions saved), estimated miss rate %.1f%%",
+                this.sampledFiles, this.keptTests, this.reserveTests,
+                this.screenedOutTests, this.savedExecutions,
+                this.estimatedMissRate * 100);
+    }
+}
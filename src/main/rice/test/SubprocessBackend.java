@@ -0,0 +1,593 @@
+package main.rice.test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * An execution backend which starts a fresh python3 process for every test case on every
+ * file. This gives complete isolation between test cases, at the cost of paying for
+ * interpreter startup (and for importing the file under test) on every execution.
+ */
+public class SubprocessBackend implements ExecutionBackend {
+
+    /**
+     * A Python script which byte-compiles every file whose path is given on stdin, in
+     * parallel, and writes a line to stdout for each one that fails (its path, a tab, and
+     * the error). The worker pool is forked explicitly, since a script passed with -c
+     * can't be re-imported by spawned workers. The resulting .pyc files are validated
+     * against a hash of their source rather than its modification time, so a rewritten
+     * file can never be shadowed by a stale cache entry. Since the cache prefix applies
+     * to the standard library too, the script also imports every module that the wrapper
+     * and the archive importer import, so that they get cached before any test runs.
+     */
+    private static final String COMPILE_SCRIPT = """
+            import gzip
+            import hashlib
+            import importlib.abc
+            import importlib.util
+            import mmap
+            import os
+            import py_compile
+            import resource
+            import signal
+            import struct
+            import sys
+            import time
+            import traceback
+            import zipfile
+            from multiprocessing import get_context
+
+            def compile_one(path):
+                try:
+                    py_compile.compile(path, doraise=True, invalidation_mode=
+                                       py_compile.PycInvalidationMode.CHECKED_HASH)
+                except (py_compile.PyCompileError, OSError) as e:
+                    return path + "\t" + " ".join(str(e).split())
+                return None
+
+            paths = sys.stdin.read().splitlines()
+            workers = min(len(paths), os.cpu_count() or 1)
+            if workers > 1:
+                with get_context("fork").Pool(workers) as pool:
+                    errors = pool.map(compile_one, paths,
+                                      chunksize=max(1, len(paths) // (4 * workers)))
+            else:
+                errors = [compile_one(path) for path in paths]
+            for error in errors:
+                if error:
+                    print(error)
+            """;
+
+    /**
+     * A Python script which checks each implementation whose name is given on a line of
+     * stdin (within the directory given by argv[1]) by importing it in a forked child and
+     * looking up the function under test (named by argv[2]). If the directory holds an
+     * archive importer (see Tester.writeArchiveImporter()), the implementations are
+     * imported from the archive through it. For each one, it writes a
+     * line to stdout: empty if the check passed, or the reason why it failed otherwise.
+     * Forking keeps the implementations (and anything they do at import time) isolated
+     * from one another and from the script, and anything they print is discarded.
+     */
+    private static final String PREFLIGHT_SCRIPT = """
+            import os
+            import sys
+            from importlib import import_module
+
+            def check(mod_name, fname):
+                try:
+                    mod = import_module(mod_name)
+                except BaseException as e:
+                    return "cannot be imported: " + type(e).__name__ + ": " + str(e)
+                if not hasattr(mod, fname):
+                    return repr(fname) + " is not defined"
+                if not callable(getattr(mod, fname)):
+                    return repr(fname) + " is not callable"
+                return ""
+
+            if __name__ == "__main__":
+                impl_dir, fname = sys.argv[1], sys.argv[2]
+                sys.path.insert(0, impl_dir)
+                if os.path.exists(os.path.join(impl_dir, "archive_importer.py")):
+                    import archive_importer
+                out = open(os.dup(1), "w", buffering=1)
+                devnull = os.open(os.devnull, os.O_RDWR)
+                os.dup2(devnull, 1)
+                os.dup2(devnull, 2)
+                while True:
+                    line = sys.stdin.readline()
+                    if not line:
+                        break
+                    r, w = os.pipe()
+                    pid = os.fork()
+                    if pid == 0:
+                        os.close(r)
+                        os.dup2(devnull, 0)
+                        reason = check(line.strip()[:-3], fname)
+                        os.write(w, reason.encode("utf-8", "replace"))
+                        os._exit(0)
+                    os.close(w)
+                    with os.fdopen(r, "rb") as f:
+                        reason = f.read().decode("utf-8", "replace")
+                    _, status = os.waitpid(pid, 0)
+                    code = os.waitstatus_to_exitcode(status)
+                    if code != 0 and not reason:
+                        reason = "exited with status " + str(code) + " while loading"
+                    out.write(" ".join(reason.split()) + "\\n")
+            """;
+
+    /**
+     * A Python script which fingerprints each source given on stdin (as its length in
+     * bytes on a line of its own, followed by the source itself) by hashing its token
+     * stream, leaving out comments, blank lines, and the exact text of indentation and
+     * line endings (only the structure of the indentation matters). A source that cannot
+     * be tokenized is fingerprinted by its raw contents instead. The fingerprints are
+     * written to stdout, one per line, in the same order.
+     */
+    private static final String FINGERPRINT_SCRIPT = """
+            import hashlib
+            import io
+            import sys
+            import tokenize
+
+            IGNORED = {tokenize.COMMENT, tokenize.NL, tokenize.ENCODING}
+            BLANKED = {tokenize.INDENT, tokenize.NEWLINE}
+
+            def fingerprint(data):
+                h = hashlib.sha256()
+                try:
+                    for tok in tokenize.tokenize(io.BytesIO(data).readline):
+                        if tok.type not in IGNORED:
+                            text = "" if tok.type in BLANKED else tok.string
+                            h.update(repr((tok.type, text)).encode("utf-8", "replace"))
+                    return "tokens:" + h.hexdigest()
+                except (SyntaxError, tokenize.TokenError):
+                    return "raw:" + hashlib.sha256(data).hexdigest()
+
+            if __name__ == "__main__":
+                data = sys.stdin.buffer.read()
+                pos = 0
+                while pos < len(data):
+                    newline = data.index(b"\\n", pos)
+                    end = newline + 1 + int(data[pos:newline])
+                    print(fingerprint(data[newline + 1:end]))
+                    pos = end
+            """;
+
+    /**
+     * The number of bytes of each process's stderr that are kept.
+     */
+    private static final int STDERR_TAIL_SIZE = 64 * 1024;
+
+    /**
+     * The threads which drain the stderr of each process while its stdout is being read.
+     */
+    private static final ExecutorService DRAINERS = Executors.newCachedThreadPool(
+            runnable -> {
+                Thread thread = new Thread(runnable, "stderr-drainer");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    /**
+     * The tail of the stderr of the most recently completed test process; null if none
+     * has completed yet.
+     */
+    private volatile OutputTail lastStderr;
+
+    /**
+     * The run-scoped directory that holds the byte-compiled modules (passed to every
+     * process as PYTHONPYCACHEPREFIX, so nothing is cached within the implementation
+     * directory itself); null outside of a run.
+     */
+    private Path pycachePrefix;
+
+    /**
+     * The error raised when byte-compiling each file that failed to compile in the last
+     * call to beginRun(), keyed by its path.
+     */
+    private final Map<String, String> compileErrors = new HashMap<>();
+
+    /**
+     * Byte-compiles the expected results, the wrapper, and every implementation once, in
+     * parallel, into a fresh run-scoped cache directory, so that the processes started
+     * for individual test cases don't each have to recompile them. Only the files that
+     * exist in the directory are compiled: the expected results aren't written in every
+     * mode, and implementations in an archive are imported from it directly. A file that
+     * fails to compile (e.g. an implementation with a syntax error) is left to fail when
+     * it's imported, and its error is recorded (see getCompileErrors()).
+     *
+     * @param implDirPath the absolute path to the directory containing the
+     *                    implementations, the wrapper, and the expected results
+     * @param filenames   the names of the implementations that will be tested
+     * @throws IOException if the cache directory cannot be created, or the compiler
+     *                     cannot be started or exits with an error
+     * @throws InterruptedException if the compiler is interrupted
+     */
+    @Override
+    public void beginRun(String implDirPath, List<String> filenames)
+            throws IOException, InterruptedException {
+        this.pycachePrefix = Files.createTempDirectory("pycache");
+
+        List<String> candidates = new ArrayList<>(List.of("expected.py", "wrapper.py"));
+        candidates.addAll(filenames);
+        List<String> paths = new ArrayList<>();
+        for (String filename : candidates) {
+            if (Files.isRegularFile(Path.of(implDirPath, filename))) {
+                paths.add(implDirPath + "/" + filename);
+            }
+        }
+
+        // Pass the paths via stdin, since there may be too many for the command line
+        this.compileErrors.clear();
+        Process process = this.newProcessBuilder(List.of("python3", "-c",
+                COMPILE_SCRIPT)).start();
+        OutputTail stderr = new OutputTail(STDERR_TAIL_SIZE);
+        Future<?> drained = DRAINERS.submit(() -> {
+            stderr.drain(process.getErrorStream());
+            return null;
+        });
+        try (var writer = new BufferedWriter(new OutputStreamWriter(
+                process.getOutputStream()))) {
+            for (String path : paths) {
+                writer.write(path + "\n");
+            }
+        }
+
+        // Record the error of each file that failed to compile
+        try (var reader = new BufferedReader(new InputStreamReader(
+                process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int tab = line.indexOf('\t');
+                if (tab >= 0) {
+                    this.compileErrors.put(line.substring(0, tab),
+                            line.substring(tab + 1));
+                }
+            }
+        }
+        process.waitFor();
+        try {
+            drained.get();
+        } catch (ExecutionException e) {
+            throw new IOException("cannot read stderr", e.getCause());
+        }
+        if (process.exitValue() != 0) {
+            throw new IOException("byte-compilation failed: " + stderr);
+        }
+    }
+
+    /**
+     * Returns the error raised when byte-compiling each file that failed to compile in
+     * the last call to beginRun(); each such file is still run, and fails as it's
+     * imported.
+     *
+     * @return the compile errors, keyed by the path of the file
+     */
+    public Map<String, String> getCompileErrors() {
+        return this.compileErrors;
+    }
+
+    /**
+     * Computes a fingerprint of each of the given implementations; if they should be
+     * normalized, this is a hash of each one's token stream (see FINGERPRINT_SCRIPT),
+     * computed by a single python3 process to which the sources are piped, and otherwise
+     * a hash of its contents.
+     *
+     * @param implDirPath the absolute path to the directory (or archive) containing the
+     *                    implementations
+     * @param filenames   the names of the implementations
+     * @param normalize   true if implementations that differ only in comments and
+     *                    whitespace should have equal fingerprints; false if only
+     *                    identical implementations should
+     * @return a list where the i-th element is the fingerprint of the i-th
+     * implementation
+     * @throws IOException if an implementation cannot be read, or the fingerprinting
+     *                     process cannot be started or exits early
+     * @throws InterruptedException if the process is interrupted
+     */
+    @Override
+    public List<String> fingerprint(String implDirPath, List<String> filenames,
+                                    boolean normalize)
+            throws IOException, InterruptedException {
+        if (!normalize) {
+            return ExecutionBackend.super.fingerprint(implDirPath, filenames, false);
+        }
+
+        // Every source is written before any fingerprint is read, which is safe since
+        // the script reads all of its input before writing anything
+        List<byte[]> sources = this.readImplementations(implDirPath, filenames);
+        ProcessBuilder pb = this.newProcessBuilder(List.of("python3", "-c",
+                FINGERPRINT_SCRIPT));
+        pb.redirectError(ProcessBuilder.Redirect.DISCARD);
+        Process process = pb.start();
+        try (var out = new BufferedOutputStream(process.getOutputStream())) {
+            for (byte[] source : sources) {
+                out.write((source.length + "\n").getBytes(StandardCharsets.US_ASCII));
+                out.write(source);
+            }
+        }
+
+        List<String> fingerprints = new ArrayList<>();
+        try (var reader = new BufferedReader(new InputStreamReader(
+                process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                fingerprints.add(line);
+            }
+        }
+        process.waitFor();
+        if (fingerprints.size() != filenames.size()) {
+            throw new IOException("fingerprinting exited early");
+        }
+        return fingerprints;
+    }
+
+    /**
+     * Checks that each implementation can be imported and defines the function under
+     * test, by loading each one in a forked child of a single python3 process (see
+     * PREFLIGHT_SCRIPT). Implementations are sent one at a time, so neither pipe can fill
+     * up.
+     *
+     * @param implDirPath the absolute path to the directory containing the
+     *                    implementations
+     * @param filenames   the names of the implementations to be checked
+     * @param funcName    the name of the function under test
+     * @return a map from the name of each implementation that failed the check to the
+     * reason why
+     * @throws IOException if the checking process cannot be started or exits early
+     * @throws InterruptedException if the process is interrupted
+     */
+    @Override
+    public Map<String, String> preflight(String implDirPath, List<String> filenames,
+                                         String funcName)
+            throws IOException, InterruptedException {
+        ProcessBuilder pb = this.newProcessBuilder(List.of("python3", "-c",
+                PREFLIGHT_SCRIPT, implDirPath, funcName));
+        pb.redirectError(ProcessBuilder.Redirect.DISCARD);
+        Process process = pb.start();
+
+        Map<String, String> failures = new HashMap<>();
+        try (var writer = new BufferedWriter(new OutputStreamWriter(
+                process.getOutputStream()));
+             var reader = new BufferedReader(new InputStreamReader(
+                     process.getInputStream()))) {
+            for (String filename : filenames) {
+                writer.write(filename + "\n");
+                writer.flush();
+                String reason = reader.readLine();
+                if (reason == null) {
+                    throw new IOException("preflight check exited early");
+                }
+                if (!reason.isEmpty()) {
+                    failures.put(filename, reason);
+                }
+            }
+        }
+
+        process.waitFor();
+        return failures;
+    }
+
+    /**
+     * Deletes the run-scoped cache directory.
+     *
+     * @throws IOException if the cache directory cannot be deleted
+     */
+    @Override
+    public void endRun() throws IOException {
+        if (this.pycachePrefix == null) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(this.pycachePrefix)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+        this.pycachePrefix = null;
+    }
+
+    /**
+     * Runs each test case on the reference solution in a new python3 process.
+     *
+     * @param solutionPath the absolute path to the reference solution
+     * @param argFilePath  the absolute path to the argument file
+     * @param testIndices  the indices of the test cases to be run
+     * @return the per-case results of running the solution
+     * @throws IOException if the solution cannot be run or its output cannot be read
+     * @throws InterruptedException if a process is interrupted
+     */
+    @Override
+    public List<String> runSolution(String solutionPath, String argFilePath,
+                                    List<Integer> testIndices)
+            throws IOException, InterruptedException {
+        List<String> results = new ArrayList<>();
+        for (int testIndex : testIndices) {
+            results.add(runTestHelper(getExpTestArgs(solutionPath, argFilePath,
+                    testIndex)));
+        }
+        return results;
+    }
+
+    /**
+     * Runs each test case on a single implementation in a new python3 process.
+     *
+     * @param implDirPath the absolute path to the directory containing the
+     *                    implementation and the wrapper
+     * @param filename    the name of the implementation being tested
+     * @param funcName    the name of the function under test
+     * @param argFilePath the absolute path to the argument file
+     * @param testIndices the indices of the test cases to be run
+     * @return the per-case verdicts of running the implementation
+     * @throws IOException if the implementation cannot be run or its output cannot be
+     *                     read
+     * @throws InterruptedException if a process is interrupted
+     */
+    @Override
+    public List<String> runImplementation(String implDirPath, String filename,
+                                          String funcName, String argFilePath,
+                                          List<Integer> testIndices)
+            throws IOException, InterruptedException {
+        List<String> results = new ArrayList<>();
+        for (int testIndex : testIndices) {
+            results.add(runTestHelper(getTestArgs(implDirPath, filename, funcName,
+                    argFilePath, testIndex)));
+        }
+        return results;
+    }
+
+    /**
+     * Builds the list of command-line arguments for executing the solution in order to
+     * get the expected results on a single test case.
+     *
+     * @param solutionPath the absolute path to the reference solution
+     * @param argFilePath  the absolute path to the argument file
+     * @param testIndex    the index of the test case to be run
+     * @return the command-line args for running the given test case through the solution
+     */
+    private static List<String> getExpTestArgs(String solutionPath, String argFilePath,
+                                               int testIndex) {
+        List<String> args = new ArrayList<>();
+
+        // The solution must be a python3 file
+        args.add("python3");
+        args.add(solutionPath);
+
+        // Rather than passing the arguments themselves (which may exceed the maximum
+        // length of a command line), pass the location of the argument file and the
+        // index of the test case within it; the footer will take care of looking up the
+        // arguments and converting them to Python objects
+        args.add(argFilePath);
+        args.add(String.valueOf(testIndex));
+        return args;
+    }
+
+    /**
+     * Builds the list of command-line arguments for executing a buggy implementation in
+     * order to get the actual results on a single test case.
+     *
+     * @param implDirPath the absolute path to the directory containing the
+     *                    implementation and the wrapper
+     * @param filename    the name of the implementation being tested
+     * @param funcName    the name of the function under test
+     * @param argFilePath the absolute path to the argument file
+     * @param testIndex   the index of the test case to be run
+     * @return the command-line args for running the given test case through the wrapper
+     */
+    private static List<String> getTestArgs(String implDirPath, String filename,
+                                            String funcName, String argFilePath,
+                                            int testIndex) {
+        List<String> args = new ArrayList<>();
+
+        // The implementation must be a python3 file
+        args.add("python3");
+
+        // Directly invoking the wrapper, which will dynamically load the file under test
+        args.add(implDirPath + "/wrapper.py");
+
+        // Need to include the index of the test case so that we can look up the expected
+        // results to determine whether the test passes or fails; the same index is used
+        // to look up the arguments within the argument file
+        args.add(String.valueOf(testIndex));
+
+        // Also need to know which file we're testing and which function to invoke within
+        // the file under test
+        args.add(filename);
+        args.add(funcName);
+        args.add(argFilePath);
+        return args;
+    }
+
+    /**
+     * Creates a builder for a Python process with the given command, which will use the
+     * run-scoped cache of byte-compiled modules (if a run is in progress).
+     *
+     * @param command the command-line args of the process
+     * @return the process builder
+     */
+    protected ProcessBuilder newProcessBuilder(List<String> command) {
+        ProcessBuilder pb = new ProcessBuilder(command);
+        if (this.pycachePrefix != null) {
+            pb.environment().put("PYTHONPYCACHEPREFIX", this.pycachePrefix.toString());
+        }
+        return pb;
+    }
+
+    /**
+     * Returns the tail (up to 64 KiB) of the stderr of the most recently completed test
+     * process, which is where anything printed by the code under test ends up.
+     *
+     * @return the tail of the most recent stderr, or null if no process has completed
+     */
+    public OutputTail getLastStderr() {
+        return this.lastStderr;
+    }
+
+    /**
+     * Runs a Python process (using a list of arguments, as output by getTestArgs or
+     * getExpTestArgs) and reads its output. The harness reserves the process's stdout as
+     * the channel for the result, moving anything the code under test prints onto
+     * stderr, which is drained concurrently into a capped ring buffer; neither pipe can
+     * fill up, and the result is unaffected by whatever gets printed.
+     *
+     * @param args the arguments for the process to be created
+     * @return the result of reading from the process
+     * @throws IOException if the file to run or its output cannot be accessed
+     * @throws InterruptedException if the process is interrupted
+     */
+    private String runTestHelper(List<String> args)
+            throws IOException, InterruptedException {
+        Process process = this.newProcessBuilder(args).start();
+        OutputTail stderr = new OutputTail(STDERR_TAIL_SIZE);
+        Future<?> drained = DRAINERS.submit(() -> {
+            stderr.drain(process.getErrorStream());
+            return null;
+        });
+
+        // Redirect the output of the process to here
+        var reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
+
+        // Read the output of the process, the last line of which should be the result
+        // (anything printed at import time by a solution with a footer, which runs
+        // before the result channel is set up, comes before it). This must happen
+        // before waiting on the process; a large result would otherwise fill the pipe
+        // and block the process forever
+        String line;
+        String prevLine = "";
+        while ((line = reader.readLine()) != null) {
+            prevLine = line;
+        }
+        reader.close();
+
+        // Wait until the process has exited and its stderr has been drained
+        process.waitFor();
+        try {
+            drained.get();
+        } catch (ExecutionException e) {
+            throw new IOException("cannot read stderr", e.getCause());
+        }
+        this.lastStderr = stderr;
+
+        // A process killed for exceeding a resource limit reports nothing itself (the
+        // exit value of a process killed by a signal is 128 plus the signal number)
+        Outcome violation = process.exitValue() > 128
+                ? Outcome.fromSignal(process.exitValue() - 128) : null;
+        if (violation != null && Outcome.fromMarker(prevLine) == null) {
+            return violation.marker();
+        }
+
+        // Return the result
+        return prevLine;
+    }
+}
@@ -1,6 +1,10 @@
 package main.rice.test;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -28,7 +32,31 @@ public class TestResults {
     private final Set<Integer> wrongSet;
 
     /**
-     * Constructor for a TestResults object; initializes all fields.
+     * The reasons why files could not be loaded (e.g. a syntax error, or the function
+     * under test not being defined), keyed by the indices of those files; each such file
+     * is considered to fail every test in allCases, without any of them being executed.
+     */
+    private final Map<Integer, String> importFailures;
+
+    /**
+     * The resource limits exceeded during testing, in the form of a list where the i-th
+     * element maps the index of each file that exceeded a limit on the i-th test case in
+     * allCases to the limit it exceeded; each such file was also caught by that test
+     * case.
+     */
+    private final List<Map<Integer, Outcome>> caseToViolations;
+
+    /**
+     * The failure frequencies of the files that behaved nondeterministically (and so were
+     * tested repeatedly), in the form of a list where the i-th element maps the index of
+     * each such file to the fraction of the runs of the i-th test case in allCases that
+     * it failed; each such file was caught by every test case that it failed at least
+     * once. Every other file either always or never failed each test case.
+     */
+    private final List<Map<Integer, Double>> caseToFailureRates;
+
+    /**
+     * Constructor for a TestResults object in which every file could be loaded.
      *
      * @param allCases    all test cases that were executed
      * @param caseToFiles a list where the i-th element is a set of integers representing
@@ -37,9 +65,92 @@ public class TestResults {
      */
     public TestResults(List<TestCase> allCases, List<Set<Integer>> caseToFiles,
                        Set<Integer> wrongSet) {
+        this(allCases, caseToFiles, wrongSet, Map.of());
+    }
+
+    /**
+     * Constructor for a TestResults object; initializes all fields.
+     *
+     * @param allCases       all test cases that were executed
+     * @param caseToFiles    a list where the i-th element is a set of integers
+     *                       representing the files that were caught by the i-th test case
+     *                       in allCases
+     * @param wrongSet       the set of all files that failed one or more tests in allCases
+     * @param importFailures a map from the index of each file that could not be loaded to
+     *                       the reason why
+     */
+    public TestResults(List<TestCase> allCases, List<Set<Integer>> caseToFiles,
+                       Set<Integer> wrongSet, Map<Integer, String> importFailures) {
+        this(allCases, caseToFiles, wrongSet, importFailures, emptyPerCase(allCases));
+    }
+
+    /**
+     * Constructor for a TestResults object; initializes all fields.
+     *
+     * @param allCases         all test cases that were executed
+     * @param caseToFiles      a list where the i-th element is a set of integers
+     *                         representing the files that were caught by the i-th test
+     *                         case in allCases
+     * @param wrongSet         the set of all files that failed one or more tests in
+     *                         allCases
+     * @param importFailures   a map from the index of each file that could not be loaded
+     *                         to the reason why
+     * @param caseToViolations a list where the i-th element maps the index of each file
+     *                         that exceeded a resource limit on the i-th test case in
+     *                         allCases to the limit it exceeded
+     */
+    public TestResults(List<TestCase> allCases, List<Set<Integer>> caseToFiles,
+                       Set<Integer> wrongSet, Map<Integer, String> importFailures,
+                       List<Map<Integer, Outcome>> caseToViolations) {
+        this(allCases, caseToFiles, wrongSet, importFailures, caseToViolations,
+                emptyPerCase(allCases));
+    }
+
+    /**
+     * Constructor for a TestResults object; initializes all fields.
+     *
+     * @param allCases           all test cases that were executed
+     * @param caseToFiles        a list where the i-th element is a set of integers
+     *                           representing the files that were caught by the i-th test
+     *                           case in allCases
+     * @param wrongSet           the set of all files that failed one or more tests in
+     *                           allCases
+     * @param importFailures     a map from the index of each file that could not be
+     *                           loaded to the reason why
+     * @param caseToViolations   a list where the i-th element maps the index of each file
+     *                           that exceeded a resource limit on the i-th test case in
+     *                           allCases to the limit it exceeded
+     * @param caseToFailureRates a list where the i-th element maps the index of each
+     *                           nondeterministic file to the fraction of the runs of the
+     *                           i-th test case in allCases that it failed
+     */
+    public TestResults(List<TestCase> allCases, List<Set<Integer>> caseToFiles,
+                       Set<Integer> wrongSet, Map<Integer, String> importFailures,
+                       List<Map<Integer, Outcome>> caseToViolations,
+                       List<Map<Integer, Double>> caseToFailureRates) {
         this.allCases = allCases;
         this.caseToFiles = caseToFiles;
         this.wrongSet = wrongSet;
+        this.importFailures = importFailures;
+        this.caseToViolations = caseToViolations;
+        this.caseToFailureRates = caseToFailureRates;
+    }
+
+    /**
+     * Builds a list with an empty map for each test case, as the per-case resource limit
+     * violations (see caseToViolations) or failure frequencies (see caseToFailureRates)
+     * when there are none.
+     *
+     * @param allCases all test cases that were executed
+     * @param <V>      the type of the values of the maps
+     * @return a list of one empty map per test case
+     */
+    private static <V> List<Map<Integer, V>> emptyPerCase(List<TestCase> allCases) {
+        List<Map<Integer, V>> caseToEntries = new ArrayList<>();
+        for (int i = 0; i < allCases.size(); i++) {
+            caseToEntries.add(new HashMap<>());
+        }
+        return caseToEntries;
     }
 
     /**
@@ -76,4 +187,85 @@ public class TestResults {
     public List<Set<Integer>> getCaseToFiles() {
         return this.caseToFiles;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the reasons why files could not be loaded, where files are represented by
+     * their indices; each such file fails every test case.
+     *
+     * @return a map from the index of each file that could not be loaded to the reason
+     * why
+     */
+    public Map<Integer, String> getImportFailures() {
+        return this.importFailures;
+    }
+
+    /**
+     * Returns the per-case resource limit violations, where files are represented by
+     * their indices.
+     *
+     * @return a list where the i-th element maps the index of each file that exceeded a
+     * resource limit on the i-th test case to the limit it exceeded
+     */
+    public List<Map<Integer, Outcome>> getCaseToViolations() {
+        return this.caseToViolations;
+    }
+
+    /**
+     * Returns the outcome of the given test case on the given file: the resource limit
+     * it exceeded, if any, or else whether it passed or failed.
+     *
+     * @param caseIndex the index of the test case
+     * @param fileIndex the index of the file
+     * @return the outcome of the test case on the file
+     */
+    public Outcome getOutcome(int caseIndex, int fileIndex) {
+        Outcome violation = this.caseToViolations.get(caseIndex).get(fileIndex);
+        if (violation != null) {
+            return violation;
+        }
+        return this.caseToFiles.get(caseIndex).contains(fileIndex) ? Outcome.FAILED
+                : Outcome.PASSED;
+    }
+
+    /**
+     * Returns the per-case failure frequencies of the files that behaved
+     * nondeterministically, where files are represented by their indices.
+     *
+     * @return a list where the i-th element maps the index of each nondeterministic file
+     * to the fraction of the runs of the i-th test case that it failed
+     */
+    public List<Map<Integer, Double>> getCaseToFailureRates() {
+        return this.caseToFailureRates;
+    }
+
+    /**
+     * Returns the set of files that behaved nondeterministically, where files are
+     * represented by their indices.
+     *
+     * @return the set of nondeterministic files
+     */
+    public Set<Integer> getNondeterministicFiles() {
+        Set<Integer> files = new HashSet<>();
+        for (Map<Integer, Double> rates : this.caseToFailureRates) {
+            files.addAll(rates.keySet());
+        }
+        return files;
+    }
+
+    /**
+     * Returns the fraction of the runs of the given test case on the given file that
+     * failed: its measured failure frequency if the file behaved nondeterministically, or
+     * else 1 if the test case caught the file and 0 otherwise.
+     *
+     * @param caseIndex the index of the test case
+     * @param fileIndex the index of the file
+     * @return the failure frequency of the test case on the file
+     */
+    public double getFailureRate(int caseIndex, int fileIndex) {
+        Double rate = this.caseToFailureRates.get(caseIndex).get(fileIndex);
+        if (rate != null) {
+            return rate;
+        }
+        return this.caseToFiles.get(caseIndex).contains(fileIndex) ? 1 : 0;
+    }
+}
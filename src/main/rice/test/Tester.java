@@ -1,8 +1,11 @@
 package main.rice.test;
 
-import main.rice.obj.APyObj;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.stream.Stream;
 
 /**
  * A class for running a test suite. Encapsulates the ability to run the test suite on a
@@ -34,263 +37,1650 @@ public class Tester {
      */
     private final List<TestCase> tests;
 
+    /**
+     * The name of the file (written to the implementation directory) that holds the
+     * serialized arguments of every test case; see writeArgumentFile().
+     */
+    private static final String ARG_FILE_NAME = "args.bin";
+
+    /**
+     * The name of the runner (written to the scratch workspace, if isolated) that calls
+     * the function under test from the reference solution; see writeSolutionRunner().
+     */
+    private static final String RUNNER_FILE_NAME = "solution_runner.py";
+
+    /**
+     * The name of the module (written to the scratch workspace, when testing an archive)
+     * that imports implementations directly from the archive; see writeArchiveImporter().
+     */
+    private static final String IMPORTER_MODULE_NAME = "archive_importer";
+
+    /**
+     * The source of the archive importer module, minus the lines defining ARCHIVE (the
+     * path to the archive), MEMBERS, and GZIPPED. It installs a meta path finder which
+     * serves the top-level .py files of a zip or (optionally compressed) tar archive as
+     * top-level modules, ahead of everything else on the path, just as if they were in
+     * the wrapper's directory; nothing is ever extracted to disk. A zip archive is looked
+     * up in its central directory. A tar archive has no index, so MEMBERS holds the
+     * offset and size of each of its files, located once per run by the Tester (see
+     * writeArchiveImporter()), and each process seeks straight to the module it imports
+     * instead of scanning the archive; a gzipped one must still be decompressed up to
+     * that offset by every process, since gzip streams can't be seeked.
+     */
+    private static final String ARCHIVE_IMPORTER = """
+            import importlib.abc
+            import importlib.util
+            import sys
+
+            EXCLUDED = {"wrapper.py", "expected.py", "archive_importer.py"}
+
+            def top_level(name):
+                if name.startswith("./"):
+                    name = name[2:]
+                return None if not name or "/" in name else name
+
+            class ArchiveImporter(importlib.abc.MetaPathFinder, importlib.abc.Loader):
+                def __init__(self, path, members, gzipped):
+                    self.path = path
+                    self.members = members
+                    self.gzipped = gzipped
+                    self.archive = None
+                    self.entries = {}
+                    self.busy = False
+
+                def find(self, mod_name):
+                    # Reading the archive may itself import modules (e.g. for
+                    # decompression), which must be found elsewhere
+                    filename = mod_name + ".py"
+                    if filename in EXCLUDED or self.busy:
+                        return None
+                    if self.members is not None:
+                        return self.members.get(filename)
+                    self.busy = True
+                    try:
+                        return self.find_entry(filename)
+                    finally:
+                        self.busy = False
+
+                def find_entry(self, filename):
+                    if self.archive is None:
+                        import zipfile
+                        self.archive = zipfile.ZipFile(self.path)
+                        for info in self.archive.infolist():
+                            name = top_level(info.filename)
+                            if name and not info.is_dir():
+                                self.entries[name] = info
+                    return self.entries.get(filename)
+
+                def read(self, filename):
+                    self.busy = True
+                    try:
+                        if self.members is None:
+                            return self.archive.read(self.entries[filename])
+                        offset, size = self.members[filename]
+                        if self.gzipped:
+                            import gzip
+                            stream = gzip.open(self.path, "rb")
+                        else:
+                            stream = open(self.path, "rb")
+                        with stream:
+                            stream.seek(offset)
+                            return stream.read(size)
+                    finally:
+                        self.busy = False
+
+                def find_spec(self, fullname, path, target=None):
+                    if path is not None or self.find(fullname) is None:
+                        return None
+                    return importlib.util.spec_from_loader(
+                        fullname, self, origin=self.path + "/" + fullname + ".py")
+
+                def create_module(self, spec):
+                    return None
+
+                def exec_module(self, module):
+                    source = self.read(module.__name__ + ".py")
+                    module.__file__ = module.__spec__.origin
+                    exec(compile(source, module.__file__, "exec"), module.__dict__)
+
+            sys.meta_path.insert(0, ArchiveImporter(ARCHIVE, MEMBERS, GZIPPED))
+            """;
+
+    /**
+     * A tmpfs directory to create scratch workspaces in, if it's available.
+     */
+    private static final Path TMPFS_DIR = Path.of("/dev/shm");
+
+    /**
+     * Whether each call to computeExpectedResults() or runTests() should do its work in
+     * a scratch workspace of its own, rather than in the implementation directory.
+     */
+    private boolean isolated;
+
+    /**
+     * The absolute path to the directory in which the harness files (the wrapper, the
+     * expected results, and the argument file) are written and the implementations are
+     * run: the implementation directory itself, or the current scratch workspace.
+     */
+    private String runDirPath;
+
+    /**
+     * The backend used to run test cases on the solution and on the implementations.
+     */
+    private ExecutionBackend backend = new SubprocessBackend();
+
+    /**
+     * How the result of each test case is compared to the expected result.
+     */
+    private ComparisonMode comparisonMode = ComparisonMode.IN_PYTHON;
+
+    /**
+     * The expected results held in memory (used by every mode other than IN_PYTHON),
+     * where the i-th element is the result of the i-th test case on the solution; null
+     * if they haven't been computed or set.
+     */
+    private List<String> expectedResults;
+
+    /**
+     * How implementations that are equivalent to one another are recognized, so that
+     * only one of them needs to be tested.
+     */
+    private Deduplication deduplication = Deduplication.NONE;
+
+    /**
+     * Whether, in the DIGEST comparison mode, the full (canonical) values of the failing
+     * test cases should be captured after testing, so that they can be diffed.
+     */
+    private boolean captureFailures;
+
+    /**
+     * The captured canonical results of the failing test cases, keyed by the name of the
+     * implementation and then by the index of the test case; empty unless failures are
+     * captured.
+     */
+    private Map<String, Map<Integer, String>> capturedActual = new TreeMap<>();
+
+    /**
+     * The captured canonical results of the reference solution on the failing test
+     * cases, keyed by the index of the test case; empty unless failures are captured.
+     */
+    private Map<Integer, String> capturedExpected = new TreeMap<>();
+
+    /**
+     * The resource limits applied to each test case run on an implementation; null if
+     * test cases are unlimited.
+     */
+    private ResourceLimits resourceLimits;
+
+    /**
+     * The number of test cases re-run on each implementation to check whether it behaves
+     * nondeterministically; 0 if implementations are assumed to be deterministic.
+     */
+    private int rerunSampleSize;
+
+    /**
+     * The total number of times each test case is run on an implementation found to
+     * behave nondeterministically.
+     */
+    private int rerunRepetitions;
+
+    /**
+     * The number of timed repetitions of each test case, used to compare the runtime of
+     * each implementation to that of the reference solution; 0 if runtimes aren't
+     * measured.
+     */
+    private int timingRepeats;
+
+    /**
+     * The largest tolerated ratio of an implementation's runtime on a test case to the
+     * reference solution's runtime on it, if runtimes are measured.
+     */
+    private double maxSlowdown;
+
+    /**
+     * The reference solution's runtime (in seconds) on each test case, where the i-th
+     * element is its runtime on the i-th test case; null if runtimes haven't been
+     * measured or set.
+     */
+    private List<Double> referenceTimes;
+
+    /**
+     * The ratio of each implementation's runtime to the reference solution's runtime,
+     * keyed by the name of the implementation and then by the index of the test case;
+     * empty unless runtimes are measured.
+     */
+    private Map<String, Map<Integer, Double>> slowdowns = new TreeMap<>();
+
+    /**
+     * The runtime below which the reference solution's runtime on a test case is treated
+     * as exactly this much when computing slowdowns, so that timer noise on trivial
+     * test cases can't produce huge ratios.
+     */
+    private static final double MIN_REFERENCE_SECONDS = 1e-5;
+
+    /**
+     * The receiver of each verdict as soon as it's known; null if verdicts are only
+     * reported through the results of runTests().
+     */
+    private VerdictListener verdictListener;
+
+    /**
+     * The names of the implementations that runTests() leaves out (e.g. because they were
+     * tested by an earlier run).
+     */
+    private Set<String> skippedFiles = Set.of();
+
+    /**
+     * The names of the implementations tested by the last call to runTests(), in the
+     * order in which they're indexed in its results.
+     */
+    private List<String> testedFiles = List.of();
+
+    /**
+     * The number of files on which every test case is run before the rest are run only
+     * on the test cases that caught any of them; 0 if every file is run on every test
+     * case.
+     */
+    private int pilotSampleSize;
+
+    /**
+     * The number of test cases kept at random (in addition to those that caught a
+     * sampled file) when screening.
+     */
+    private int pilotReserveSize;
+
+    /**
+     * The seed from which the sampled files and the reserve test cases are chosen.
+     */
+    private long pilotSeed;
+
+    /**
+     * A summary of the screening done by the last call to runTests(); null if it didn't
+     * screen.
+     */
+    private ScreeningReport screeningReport;
+
+    /**
+     * The number of test cases kept for each distinct coverage signature of the
+     * reference solution; 0 if test cases aren't pruned by coverage.
+     */
+    private int coveragePerSignature;
+
+    /**
+     * The number of test cases pruned by coverage that are kept anyway, at random.
+     */
+    private int coverageExtras;
+
+    /**
+     * The seed from which the test cases kept anyway are chosen.
+     */
+    private long coverageSeed;
+
+    /**
+     * The coverage signature of the reference solution on each test case, where the i-th
+     * element is its signature on the i-th test case; null unless test cases are pruned
+     * by coverage.
+     */
+    private List<String> coverageSignatures;
+
+    /**
+     * The indices of the test cases that runTests() runs, in ascending order; null if it
+     * runs all of them.
+     */
+    private List<Integer> selectedTests;
+
     /**
      * Constructor for a Tester, which initializes all of the fields using the given
      * inputs.
      *
-     * @param funcName     the name of the function under test
-     * @param solutionPath the absolute path to the file containing the reference
-     *                     implementation
-     * @param implDirPath  the absolute path to the directory containing the student
-     *                     implementations
-     * @param tests        the list of test cases to be executed
+     * @param funcName     the name of the function under test
+     * @param solutionPath the absolute path to the file containing the reference
+     *                     implementation
+     * @param implDirPath  the absolute path to the directory containing the student
+     *                     implementations
+     * @param tests        the list of test cases to be executed
+     */
+    public Tester(String funcName, String solutionPath, String implDirPath,
+                  List<TestCase> tests) {
+        this.funcName = funcName;
+        this.implDirPath = implDirPath;
+        this.runDirPath = implDirPath;
+        this.solutionPath = solutionPath;
+        this.tests = tests;
+    }
+
+    /**
+     * Sets the backend used to run test cases; by default, a SubprocessBackend (one
+     * fresh python3 process per test case) is used.
+     *
+     * @param backend the backend to be used by computeExpectedResults() and runTests()
+     */
+    public void setBackend(ExecutionBackend backend) {
+        this.backend = backend;
+    }
+
+    /**
+     * Sets how the result of each test case is compared to the expected result; by
+     * default (IN_PYTHON), the comparison happens within Python against expected.py.
+     * This must be set before computeExpectedResults() is called, since it determines
+     * the form in which the expected results are computed.
+     *
+     * @param comparisonMode the comparison mode to be used
+     */
+    public void setComparisonMode(ComparisonMode comparisonMode) {
+        this.comparisonMode = comparisonMode;
+    }
+
+    /**
+     * Sets whether each call to computeExpectedResults() or runTests() should do its work
+     * in a scratch workspace of its own (on tmpfs, if available), which is deleted
+     * afterwards. The harness files are written to the workspace instead of the
+     * implementation directory, the implementations are symlinked into it, and the
+     * solution is run through a generated runner instead of having a footer appended to
+     * it, so that no user file is ever modified and any number of runs on the same
+     * directory (or solution) can proceed concurrently. Since no expected.py is left
+     * behind, runTests() then requires the expected results to have been computed or
+     * set on this Tester. By default, runs are not isolated.
+     *
+     * @param isolated true if each run should use a scratch workspace; false otherwise
+     */
+    public void setIsolated(boolean isolated) {
+        this.isolated = isolated;
+    }
+
+    /**
+     * Sets how implementations that are equivalent to one another are recognized; by
+     * default (NONE), every implementation is tested. Otherwise, only the first
+     * implementation (in sorted order) of each class of equivalent ones is tested, and
+     * its results are attributed to every other member of the class.
+     *
+     * @param deduplication the kind of deduplication to be used
+     */
+    public void setDeduplication(Deduplication deduplication) {
+        this.deduplication = deduplication;
+    }
+
+    /**
+     * Sets whether, in the DIGEST comparison mode, the full values of the failing test
+     * cases should be captured once testing is done, so that they can be diffed. This
+     * costs an additional execution per failing (file, test) pair, plus one per distinct
+     * failing test on the reference solution (if there is one).
+     *
+     * @param captureFailures true if failures should be captured; false otherwise
+     */
+    public void setCaptureFailures(boolean captureFailures) {
+        this.captureFailures = captureFailures;
+    }
+
+    /**
+     * Sets the resource limits (CPU time, address space, and output size) applied to each
+     * test case run on an implementation; by default (null), test cases are unlimited.
+     * The limits are applied via rlimits in the process that runs the test case, before
+     * the implementation is imported (or, with a fork server, in each child it forks).
+     * A test case that exceeds a limit fails, and the limit it exceeded is recorded in
+     * the TestResults (see TestResults.getOutcome()). The reference solution is never
+     * limited.
+     *
+     * @param resourceLimits the limits to be applied, or null for none
+     */
+    public void setResourceLimits(ResourceLimits resourceLimits) {
+        this.resourceLimits = resourceLimits;
+    }
+
+    /**
+     * Enables adaptive re-execution for nondeterministic implementations; by default,
+     * each test case is run once on each implementation, and implementations are assumed
+     * to be deterministic. Otherwise, after testing an implementation, a sample of its
+     * test cases (evenly spaced across the test suite) is run on it again, and if any
+     * result differs from the first run, the implementation is considered
+     * nondeterministic: every test case is then run on it repeatedly, it's considered
+     * caught by every test case it failed at least once, and how often it failed each
+     * one is recorded in the TestResults (see TestResults.getFailureRate()).
+     * Implementations whose sampled results don't vary cost only the sample.
+     *
+     * @param sampleSize  the number of test cases to re-run on each implementation, or 0
+     *                    to disable re-execution
+     * @param repetitions the total number of times each test case is run on a
+     *                    nondeterministic implementation (at least 2)
+     */
+    public void setAdaptiveReruns(int sampleSize, int repetitions) {
+        if (sampleSize < 0 || (sampleSize > 0 && repetitions < 2)) {
+            throw new IllegalArgumentException("invalid rerun settings");
+        }
+        this.rerunSampleSize = sampleSize;
+        this.rerunRepetitions = repetitions;
+    }
+
+    /**
+     * Enables performance-aware verdicts; by default, runtimes aren't measured. Otherwise,
+     * after a test case has been run once (to get its result), it's run the given number
+     * of times more within the same process, and the fastest of those runs is taken as
+     * its runtime, so that process startup doesn't count. This is done both on the
+     * reference solution, by computeExpectedResults(), and on each implementation, by
+     * runTests(); an implementation that returns the expected result but takes more than
+     * maxSlowdown times as long as the reference solution fails that test case (with the
+     * outcome TOO_SLOW). This must be set before computeExpectedResults() is called.
+     *
+     * @param maxSlowdown the largest tolerated ratio of an implementation's runtime to the
+     *                    reference solution's
+     * @param repeats     the number of timed repetitions of each test case, or 0 to
+     *                    disable timing
+     */
+    public void setTimingThreshold(double maxSlowdown, int repeats) {
+        if (repeats < 0 || (repeats > 0 && !(maxSlowdown > 0))) {
+            throw new IllegalArgumentException("invalid timing settings");
+        }
+        this.maxSlowdown = maxSlowdown;
+        this.timingRepeats = repeats;
+    }
+
+    /**
+     * Sets a receiver for the verdict of every test case on every implementation, which
+     * runTests() delivers as soon as all of the verdicts on an implementation are known
+     * (and before it moves on to the next), so that they can be processed while testing
+     * is still going on; by default, there is none.
+     *
+     * @param verdictListener the receiver of the verdicts, or null for none
+     */
+    public void setVerdictListener(VerdictListener verdictListener) {
+        this.verdictListener = verdictListener;
+    }
+
+    /**
+     * Sets the names of the implementations that runTests() should leave out entirely,
+     * as if they weren't in the implementation directory; by default, none are.
+     *
+     * @param skippedFiles the names of the implementations to be left out
+     */
+    public void setSkippedFiles(Set<String> skippedFiles) {
+        this.skippedFiles = skippedFiles;
+    }
+
+    /**
+     * Returns the names of the implementations tested by the last call to runTests(), so
+     * that the indices of files in its results can be mapped back to them.
+     *
+     * @return the names of the tested implementations, in the order in which they're
+     * indexed
+     */
+    public List<String> getTestedFiles() {
+        return this.testedFiles;
+    }
+
+    /**
+     * Sets up pilot-sample screening, which runTests() does in two phases: first, every
+     * test case is run on a random sample of the (distinct, loadable) implementations;
+     * then, the remaining implementations are only run on the test cases that caught
+     * one of the sampled implementations, plus a random reserve of the others. Test
+     * cases that aren't run on an implementation count as passing it. Since most test
+     * cases usually catch nothing that others don't, this saves most executions, at the
+     * risk of missing incorrect implementations that only screened-out test cases would
+     * have caught; see getScreeningReport() for an estimate of that risk. By default,
+     * there is no screening.
+     *
+     * @param sampleSize  the number of implementations in the sample, or 0 for no
+     *                    screening
+     * @param reserveSize the number of test cases kept at random
+     * @param seed        the seed from which the sample and the reserve are chosen
+     * @throws IllegalArgumentException if either size is negative
+     */
+    public void setPilotScreening(int sampleSize, int reserveSize, long seed) {
+        if (sampleSize < 0 || reserveSize < 0) {
+            throw new IllegalArgumentException("The sample and reserve sizes must not "
+                    + "be negative");
+        }
+        this.pilotSampleSize = sampleSize;
+        this.pilotReserveSize = reserveSize;
+        this.pilotSeed = seed;
+    }
+
+    /**
+     * Returns a summary of the screening done by the last call to runTests(), including
+     * an estimate of how much detection power it may have cost.
+     *
+     * @return the summary, or null if the last run didn't screen (e.g. because every
+     * implementation was in the sample)
+     */
+    public ScreeningReport getScreeningReport() {
+        return this.screeningReport;
+    }
+
+    /**
+     * Sets up pruning of the test cases by the coverage of the reference solution: when
+     * computing the expected results, computeExpectedResults() traces which arcs
+     * (transitions from one line to the next, including entering and leaving a function)
+     * the reference solution executes within its own file on each test case, and
+     * runTests() then runs only the first few test cases (in index order, so exhaustive
+     * ones before random ones) with each distinct set of arcs, plus a random selection of
+     * the others. Test cases that aren't run count as passing every implementation. By
+     * default, there is no pruning.
+     *
+     * @param perSignature the number of test cases kept for each distinct set of arcs,
+     *                     or 0 for no pruning
+     * @param extras       the number of the other test cases kept anyway, at random
+     * @param seed         the seed from which those test cases are chosen
+     * @throws IllegalArgumentException if either number is negative
+     */
+    public void setCoveragePruning(int perSignature, int extras, long seed) {
+        if (perSignature < 0 || extras < 0) {
+            throw new IllegalArgumentException("The numbers of test cases kept must not "
+                    + "be negative");
+        }
+        this.coveragePerSignature = perSignature;
+        this.coverageExtras = extras;
+        this.coverageSeed = seed;
+    }
+
+    /**
+     * Returns the coverage signature of the reference solution on each test case, as
+     * traced by the last call to computeExpectedResults(); test cases with equal
+     * signatures executed exactly the same arcs of the reference solution.
+     *
+     * @return a list where the i-th element is the signature of the i-th test case, or
+     * null if test cases aren't pruned by coverage
+     */
+    public List<String> getCoverageSignatures() {
+        return this.coverageSignatures;
+    }
+
+    /**
+     * Returns the test cases that runTests() runs: all of them, unless they're pruned by
+     * coverage (see setCoveragePruning()).
+     *
+     * @return the indices of the test cases that are run, in ascending order
+     */
+    public List<Integer> getSelectedTests() {
+        return this.selectedTests == null ? this.getAllTestIndices() : this.selectedTests;
+    }
+
+    /**
+     * Returns the reference solution's runtime on each test case, as measured by the last
+     * call to computeExpectedResults() (or set by setReferenceTimes()), if runtimes are
+     * measured.
+     *
+     * @return a list where the i-th element is the reference solution's runtime (in
+     * seconds) on the i-th test case, or null if runtimes haven't been measured
+     */
+    public List<Double> getReferenceTimes() {
+        return this.referenceTimes;
+    }
+
+    /**
+     * Sets the reference solution's runtime on each test case, e.g. as returned by
+     * getReferenceTimes() after an earlier run; this is only needed if runtimes are
+     * measured and computeExpectedResults() is not called on this Tester.
+     *
+     * @param referenceTimes a list where the i-th element is the reference solution's
+     *                       runtime (in seconds) on the i-th test case
+     */
+    public void setReferenceTimes(List<Double> referenceTimes) {
+        this.referenceTimes = referenceTimes;
+    }
+
+    /**
+     * Returns the ratio of each implementation's runtime to the reference solution's
+     * runtime on each test case, as measured by the last call to runTests(), if runtimes
+     * are measured.
+     *
+     * @return a map from the name of each implementation to a map from the index of each
+     * test case to the ratio of its runtime to the reference solution's runtime
+     */
+    public Map<String, Map<Integer, Double>> getSlowdowns() {
+        return this.slowdowns;
+    }
+
+    /**
+     * Returns the canonical results of the failing test cases captured by the last call
+     * to runTests(), if failures are captured.
+     *
+     * @return a map from the name of each failing implementation to a map from the index
+     * of each test case it failed to its canonical result on that test case
+     */
+    public Map<String, Map<Integer, String>> getCapturedActual() {
+        return this.capturedActual;
+    }
+
+    /**
+     * Returns the canonical results of the reference solution on the failing test cases
+     * captured by the last call to runTests(), if failures are captured and the solution
+     * is known.
+     *
+     * @return a map from the index of each failing test case to the canonical result of
+     * the reference solution on that test case
+     */
+    public Map<Integer, String> getCapturedExpected() {
+        return this.capturedExpected;
+    }
+
+    /**
+     * Sets the expected results to compare against in memory (in every mode other than
+     * IN_PYTHON), e.g. as returned by computeExpectedResults() in an earlier run; this is
+     * only needed if computeExpectedResults() is not called on this Tester.
+     *
+     * @param expectedResults a list where the i-th element is the result of running the
+     *                        i-th test case on the reference solution, in the form
+     *                        appropriate to the comparison mode
+     */
+    public void setExpectedResults(List<String> expectedResults) {
+        this.expectedResults = internAll(expectedResults);
+    }
+
+    /**
+     * Computes the expected results by running each test case on the solution file.
+     * Stores the results in a list (which is returned and also held in memory) and, if
+     * the comparison happens within Python, also creates a .py file containing an
+     * equivalent list of the results.
+     *
+     * @return a list where the i-th element is the result (a string: its repr, its
+     * canonical repr when the comparison mode is CANONICAL, or the digest of its
+     * canonical repr when the comparison mode is DIGEST) of running the i-th test case on
+     * the reference solution
+     * @throws IOException if the path to the solution is invalid
+     * @throws InterruptedException if the process is interrupted
+     */
+    public List<String> computeExpectedResults() throws IOException, InterruptedException {
+        this.openRunDir();
+        try {
+            return this.computeExpectedResultsInRunDir();
+        } finally {
+            this.closeRunDir();
+        }
+    }
+
+    /**
+     * Computes the expected results, as described by computeExpectedResults(), writing
+     * any files to the current run directory.
+     *
+     * @return a list where the i-th element is the result of running the i-th test case
+     * on the reference solution
+     * @throws IOException if the path to the solution is invalid
+     * @throws InterruptedException if the process is interrupted
+     */
+    private List<String> computeExpectedResultsInRunDir()
+            throws IOException, InterruptedException {
+        // Make the solution executable from the command-line: either by writing an
+        // appropriate footer to the solution file, if the footer doesn't exist already,
+        // or by generating a runner for it
+        boolean traced = this.coveragePerSignature > 0;
+        String solutionRunPath = this.prepareSolution(this.comparisonMode, traced);
+
+        // Serialize the arguments of every test case once, so that each process only
+        // needs to be told the index of the test case it should run
+        this.writeArgumentFile();
+
+        // Run each test case on the solution file and gather the results in a list
+        List<Integer> allTestIndices = this.getAllTestIndices();
+        Map<Integer, Double> times = new HashMap<>();
+        List<String> results = this.splitTimes(this.backend.runSolution(solutionRunPath,
+                this.getArgFilePath(), allTestIndices), allTestIndices, times);
+        this.coverageSignatures = null;
+        this.selectedTests = null;
+        if (traced) {
+            this.coverageSignatures = new ArrayList<>();
+            results = this.splitSignatures(results, this.coverageSignatures);
+            this.selectedTests = this.pruneByCoverage(this.coverageSignatures);
+        }
+        if (this.timingRepeats > 0) {
+            this.referenceTimes = new ArrayList<>();
+            for (int testIndex : allTestIndices) {
+                this.referenceTimes.add(times.getOrDefault(testIndex, 0.0));
+            }
+        }
+
+        // Write the expected results to a .py file, so that they can be accessed via
+        // the wrapper. These cached results allow us to only run the solution once per
+        // test rather than having to run it once per test per buggy implementation.
+        // When the comparison happens in Java, they only need to be kept in memory.
+        this.expectedResults = internAll(results);
+        if (this.comparisonMode == ComparisonMode.IN_PYTHON && !this.usesWorkspace()) {
+            this.outputExpectedResults(results);
+        }
+
+        // Return the results
+        return results;
+    }
+
+    /**
+     * Runs all tests on all files in the directory of buggy implementations, comparing
+     * the outputs to the pre-generated expected results and returning the results in the
+     * form of a TestResults object.
+     *
+     * @return the results of testing
+     * @throws IOException if the path to the directory of buggy implementations is
+     *                     invalid
+     * @throws InterruptedException if the process is interrupted
+     */
+    public TestResults runTests() throws IOException, InterruptedException {
+        if ((this.comparisonMode != ComparisonMode.IN_PYTHON || this.usesWorkspace())
+                && this.expectedResults == null) {
+            throw new IllegalStateException("expected results have not been computed");
+        }
+        if (this.timingRepeats > 0 && this.referenceTimes == null) {
+            throw new IllegalStateException("reference times have not been measured");
+        }
+
+        this.openRunDir();
+        try {
+            return this.runTestsInRunDir();
+        } finally {
+            this.closeRunDir();
+        }
+    }
+
+    /**
+     * Runs all tests on all files, as described by runTests(), writing the harness files
+     * to (and running the implementations from) the current run directory.
+     *
+     * @return the results of testing
+     * @throws IOException if the path to the directory of buggy implementations is
+     *                     invalid
+     * @throws InterruptedException if the process is interrupted
+     */
+    private TestResults runTestsInRunDir() throws IOException, InterruptedException {
+        // Create the wrapper file and the file holding the serialized arguments (and, in
+        // a scratch workspace, the expected results)
+        this.createWrapperFile(this.comparisonMode);
+        this.writeArgumentFile();
+        if (this.usesWorkspace() && this.comparisonMode == ComparisonMode.IN_PYTHON) {
+            this.outputExpectedResults(this.expectedResults);
+        }
+
+        // Initialize the outputs
+        List<Set<Integer>> caseToFiles = new ArrayList<>();
+        for (int i = 0; i < this.tests.size(); i++) {
+            caseToFiles.add(new HashSet<>());
+        }
+        Set<Integer> wrongSet = new HashSet<>();
+        Map<Integer, String> importFailures = new HashMap<>();
+        List<Map<Integer, Outcome>> caseToViolations = new ArrayList<>();
+        for (int i = 0; i < this.tests.size(); i++) {
+            caseToViolations.add(new HashMap<>());
+        }
+        List<Map<Integer, Double>> caseToFailureRates = new ArrayList<>();
+        for (int i = 0; i < this.tests.size(); i++) {
+            caseToFailureRates.add(new HashMap<>());
+        }
+
+        // Get the (sorted) list of all implementations in the input directory
+        List<String> filenames = new ArrayList<>(
+                this.backend.listImplementations(this.implDirPath));
+        filenames.removeAll(this.skippedFiles);
+        this.testedFiles = filenames;
+        if (ImplementationArchive.isArchive(this.implDirPath)) {
+            this.writeArchiveImporter();
+        } else if (this.isolated) {
+            this.linkImplementations(filenames);
+        }
+        List<Integer> allTestIndices = this.getSelectedTests();
+        Map<String, List<Integer>> failures = new LinkedHashMap<>();
+
+        // Map each implementation to the first (in sorted order) one equivalent to it,
+        // which is the only one that needs to be tested
+        List<Integer> representatives = this.findRepresentatives(filenames);
+        List<String> distinct = new ArrayList<>();
+        for (int i = 0; i < filenames.size(); i++) {
+            if (representatives.get(i) == i) {
+                distinct.add(filenames.get(i));
+            }
+        }
+
+        // Test each individual file using all tests in the base test set
+        this.slowdowns = new TreeMap<>();
+        this.backend.beginRun(this.runDirPath, distinct);
+        try {
+            // Files that can't even be loaded would fail every test, so there's no need
+            // to run any tests on them
+            Map<String, String> preflightFailures = this.backend.preflight(
+                    this.runDirPath, distinct, this.funcName);
+
+            // When screening, the sampled files come first; every file is still
+            // tested after the one that it's equivalent to
+            List<Integer> pilot = this.choosePilot(filenames, representatives,
+                    preflightFailures);
+            List<Integer> order = new ArrayList<>(pilot);
+            Set<Integer> sampled = new HashSet<>(pilot);
+            for (int i = 0; i < filenames.size(); i++) {
+                if (!sampled.contains(i)) {
+                    order.add(i);
+                }
+            }
+            List<Integer> testIndices = allTestIndices;
+            this.screeningReport = null;
+
+            Map<Integer, Set<Integer>> caughtByFile = new HashMap<>();
+            Map<Integer, Map<Integer, Outcome>> violationsByFile = new HashMap<>();
+            Map<Integer, Map<Integer, Double>> ratesByFile = new HashMap<>();
+            for (int position = 0; position < order.size(); position++) {
+                if (position == pilot.size() && !pilot.isEmpty()) {
+                    testIndices = this.screen(pilot, caughtByFile, allTestIndices,
+                            filenames, representatives, preflightFailures);
+                }
+                int trueIndex = order.get(position);
+                String filename = filenames.get(trueIndex);
+                int representative = representatives.get(trueIndex);
+                Set<Integer> caughtBy;
+                Map<Integer, Outcome> violations = Map.of();
+                Map<Integer, Double> rates = Map.of();
+                if (representative != trueIndex) {
+                    // An equivalent file has already been tested; reuse its results
+                    caughtBy = caughtByFile.get(representative);
+                    violations = violationsByFile.get(representative);
+                    rates = ratesByFile.get(representative);
+                    String reason = importFailures.get(representative);
+                    if (reason != null) {
+                        importFailures.put(trueIndex, reason);
+                    }
+                } else if (preflightFailures.containsKey(filename)) {
+                    caughtBy = new HashSet<>(allTestIndices);
+                    importFailures.put(trueIndex, preflightFailures.get(filename));
+                } else {
+                    // Run each test case on this file, keeping track of which ones
+                    // caught errors
+                    Map<Integer, Double> times = new HashMap<>();
+                    List<String> results = this.runOnImplementation(filename,
+                            testIndices, times);
+                    caughtBy = new HashSet<>();
+                    violations = new HashMap<>();
+                    for (int i = 0; i < testIndices.size(); i++) {
+                        int testIndex = testIndices.get(i);
+                        String result = results.get(i);
+                        Outcome violation = Outcome.fromMarker(result);
+                        if (violation != null) {
+                            violations.put(testIndex, violation);
+                        }
+                        if (!this.passed(testIndex, result)) {
+                            caughtBy.add(testIndex);
+                        }
+                    }
+
+                    // A test passed too slowly fails, too
+                    if (this.timingRepeats > 0) {
+                        Map<Integer, Double> slowdowns = this.computeSlowdowns(times);
+                        for (Map.Entry<Integer, Double> entry : slowdowns.entrySet()) {
+                            int testIndex = entry.getKey();
+                            if (entry.getValue() > this.maxSlowdown
+                                    && caughtBy.add(testIndex)) {
+                                violations.put(testIndex, Outcome.TOO_SLOW);
+                            }
+                        }
+                        this.slowdowns.put(filename, slowdowns);
+                    }
+
+                    // A nondeterministic file is caught by any test it ever fails
+                    if (this.rerunSampleSize > 0) {
+                        rates = this.measureFailureRates(filename, testIndices,
+                                results);
+                        for (Map.Entry<Integer, Double> entry : rates.entrySet()) {
+                            if (entry.getValue() > 0) {
+                                caughtBy.add(entry.getKey());
+                            }
+                        }
+                    }
+                    if (caughtBy.size() > 0) {
+                        failures.put(filename, new ArrayList<>(new TreeSet<>(caughtBy)));
+                    }
+                }
+                caughtByFile.put(trueIndex, caughtBy);
+                violationsByFile.put(trueIndex, violations);
+                ratesByFile.put(trueIndex, rates);
+
+                // Record which tests caught this file, and add it to wrongSet if
+                // applicable
+                for (int testIndex : caughtBy) {
+                    caseToFiles.get(testIndex).add(trueIndex);
+                }
+                for (Map.Entry<Integer, Outcome> entry : violations.entrySet()) {
+                    caseToViolations.get(entry.getKey()).put(trueIndex, entry.getValue());
+                }
+                for (Map.Entry<Integer, Double> entry : rates.entrySet()) {
+                    caseToFailureRates.get(entry.getKey()).put(trueIndex,
+                            entry.getValue());
+                }
+                if (caughtBy.size() > 0) {
+                    wrongSet.add(trueIndex);
+                }
+
+                // Stream the verdicts on this file out, too
+                if (this.verdictListener != null) {
+                    BitSet caught = new BitSet(this.tests.size());
+                    for (int testIndex : caughtBy) {
+                        caught.set(testIndex);
+                    }
+                    for (int testIndex = 0; testIndex < this.tests.size(); testIndex++) {
+                        this.verdictListener.onVerdict(trueIndex, testIndex,
+                                caught.get(testIndex));
+                    }
+                    this.verdictListener.onFileDone(trueIndex);
+                }
+            }
+
+            // Equivalent files share the runtimes of their representative
+            for (int i = 0; i < filenames.size(); i++) {
+                Map<Integer, Double> measured = this.slowdowns.get(
+                        filenames.get(representatives.get(i)));
+                if (measured != null) {
+                    this.slowdowns.put(filenames.get(i), measured);
+                }
+            }
+
+            // Only digests have been compared, so go back for the full values if
+            // they're wanted; equivalent files share the values of their representative
+            this.capturedActual = new TreeMap<>();
+            this.capturedExpected = new TreeMap<>();
+            if (this.captureFailures && this.comparisonMode == ComparisonMode.DIGEST) {
+                this.captureFailures(failures);
+                for (int i = 0; i < filenames.size(); i++) {
+                    Map<Integer, String> captured = this.capturedActual.get(
+                            filenames.get(representatives.get(i)));
+                    if (captured != null) {
+                        this.capturedActual.put(filenames.get(i), captured);
+                    }
+                }
+            }
+        } finally {
+            // Clean up anything (e.g. cached bytecode) that the backend created
+            this.backend.endRun();
+        }
+
+        // Return the results
+        return new TestResults(this.tests, caseToFiles, wrongSet, importFailures,
+                caseToViolations, caseToFailureRates);
+    }
+
+    /**
+     * Sets up the run directory for a single call to computeExpectedResults() or
+     * runTests(): a fresh scratch workspace if runs are isolated or the implementations
+     * are in an archive, or the implementation directory otherwise. The workspace is
+     * created on tmpfs if it's available, and otherwise in the default temporary
+     * directory.
+     *
+     * @throws IOException if the workspace cannot be created
      */
-    public Tester(String funcName, String solutionPath, String implDirPath,
-                  List<TestCase> tests) {
-        this.funcName = funcName;
-        this.implDirPath = implDirPath;
-        this.solutionPath = solutionPath;
-        this.tests = tests;
+    private void openRunDir() throws IOException {
+        if (!this.usesWorkspace()) {
+            this.runDirPath = this.implDirPath;
+            return;
+        }
+        Path workspace;
+        if (Files.isDirectory(TMPFS_DIR) && Files.isWritable(TMPFS_DIR)) {
+            workspace = Files.createTempDirectory(TMPFS_DIR, "tester");
+        } else {
+            workspace = Files.createTempDirectory("tester");
+        }
+        this.runDirPath = workspace.toString();
     }
 
     /**
-     * Computes the expected results by running each test case on the solution file.
-     * Stores the results in a list (which is returned) and also creates a .py file
-     * containing an equivalent list of the results.
+     * Deletes the scratch workspace (if one is in use), restoring the run directory to
+     * the implementation directory.
      *
-     * @return a list where the i-th element is the result (a string) of running the i-th
-     * test case on the reference solution
-     * @throws IOException if the path to the solution is invalid
-     * @throws InterruptedException if the process is interrupted
+     * @throws IOException if the workspace cannot be deleted
      */
-    public List<String> computeExpectedResults() throws IOException, InterruptedException {
-        // Write an appropriate footer to the solution file to make it executable from
-        // the command-line, if the footer doesn't exist already
-        this.appendToSolution();
-
-        // Run each test case on the solution file and gather the results in a map
-        List<String> results = new ArrayList<>();
-        for (int i = 0; i < this.tests.size(); i++) {
-            List<String> args = this.getExpTestArgs(i);
-            String result = this.runTestHelper(args);
-            results.add(result);
+    private void closeRunDir() throws IOException {
+        if (this.runDirPath.equals(this.implDirPath)) {
+            return;
         }
 
-        // Write the expected results to a .py file, so that they can be accessed via
-        // the wrapper. These cached results allow us to only run the solution once per
-        // test rather than having to run it once per test per buggy implementation.
-        this.outputExpectedResults(results);
-
-        // Return the results
-        return results;
+        // The symlinks themselves are deleted, never what they point to
+        try (Stream<Path> paths = Files.walk(Path.of(this.runDirPath))) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+        this.runDirPath = this.implDirPath;
     }
 
     /**
-     * Runs all tests on all files in the directory of buggy implementations, comparing
-     * the outputs to the pre-generated expected results and returning the results in the
-     * form of a TestResults object.
+     * Returns whether each run needs a scratch workspace of its own: either because runs
+     * are isolated, or because the implementations are in an archive (so there is no
+     * directory to write the harness files to).
      *
-     * @return the results of testing
-     * @throws IOException if the path to the directory of buggy implementations is
-     *                     invalid
-     * @throws InterruptedException if the process is interrupted
+     * @return true if each run needs a scratch workspace; false otherwise
      */
-    public TestResults runTests() throws IOException, InterruptedException {
-        // Create the wrapper file
-        this.createWrapperFile();
+    private boolean usesWorkspace() {
+        return this.isolated || ImplementationArchive.isArchive(this.implDirPath);
+    }
 
-        // Initialize the outputs
-        List<Set<Integer>> caseToFiles = new ArrayList<>();
-        for (int i = 0; i < this.tests.size(); i++) {
-            caseToFiles.add(new HashSet<>());
+    /**
+     * Writes the archive importer module (see ARCHIVE_IMPORTER) to the scratch workspace,
+     * so that the wrapper (and anything else run from the workspace) can import the
+     * implementations directly from the archive. For a tar archive, this locates every
+     * file in it, which takes a single pass over the archive.
+     *
+     * @throws IOException if the module cannot be created or the archive cannot be read
+     */
+    private void writeArchiveImporter() throws IOException {
+        // The path and the names are embedded as hex, so that no character in them
+        // needs escaping
+        ImplementationArchive archive = new ImplementationArchive(this.implDirPath);
+        StringBuilder sb = new StringBuilder();
+        sb.append("ARCHIVE = ").append(pythonString(
+                new File(this.implDirPath).getAbsolutePath())).append("\n");
+        if (archive.isZip()) {
+            sb.append("MEMBERS = None\n");
+        } else {
+            sb.append("MEMBERS = {\n");
+            Map<String, long[]> members = archive.locateTarMembers();
+            for (Map.Entry<String, long[]> member : members.entrySet()) {
+                sb.append("    ").append(pythonString(member.getKey())).append(": (")
+                        .append(member.getValue()[0]).append(", ")
+                        .append(member.getValue()[1]).append("),\n");
+            }
+            sb.append("}\n");
         }
-        Set<Integer> wrongSet = new HashSet<>();
+        sb.append("GZIPPED = ").append(archive.isGzipped() ? "True" : "False")
+                .append("\n");
+        sb.append(ARCHIVE_IMPORTER);
 
-        // Get the list of all files in the input directory
-        var dir = new File(this.implDirPath);
-        String[] filenames = dir.list();
-        if (filenames == null) {
-            throw new IOException("Error: implDir is empty");
-        }
-        Arrays.sort(filenames);
+        FileWriter writer = new FileWriter(this.runDirPath + "/" + IMPORTER_MODULE_NAME
+                + ".py");
+        writer.write(sb.toString());
+        writer.close();
+    }
 
-        // If implDirPath didn't actually point to a directory, files would be null
-        int trueIndex = 0;
+    /**
+     * Returns a Python expression for the given string, which embeds it as hex so that
+     * no character in it needs escaping.
+     *
+     * @param value the string
+     * @return a Python expression evaluating to the string
+     */
+    private static String pythonString(String value) {
+        return "bytes.fromhex(\"" + HexFormat.of().formatHex(
+                value.getBytes(StandardCharsets.UTF_8)) + "\").decode(\"utf-8\")";
+    }
 
-        // Test each individual file using all tests in the base test set
+    /**
+     * Links each of the given implementations into the scratch workspace, so that they
+     * can be run from there under their own names; each one is copied instead if
+     * symbolic links aren't supported.
+     *
+     * @param filenames the names of the implementations
+     * @throws IOException if an implementation cannot be linked or copied
+     */
+    private void linkImplementations(List<String> filenames) throws IOException {
         for (String filename : filenames) {
-            if (!filename.endsWith(".py") || filename.equals("wrapper.py")
-                    || filename.equals("expected.py")) {
-                continue;
+            Path source = Path.of(this.implDirPath, filename).toAbsolutePath();
+            Path link = Path.of(this.runDirPath, filename);
+            try {
+                Files.createSymbolicLink(link, source);
+            } catch (UnsupportedOperationException e) {
+                Files.copy(source, link);
             }
+        }
+    }
 
-            // Run each test case on this file, keeping track of which ones caught
-            // errors
-            HashSet<Integer> caughtBy = new HashSet<>();
-            for (int testIndex = 0; testIndex < this.tests.size(); testIndex++) {
-                List<String> args = this.getTestArgs(testIndex, filename);
-                String result = this.runTestHelper(args);
-                if (!result.equals("True")) {
-                    caseToFiles.get(testIndex).add(trueIndex);
-                    caughtBy.add(testIndex);
-                }
+    /**
+     * Finds, for each of the given implementations, the first implementation (in the
+     * given order) that is equivalent to it according to the deduplication setting.
+     *
+     * @param filenames the sorted names of the implementations
+     * @return a list where the i-th element is the index of the first implementation
+     * equivalent to the i-th one (which may be i itself)
+     * @throws IOException if an implementation cannot be read
+     * @throws InterruptedException if a process is interrupted
+     */
+    private List<Integer> findRepresentatives(List<String> filenames)
+            throws IOException, InterruptedException {
+        List<Integer> representatives = new ArrayList<>();
+        if (this.deduplication == Deduplication.NONE) {
+            for (int i = 0; i < filenames.size(); i++) {
+                representatives.add(i);
             }
+            return representatives;
+        }
 
-            // Add to wrongSet if applicable
-            if (caughtBy.size() > 0) {
-                wrongSet.add(trueIndex);
-            }
-            trueIndex++;
+        List<String> fingerprints = this.backend.fingerprint(this.implDirPath, filenames,
+                this.deduplication == Deduplication.NORMALIZED);
+        Map<String, Integer> firstIndices = new HashMap<>();
+        for (int i = 0; i < filenames.size(); i++) {
+            Integer first = firstIndices.putIfAbsent(fingerprints.get(i), i);
+            representatives.add(first == null ? i : first);
         }
+        return representatives;
+    }
 
-        // Clean up the pycache that was created
-        this.deletePyCache();
+    /**
+     * Captures the canonical results of the given failing test cases, by re-running them
+     * (and, if the solution is known, re-running each distinct one on the solution) in
+     * the CANONICAL comparison mode. This leaves the wrapper and the solution footer (or
+     * runner) in that mode; both are rewritten at the start of every run.
+     *
+     * @param failures a map from the name of each failing implementation to the sorted
+     *                 indices of the test cases it failed
+     * @throws IOException if a file cannot be rewritten or a test cannot be run
+     * @throws InterruptedException if a process is interrupted
+     */
+    private void captureFailures(Map<String, List<Integer>> failures)
+            throws IOException, InterruptedException {
+        this.createWrapperFile(ComparisonMode.CANONICAL);
+        Set<Integer> failingTests = new TreeSet<>();
+        for (Map.Entry<String, List<Integer>> entry : failures.entrySet()) {
+            List<String> results = this.runOnImplementation(entry.getKey(),
+                    entry.getValue(), null);
+            Map<Integer, String> captured = new TreeMap<>();
+            for (int i = 0; i < results.size(); i++) {
+                captured.put(entry.getValue().get(i), results.get(i));
+            }
+            this.capturedActual.put(entry.getKey(), captured);
+            failingTests.addAll(entry.getValue());
+        }
 
-        // Return the results
-        return new TestResults(this.tests, caseToFiles, wrongSet);
+        if (this.solutionPath != null && !failingTests.isEmpty()) {
+            String solutionRunPath = this.prepareSolution(ComparisonMode.CANONICAL, false);
+            List<Integer> testIndices = new ArrayList<>(failingTests);
+            List<String> results = this.splitTimes(this.backend.runSolution(
+                    solutionRunPath, this.getArgFilePath(), testIndices), testIndices, null);
+            for (int i = 0; i < results.size(); i++) {
+                this.capturedExpected.put(testIndices.get(i), results.get(i));
+            }
+        }
     }
 
     /**
-     * Builds the list of command-line arguments for executing the solution in order to
-     * get the expected results on a single test case.
+     * Runs the given test cases on a single implementation in the current run directory,
+     * separating out the runtimes of the test cases if they're measured.
      *
-     * @param testIndex the index of the test case to be run
-     * @return the command-line args for running the given test case through the solution
+     * @param filename    the name of the implementation
+     * @param testIndices the indices of the test cases to be run
+     * @param times       a map to which the runtime of each test case is added (keyed
+     *                    by its index), or null if runtimes aren't wanted
+     * @return a list where the i-th element is the result of running the test case whose
+     * index is the i-th element of testIndices
+     * @throws IOException if a test cannot be run
+     * @throws InterruptedException if a process is interrupted
      */
-    private List<String> getExpTestArgs(int testIndex) {
-        List<String> args = new ArrayList<>();
+    private List<String> runOnImplementation(String filename, List<Integer> testIndices,
+                                             Map<Integer, Double> times)
+            throws IOException, InterruptedException {
+        return this.splitTimes(this.backend.runImplementation(this.runDirPath, filename,
+                this.funcName, this.getArgFilePath(), testIndices), testIndices, times);
+    }
 
-        // The solution must be a python3 file
-        args.add("python3");
-        args.add(this.solutionPath);
+    /**
+     * Separates the runtimes (see appendTimer()) from the results of running the given
+     * test cases, if runtimes are measured. A result without a runtime (e.g. because the
+     * test case raised an exception or exceeded a resource limit) is left as it is.
+     *
+     * @param results     the results, as reported by the backend
+     * @param testIndices the indices of the test cases that were run
+     * @param times       a map to which the runtime of each test case is added (keyed
+     *                    by its index), or null if runtimes aren't wanted
+     * @return the results without their runtimes
+     */
+    private List<String> splitTimes(List<String> results, List<Integer> testIndices,
+                                    Map<Integer, Double> times) {
+        if (this.timingRepeats == 0) {
+            return results;
+        }
+        List<String> untimed = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            String result = results.get(i);
+            int tab = result.lastIndexOf('\t');
+            if (tab < 0) {
+                untimed.add(result);
+                continue;
+            }
+            untimed.add(result.substring(0, tab));
+            if (times != null) {
+                times.put(testIndices.get(i), Double.parseDouble(result.substring(tab + 1)));
+            }
+        }
+        return untimed;
+    }
 
-        // Add each argument as a string; the footer will take care of converting these to
-        // Python objects before invoking the function under test
-        TestCase test = this.tests.get(testIndex);
-        for (APyObj<?> arg : test.getArgs()) {
-            args.add(arg.toString());
+    /**
+     * Separates the coverage signatures (see appendTracer()) from the results of running
+     * test cases on the traced reference solution.
+     *
+     * @param results    the results, each followed by a tab and its signature
+     * @param signatures the list to which the signature of each result is added, in order
+     * @return the results without their signatures
+     */
+    private List<String> splitSignatures(List<String> results, List<String> signatures) {
+        List<String> untraced = new ArrayList<>();
+        for (String result : results) {
+            int tab = result.lastIndexOf('\t');
+            untraced.add(tab < 0 ? result : result.substring(0, tab));
+            signatures.add(tab < 0 ? "" : result.substring(tab + 1));
         }
-        return args;
+        return untraced;
     }
 
     /**
-     * Builds the list of command-line arguments for executing a buggy implementation in
-     * order to get the actual results on a single test case.
+     * Chooses the test cases that runTests() runs when pruning by coverage (see
+     * setCoveragePruning()).
      *
-     * @param testIndex the index of the test case to be run
-     * @param filename  the name of the implementation being tested
-     * @return the command-line args for running the given test case through the solution
+     * @param signatures a list where the i-th element is the coverage signature of the
+     *                   i-th test case
+     * @return the indices of the chosen test cases, in ascending order
      */
-    private List<String> getTestArgs(int testIndex, String filename) {
-        List<String> args = new ArrayList<>();
+    private List<Integer> pruneByCoverage(List<String> signatures) {
+        Map<String, Integer> numKept = new HashMap<>();
+        Set<Integer> kept = new TreeSet<>();
+        List<Integer> pruned = new ArrayList<>();
+        for (int testIndex = 0; testIndex < signatures.size(); testIndex++) {
+            int count = numKept.merge(signatures.get(testIndex), 1, Integer::sum);
+            if (count <= this.coveragePerSignature) {
+                kept.add(testIndex);
+            } else {
+                pruned.add(testIndex);
+            }
+        }
+        Collections.shuffle(pruned, new Random(this.coverageSeed));
+        kept.addAll(pruned.subList(0, Math.min(this.coverageExtras, pruned.size())));
+        return new ArrayList<>(kept);
+    }
 
-        // The implementation must be a python3 file
-        args.add("python3");
+    /**
+     * Computes the ratio of an implementation's runtime on each test case to the
+     * reference solution's runtime on it.
+     *
+     * @param times a map from the index of each test case to the implementation's runtime
+     *              on it
+     * @return a map from the index of each test case to the ratio of the runtimes
+     */
+    private Map<Integer, Double> computeSlowdowns(Map<Integer, Double> times) {
+        Map<Integer, Double> slowdowns = new TreeMap<>();
+        for (Map.Entry<Integer, Double> entry : times.entrySet()) {
+            double reference = Math.max(this.referenceTimes.get(entry.getKey()),
+                    MIN_REFERENCE_SECONDS);
+            slowdowns.put(entry.getKey(), entry.getValue() / reference);
+        }
+        return slowdowns;
+    }
 
-        // Directly invoking the wrapper, which will dynamically load the file under test
-        args.add(this.implDirPath + "/wrapper.py");
+    /**
+     * Checks whether an implementation behaves nondeterministically by re-running a
+     * sample of its test cases (see setAdaptiveReruns()), and if so, runs every test case
+     * on it repeatedly to measure how often it fails each one.
+     *
+     * @param filename    the name of the implementation
+     * @param testIndices the indices of the test cases run on it
+     * @param results     the results of the first run of those test cases on it
+     * @return a map from the index of each test case to the fraction of its runs that
+     * failed, if the implementation is nondeterministic; an empty map otherwise
+     * @throws IOException if a test cannot be run
+     * @throws InterruptedException if a process is interrupted
+     */
+    private Map<Integer, Double> measureFailureRates(String filename,
+                                                     List<Integer> testIndices,
+                                                     List<String> results)
+            throws IOException, InterruptedException {
+        // Re-run an evenly spaced sample of the test cases, looking for any variation
+        int numRun = testIndices.size();
+        int sampleSize = Math.min(this.rerunSampleSize, numRun);
+        List<Integer> positions = new ArrayList<>();
+        List<Integer> sample = new ArrayList<>();
+        for (int i = 0; i < sampleSize; i++) {
+            positions.add((int) ((long) i * numRun / sampleSize));
+            sample.add(testIndices.get(positions.get(i)));
+        }
+        List<String> rerun = this.runOnImplementation(filename, sample, null);
+        boolean varies = false;
+        for (int i = 0; i < sampleSize; i++) {
+            varies |= !rerun.get(i).equals(results.get(positions.get(i)));
+        }
+        if (!varies) {
+            return Map.of();
+        }
 
-        // Need to include the index of the test case so that we can look up the expected
-        // results to determine whether the test passes or fails
-        args.add(String.valueOf(testIndex));
+        // Count the failures of every run so far, then of the remaining repetitions
+        int[] runs = new int[this.tests.size()];
+        int[] failures = new int[this.tests.size()];
+        this.countFailures(testIndices, results, runs, failures);
+        this.countFailures(sample, rerun, runs, failures);
+        for (int repetition = 1; repetition < this.rerunRepetitions; repetition++) {
+            this.countFailures(testIndices, this.runOnImplementation(filename,
+                    testIndices, null), runs, failures);
+        }
 
-        // Also need to know which file we're testing and which function to invoke within
-        // the file under test
-        args.add(filename);
-        args.add(this.funcName);
+        Map<Integer, Double> rates = new HashMap<>();
+        for (int testIndex : testIndices) {
+            rates.put(testIndex, (double) failures[testIndex] / runs[testIndex]);
+        }
+        return rates;
+    }
 
-        // Add each argument as a string; the footer will take care of converting these to
-        // Python objects before invoking the function under test
-        TestCase test = this.tests.get(testIndex);
-        for (APyObj<?> arg : test.getArgs()) {
-            args.add(arg.toString());
+    /**
+     * Chooses the files on which every test case is run when screening (see
+     * setPilotScreening()): a random sample of the files that are tested at all (i.e.
+     * that aren't equivalent to an earlier file, and that can be loaded).
+     *
+     * @param filenames         the names of all of the files
+     * @param representatives   the index of the file that each file is equivalent to
+     * @param preflightFailures the files that can't be loaded
+     * @return the indices of the sampled files, in ascending order; empty if there is
+     * no screening, or if every file would be sampled
+     */
+    private List<Integer> choosePilot(List<String> filenames, List<Integer> representatives,
+                                      Map<String, String> preflightFailures) {
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < filenames.size(); i++) {
+            if (representatives.get(i) == i
+                    && !preflightFailures.containsKey(filenames.get(i))) {
+                candidates.add(i);
+            }
         }
-        return args;
+        if (this.pilotSampleSize == 0 || this.pilotSampleSize >= candidates.size()) {
+            return List.of();
+        }
+        Collections.shuffle(candidates, new Random(this.pilotSeed));
+        List<Integer> pilot = new ArrayList<>(candidates.subList(0, this.pilotSampleSize));
+        Collections.sort(pilot);
+        return pilot;
     }
 
     /**
-     * A helper function for runTest and runExpTest which runs a Python process (using a
-     * list of arguments, as output by getTestArgs or getExpTestArgs) and reads its
-     * output.
+     * Chooses the test cases to be run on the files outside the pilot sample (see
+     * setPilotScreening()), and records a summary of the screening.
      *
-     * @param args the arguments for the process to be created
-     * @return the result of reading from the process
-     * @throws IOException if the file to run or its output cannot be accessed
-     * @throws InterruptedException if the process is interrupted
+     * @param pilot             the indices of the sampled files
+     * @param caughtByFile      the test cases that caught each sampled file
+     * @param allTestIndices    the indices of every test case that could be run
+     * @param filenames         the names of all of the files
+     * @param representatives   the index of the file that each file is equivalent to
+     * @param preflightFailures the files that can't be loaded
+     * @return the indices of the test cases to be run on the remaining files, in
+     * ascending order
      */
-    private String runTestHelper(List<String> args) throws IOException, InterruptedException {
-        ProcessBuilder pb = new ProcessBuilder();
-        pb.command(args);
-        Process process = pb.start();
+    private List<Integer> screen(List<Integer> pilot, Map<Integer, Set<Integer>> caughtByFile,
+                                 List<Integer> allTestIndices, List<String> filenames,
+                                 List<Integer> representatives,
+                                 Map<String, String> preflightFailures) {
+        // Keep every test case that caught a sampled file...
+        Map<Integer, Integer> timesCaught = new HashMap<>();
+        for (int file : pilot) {
+            for (int testIndex : caughtByFile.get(file)) {
+                timesCaught.merge(testIndex, 1, Integer::sum);
+            }
+        }
+        Set<Integer> kept = new TreeSet<>(timesCaught.keySet());
 
-        // Redirect the output of the process to here
-        var sb = new StringBuilder();
-        var reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
+        // ...and a random reserve of the others
+        List<Integer> others = new ArrayList<>();
+        for (int testIndex : allTestIndices) {
+            if (!kept.contains(testIndex)) {
+                others.add(testIndex);
+            }
+        }
+        Collections.shuffle(others, new Random(this.pilotSeed));
+        List<Integer> reserve = others.subList(0,
+                Math.min(this.pilotReserveSize, others.size()));
+        Set<Integer> reserveSet = new HashSet<>(reserve);
 
-        // Wait until the process has exited
-        process.waitFor();
+        // A sampled file would have been missed had it been left out of the sample if
+        // it's only caught by test cases that caught no other sampled file and that
+        // aren't in reserve
+        int numWrong = 0;
+        int numMissed = 0;
+        for (int file : pilot) {
+            Set<Integer> caughtBy = caughtByFile.get(file);
+            if (caughtBy.isEmpty()) {
+                continue;
+            }
+            numWrong++;
+            boolean missed = true;
+            for (int testIndex : caughtBy) {
+                missed &= timesCaught.get(testIndex) == 1 && !reserveSet.contains(testIndex);
+            }
+            if (missed) {
+                numMissed++;
+            }
+        }
 
-        // Read the output of the process, the last line of which should be the result
-        String line;
-        String prevLine = "";
-        while ((line = reader.readLine()) != null) {
-            prevLine = line;
+        int numRemaining = 0;
+        Set<Integer> sampled = new HashSet<>(pilot);
+        for (int i = 0; i < filenames.size(); i++) {
+            if (representatives.get(i) == i && !sampled.contains(i)
+                    && !preflightFailures.containsKey(filenames.get(i))) {
+                numRemaining++;
+            }
         }
-        reader.close();
+        int numScreenedOut = allTestIndices.size() - kept.size() - reserve.size();
+        this.screeningReport = new ScreeningReport(pilot.size(), kept.size(),
+                reserve.size(), numScreenedOut, (long) numRemaining * numScreenedOut,
+                numWrong == 0 ? 0 : (double) numMissed / numWrong);
+
+        kept.addAll(reserve);
+        return new ArrayList<>(kept);
+    }
+
+    /**
+     * Tallies the runs and failures of the given test cases.
+     *
+     * @param testIndices the indices of the test cases that were run
+     * @param results     the results of running them, in the same order
+     * @param runs        the number of runs of each test case so far, to be updated
+     * @param failures    the number of failures of each test case so far, to be updated
+     */
+    private void countFailures(List<Integer> testIndices, List<String> results,
+                               int[] runs, int[] failures) {
+        for (int i = 0; i < testIndices.size(); i++) {
+            int testIndex = testIndices.get(i);
+            runs[testIndex]++;
+            if (!this.passed(testIndex, results.get(i))) {
+                failures[testIndex]++;
+            }
+        }
+    }
 
-        // Return the result
-        return prevLine;
+    /**
+     * Determines whether the result reported by the wrapper for a single test case
+     * indicates that the test case passed.
+     *
+     * @param testIndex the index of the test case
+     * @param result    the result reported by the wrapper
+     * @return true if the test case passed; false otherwise
+     */
+    private boolean passed(int testIndex, String result) {
+        if (this.comparisonMode == ComparisonMode.IN_PYTHON) {
+            return result.equals("True");
+        }
+        return result.equals(this.expectedResults.get(testIndex));
     }
 
     /**
-     * Creates a wrapper file that imports the expected results, reads the command-line
-     * args, dynamically imports the buggy implementation, generates the actual results
-     * for a single test case, compares the returned value to the expected value, and then
-     * returns a boolean value (True if test passes, False otherwise).
+     * Creates a wrapper file that reads the command-line args, dynamically imports the
+     * buggy implementation, and generates the actual results for a single test case.
+     * When comparing within Python, the wrapper then imports the expected results,
+     * compares the returned value to the expected value, and returns a boolean value
+     * (True if test passes, False otherwise); otherwise, it returns the canonical repr of
+     * the returned value (or its digest). When invoked with --serve, the wrapper instead
+     * acts as a fork server (see ForkServerBackend).
      *
+     * @param mode the comparison mode that the wrapper should report results for
      * @throws IOException if the wrapper file cannot be created
      */
-    private void createWrapperFile() throws IOException {
+    private void createWrapperFile(ComparisonMode mode) throws IOException {
         StringBuilder sb = new StringBuilder();
 
-        // Import the expected results, plus the other modules we'll need
-        sb.append("import sys\nfrom importlib import import_module\nfrom expected " +
-                "import results\n\n");
+        // Import the modules we'll need; the expected results are only imported if and
+        // when the comparison happens here
+        sb.append("import os\nimport sys\nimport traceback\nfrom importlib import " +
+                "import_module\n");
+        if (ImplementationArchive.isArchive(this.implDirPath)) {
+            sb.append("import ").append(IMPORTER_MODULE_NAME).append("\n");
+        }
+        appendArgLoader(sb);
+        appendCanonicalizer(sb);
+        appendResultChannel(sb);
+        this.appendLimiter(sb);
+        this.appendTimer(sb);
+        sb.append("MODE = '").append(mode.name()).append("'\n\n");
+
+        // Function for converting the buggy implementation's result into what gets
+        // reported: either the result of comparing it to the pre-determined expected
+        // result, or its canonical repr or digest (for comparison in Java)
+        sb.append("def report(actual, case_num):\n");
+        sb.append("    if MODE == 'CANONICAL':\n");
+        sb.append("        return canonical(actual)\n");
+        sb.append("    if MODE == 'DIGEST':\n");
+        sb.append("        return digest(actual)\n");
+        sb.append("    from expected import results\n");
+        sb.append("    return str(actual == results[case_num])\n\n");
 
-        // Function for comparing the buggy implementation's results to the
-        // pre-determined expected results
-        sb.append("def test_buggy_impl(case_num, impl_name, fname, args):\n");
+        // Function for running the buggy implementation on a single test case
+        sb.append("def test_buggy_impl(case_num, impl_name, fname, arg_path):\n");
         sb.append("    mod_name = impl_name[:-3]\n");
         sb.append("    mod = import_module(mod_name)\n");
         sb.append("    func = getattr(mod, fname)\n");
-        sb.append("    actual = func(*args)\n");
-        sb.append("    expected = results[case_num]\n");
-        sb.append("    return (actual == expected)\n\n");
+        sb.append("    actual, suffix = timed_call(func, lambda: load_args(arg_path, " +
+                "case_num))\n");
+        sb.append("    return report(actual, case_num) + suffix\n\n");
+
+        // Fork server: imports the implementation once, then forks a child per test
+        // case index read from stdin, reporting each child's verdict and exit status
+        sb.append("def serve(impl_name, fname, arg_path):\n");
+        sb.append("    out = os.fdopen(os.dup(1), 'w')\n");
+        sb.append("    devnull = os.open(os.devnull, os.O_RDWR)\n");
+        sb.append("    os.dup2(devnull, 1)\n");
+        sb.append("    if MODE == 'IN_PYTHON':\n");
+        sb.append("        import expected\n");
+        sb.append("    try:\n");
+        sb.append("        func = getattr(import_module(impl_name[:-3]), fname)\n");
+        sb.append("    except Exception:\n");
+        sb.append("        traceback.print_exc()\n");
+        sb.append("        func = None\n");
+        sb.append("    for line in sys.stdin:\n");
+        sb.append("        case_num = int(line)\n");
+        sb.append("        r, w = os.pipe()\n");
+        sb.append("        pid = os.fork()\n");
+        sb.append("        if pid == 0:\n");
+        sb.append("            os.close(r)\n");
+        sb.append("            os.dup2(devnull, 0)\n");
+        sb.append("            status = 1\n");
+        sb.append("            if LIMITS:\n");
+        sb.append("                apply_limits(w)\n");
+        sb.append("            try:\n");
+        sb.append("                actual, suffix = timed_call(func, " +
+                "lambda: load_args(arg_path, case_num))\n");
+        sb.append("                os.write(w, (report(actual, case_num) + suffix)" +
+                ".encode())\n");
+        sb.append("                status = 0\n");
+        sb.append("            except MemoryError:\n");
+        sb.append("                os.write(w, memory_verdict().encode())\n");
+        sb.append("            except BaseException:\n");
+        sb.append("                traceback.print_exc()\n");
+        sb.append("            finally:\n");
+        sb.append("                sys.stderr.flush()\n");
+        sb.append("                os._exit(status)\n");
+        sb.append("        os.close(w)\n");
+        sb.append("        with os.fdopen(r) as f:\n");
+        sb.append("            verdict = f.read()\n");
+        sb.append("        status = os.waitstatus_to_exitcode(os.waitpid(pid, 0)[1])\n");
+        sb.append("        out.write('%d %d %s\\n' % (case_num, status, verdict))\n");
+        sb.append("        out.flush()\n\n");
 
         // Footer to make the function executable from the command line
-        sb.append("if __name__ == \"__main__\":\n");
+        sb.append("if __name__ == \"__main__\" and sys.argv[1] == \"--serve\":\n");
+        sb.append("    serve(sys.argv[2], sys.argv[3], sys.argv[4])\n");
+        sb.append("elif __name__ == \"__main__\":\n");
+        sb.append("    channel = open_result_channel()\n");
+        sb.append("    if LIMITS:\n");
+        sb.append("        apply_limits(channel.fileno())\n");
         sb.append("    case_num = int(sys.argv[1])\n");
         sb.append("    impl_name = sys.argv[2]\n");
         sb.append("    fname = sys.argv[3]\n");
-        sb.append("    args = sys.argv[4:]\n");
-        sb.append("    args = [eval(arg) for arg in args]\n");
-        sb.append("    print (test_buggy_impl(case_num, impl_name, fname, args))");
+        sb.append("    try:\n");
+        sb.append("        verdict = test_buggy_impl(case_num, impl_name, fname, " +
+                "sys.argv[4])\n");
+        sb.append("    except MemoryError:\n");
+        sb.append("        verdict = memory_verdict()\n");
+        sb.append("    print (verdict, file=channel)");
         String wrapperContents = sb.toString();
 
         // Create the Python wrapper file including the above code
-        FileWriter writer = new FileWriter(this.implDirPath + "/wrapper.py");
+        FileWriter writer = new FileWriter(this.runDirPath + "/wrapper.py");
         writer.write(wrapperContents);
         writer.close();
+        this.backend.onWrapperWritten(mode);
+    }
+
+    /**
+     * Makes the reference solution executable from the command-line in the given
+     * comparison mode, by generating a runner for it in the scratch workspace if runs
+     * are isolated, or by writing a footer to it otherwise.
+     *
+     * @param mode   the comparison mode that the solution should print results for
+     * @param traced true if the solution should also print its coverage signature on
+     *               each test case (see appendTracer())
+     * @return the absolute path of the file to run in order to run the solution
+     * @throws IOException if the solution file or the runner cannot be accessed
+     */
+    private String prepareSolution(ComparisonMode mode, boolean traced) throws IOException {
+        if (this.isolated) {
+            return this.writeSolutionRunner(mode, traced);
+        }
+        this.appendToSolution(mode, traced);
+        return this.solutionPath;
+    }
+
+    /**
+     * Writes a runner for the solution to the scratch workspace, which behaves like the
+     * footer written by appendToSolution() but loads the solution as a module from its
+     * own path, without modifying it (or writing bytecode next to it).
+     *
+     * @param mode   the comparison mode that the runner should print results for
+     * @param traced true if the runner should also print the coverage signature
+     * @return the absolute path to the runner
+     * @throws IOException if the runner cannot be created
+     */
+    private String writeSolutionRunner(ComparisonMode mode, boolean traced)
+            throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append("import sys\n");
+        sb.append("sys.dont_write_bytecode = True\n");
+        sb.append("import importlib.util\nimport os\n");
+        appendArgLoader(sb);
+        appendResultChannel(sb);
+        String printer = "repr";
+        if (mode != ComparisonMode.IN_PYTHON) {
+            appendCanonicalizer(sb);
+            printer = mode == ComparisonMode.CANONICAL ? "canonical" : "digest";
+        }
+
+        // Load the solution under a name other than __main__, with its own directory on
+        // the path (as if it were run directly) so that it can import its neighbors. The
+        // path is embedded as hex, so that no character in it needs escaping
+        String hexPath = HexFormat.of().formatHex(
+                this.solutionPath.getBytes(StandardCharsets.UTF_8));
+        if (this.timingRepeats > 0) {
+            this.appendTimer(sb);
+        }
+        if (traced) {
+            appendTracer(sb);
+        }
+        sb.append("if __name__ == \"__main__\":\n");
+        sb.append("    path = bytes.fromhex(\"").append(hexPath)
+                .append("\").decode(\"utf-8\")\n");
+        sb.append("    sys.path.insert(1, os.path.dirname(path))\n");
+        sb.append("    spec = importlib.util.spec_from_file_location(\"solution\", " +
+                "path)\n");
+        sb.append("    solution = importlib.util.module_from_spec(spec)\n");
+        sb.append("    channel = open_result_channel()\n");
+        sb.append("    spec.loader.exec_module(solution)\n");
+        this.appendTimedCall(sb, printer, "solution." + this.funcName, traced);
+
+        String runnerPath = this.runDirPath + "/" + RUNNER_FILE_NAME;
+        FileWriter writer = new FileWriter(runnerPath);
+        writer.write(sb.toString());
+        writer.close();
+        return runnerPath;
     }
 
     /**
-     * Writes a footer to the solution file which converts the command-line args from
-     * strings into Python objects of the appropriate type, calls the function under test
-     * with arguments, and prints the result.
+     * Writes a footer to the solution file which looks up the arguments of a single test
+     * case in the argument file, converts them into Python objects of the appropriate
+     * type, calls the function under test with those arguments, and prints the result
+     * (its repr, its canonical repr, or the digest of its canonical repr, depending on
+     * the comparison mode) on the result channel (see appendResultChannel()).
      *
+     * @param mode   the comparison mode that the footer should print results for
+     * @param traced true if the footer should also print the coverage signature
      * @throws IOException if the solution file cannot be accessed
      */
-    private void appendToSolution() throws IOException {
+    private void appendToSolution(ComparisonMode mode, boolean traced) throws IOException {
         // Read the contents of the solution
         StringBuilder sb = new StringBuilder();
         BufferedReader reader = new BufferedReader(new FileReader(this.solutionPath));
@@ -301,15 +1691,27 @@ public class Tester {
         String contents = sb.toString();
         reader.close();
 
-        // Generate the footer, which converts the command-line args from strings into
-        // Python objects of the appropriate types, calls the function under test with
-        // these arguments, and prints the result
+        // Generate the footer, which looks up the arguments of the requested test case,
+        // converts them into Python objects of the appropriate types, calls the function
+        // under test with these arguments, and prints the result
         sb = new StringBuilder();
-        sb.append("import sys\n\n");
+        sb.append("import sys\nimport os\n");
+        appendArgLoader(sb);
+        appendResultChannel(sb);
+        String printer = "repr";
+        if (mode != ComparisonMode.IN_PYTHON) {
+            appendCanonicalizer(sb);
+            printer = mode == ComparisonMode.CANONICAL ? "canonical" : "digest";
+        }
+        if (this.timingRepeats > 0) {
+            this.appendTimer(sb);
+        }
+        if (traced) {
+            appendTracer(sb);
+        }
         sb.append("if __name__ == \"__main__\":\n");
-        sb.append("    args = sys.argv[1:]\n");
-        sb.append("    new_args = [eval(arg) for arg in args]\n");
-        sb.append("    print (repr(").append(this.funcName).append("(*new_args)))");
+        sb.append("    channel = open_result_channel()\n");
+        this.appendTimedCall(sb, printer, this.funcName, traced);
         String textToAdd = sb.toString();
 
         if (!contents.contains("import sys")) {
@@ -328,6 +1730,315 @@ public class Tester {
         }
     }
 
+    /**
+     * Appends to the given Python source the wire format decoder plus a function,
+     * load_args(path, case_num), which memory-maps the argument file written by
+     * writeArgumentFile(), looks up the arguments of a single test case via the offset
+     * table at the start of the file, and decodes them into a list of Python objects.
+     *
+     * @param sb the Python source being built
+     */
+    private static void appendArgLoader(StringBuilder sb) {
+        sb.append("import mmap\n");
+        sb.append(WireFormat.pythonDecoder());
+        sb.append("def load_args(path, case_num):\n");
+        sb.append("    with open(path, 'rb') as f:\n");
+        sb.append("        mm = mmap.mmap(f.fileno(), 0, access=mmap.ACCESS_READ)\n");
+        sb.append("    start = struct.unpack_from('>q', mm, 4 + 8 * case_num)[0]\n");
+        sb.append("    return decode_seq(mm, start)[0]\n\n");
+    }
+
+    /**
+     * Appends to the given Python source (within its main block) the call of the function
+     * under test on the arguments named on the command line, followed by printing the
+     * result on the result channel, along with its coverage signature if the call is
+     * traced (in which case the tracer must have been appended; see appendTracer()) and
+     * its runtime if runtimes are measured (in which case the timer must have been
+     * appended; see appendTimer()). Only the first call is traced, so tracing doesn't
+     * distort the runtime.
+     *
+     * @param sb       the Python source being built
+     * @param printer  the name of the Python function that converts the result into what
+     *                 gets printed
+     * @param function the Python expression for the function under test
+     * @param traced   true if the coverage signature should be printed
+     */
+    private void appendTimedCall(StringBuilder sb, String printer, String function,
+                                 boolean traced) {
+        String coverage = traced ? " + coverage_suffix()" : "";
+        if (this.timingRepeats == 0) {
+            sb.append("    new_args = load_args(sys.argv[1], int(sys.argv[2]))\n");
+            sb.append("    print (").append(printer).append("(")
+                    .append(traced ? "traced(" + function + ")" : function)
+                    .append("(*new_args))").append(coverage).append(", file=channel)");
+            return;
+        }
+        sb.append("    result, suffix = timed_call(").append(function)
+                .append(", lambda: load_args(sys.argv[1], int(sys.argv[2]))");
+        if (traced) {
+            sb.append(", traced(").append(function).append(")");
+        }
+        sb.append(")\n");
+        sb.append("    print (").append(printer).append("(result)").append(coverage)
+                .append(" + suffix, file=channel)");
+    }
+
+    /**
+     * Appends to the given Python source a function, traced(func), which wraps func so
+     * that calling it records (via sys.settrace) the arcs it executes within the file
+     * that defines it: each pair of consecutive lines executed by one frame, where the
+     * negated first line of the function stands for entering or leaving it. Also appends
+     * a function, coverage_suffix(), which returns a tab followed by a digest of the
+     * arcs executed by the last traced call. Requires sys to have been imported.
+     *
+     * @param sb the Python source being built
+     */
+    private static void appendTracer(StringBuilder sb) {
+        sb.append("ARCS = set()\n\n");
+        sb.append("def traced(func):\n");
+        sb.append("    code = getattr(func, '__code__', None)\n");
+        sb.append("    target = code.co_filename if code else None\n");
+        sb.append("    def tracer(frame, event, arg):\n");
+        sb.append("        if frame.f_code.co_filename != target:\n");
+        sb.append("            return None\n");
+        sb.append("        last = [-frame.f_code.co_firstlineno]\n");
+        sb.append("        def local(frame, event, arg):\n");
+        sb.append("            if event == 'line':\n");
+        sb.append("                ARCS.add((last[0], frame.f_lineno))\n");
+        sb.append("                last[0] = frame.f_lineno\n");
+        sb.append("            elif event == 'return':\n");
+        sb.append("                ARCS.add((last[0], -frame.f_code.co_firstlineno))\n");
+        sb.append("            return local\n");
+        sb.append("        return local\n");
+        sb.append("    def call(*args):\n");
+        sb.append("        ARCS.clear()\n");
+        sb.append("        sys.settrace(tracer)\n");
+        sb.append("        try:\n");
+        sb.append("            return func(*args)\n");
+        sb.append("        finally:\n");
+        sb.append("            sys.settrace(None)\n");
+        sb.append("    return call\n\n");
+        sb.append("def coverage_suffix():\n");
+        sb.append("    import hashlib\n");
+        sb.append("    arcs = repr(sorted(ARCS)).encode()\n");
+        sb.append("    return '\\t' + hashlib.sha256(arcs).hexdigest()[:16]\n\n");
+    }
+
+    /**
+     * Appends to the given Python source the number of timed repetitions (REPEATS) and a
+     * function, timed_call(func, load, first=None), which calls func (or first, if given)
+     * on the arguments returned by load() and returns the result along with a suffix to
+     * report after it: empty if REPEATS is 0, or otherwise a tab followed by the fastest
+     * of REPEATS further calls of func (each on freshly loaded arguments, in case func
+     * mutates them), in seconds.
+     *
+     * @param sb the Python source being built
+     */
+    private void appendTimer(StringBuilder sb) {
+        sb.append("REPEATS = ").append(this.timingRepeats).append("\n\n");
+        sb.append("def timed_call(func, load, first=None):\n");
+        sb.append("    actual = (first or func)(*load())\n");
+        sb.append("    if not REPEATS:\n");
+        sb.append("        return actual, ''\n");
+        sb.append("    import time\n");
+        sb.append("    best = float('inf')\n");
+        sb.append("    for _ in range(REPEATS):\n");
+        sb.append("        args = load()\n");
+        sb.append("        start = time.perf_counter()\n");
+        sb.append("        func(*args)\n");
+        sb.append("        best = min(best, time.perf_counter() - start)\n");
+        sb.append("    return actual, '\\t' + repr(best)\n\n");
+    }
+
+    /**
+     * Appends to the given Python source the resource limits (LIMITS, a tuple of the CPU
+     * time, address space, and output size limits, or None if there are none) and a
+     * function, apply_limits(fd), which applies them to the current process. The CPU time
+     * limit is enforced by the kernel, which kills the process with SIGXCPU (see
+     * Outcome.fromSignal()). The output size limit is enforced by counting what's printed
+     * as it's written: once there's too much of it, the OUTPUT_LIMIT marker is written to
+     * fd and the process exits. The kernel can't do this, since stdout and stderr are
+     * pipes, which RLIMIT_FSIZE doesn't apply to. That limit is still set, but it only
+     * bounds the files that the process writes: writing past it kills the process with
+     * SIGXFSZ. The default actions of both signals are restored first, since the JVM
+     * ignores SIGXFSZ and its child processes inherit that. A MemoryError raised under
+     * an address space limit is turned into the MEMORY_LIMIT marker by memory_verdict(),
+     * which re-raises it otherwise. Requires os and sys to have been imported.
+     *
+     * @param sb the Python source being built
+     */
+    private void appendLimiter(StringBuilder sb) {
+        ResourceLimits limits = this.resourceLimits;
+        if (limits == null) {
+            sb.append("LIMITS = None\n\n");
+        } else {
+            sb.append("LIMITS = (").append(limits.getCpuSeconds()).append(", ")
+                    .append(limits.getMemoryBytes()).append(", ")
+                    .append(limits.getOutputBytes()).append(")\n\n");
+        }
+        sb.append("class LimitedOutput:\n");
+        sb.append("    def __init__(self, stream, used, fd):\n");
+        sb.append("        self.stream = stream\n");
+        sb.append("        self.used = used\n");
+        sb.append("        self.fd = fd\n");
+        sb.append("    def write(self, text):\n");
+        sb.append("        self.used[0] += len(text)\n");
+        sb.append("        if self.used[0] > LIMITS[2]:\n");
+        sb.append("            os.write(self.fd, b'").append(Outcome.OUTPUT_LIMIT.marker())
+                .append("')\n");
+        sb.append("            os._exit(1)\n");
+        sb.append("        return self.stream.write(text)\n");
+        sb.append("    def __getattr__(self, name):\n");
+        sb.append("        return getattr(self.stream, name)\n\n");
+        sb.append("def apply_limits(fd):\n");
+        sb.append("    import resource\n");
+        sb.append("    import signal\n");
+        sb.append("    cpu, memory, output = LIMITS\n");
+        sb.append("    signal.signal(signal.SIGXCPU, signal.SIG_DFL)\n");
+        sb.append("    signal.signal(signal.SIGXFSZ, signal.SIG_DFL)\n");
+        sb.append("    resource.setrlimit(resource.RLIMIT_CORE, (0, 0))\n");
+        sb.append("    if cpu:\n");
+        sb.append("        resource.setrlimit(resource.RLIMIT_CPU, (cpu, cpu + 1))\n");
+        sb.append("    if memory:\n");
+        sb.append("        resource.setrlimit(resource.RLIMIT_AS, (memory, memory))\n");
+        sb.append("    if output:\n");
+        sb.append("        resource.setrlimit(resource.RLIMIT_FSIZE, (output, output))\n");
+        sb.append("        used = [0]\n");
+        sb.append("        sys.stdout = LimitedOutput(sys.stdout, used, fd)\n");
+        sb.append("        sys.stderr = LimitedOutput(sys.stderr, used, fd)\n\n");
+        sb.append("def memory_verdict():\n");
+        sb.append("    if not LIMITS or not LIMITS[1]:\n");
+        sb.append("        raise\n");
+        sb.append("    return '").append(Outcome.MEMORY_LIMIT.marker()).append("'\n\n");
+    }
+
+    /**
+     * Appends to the given Python source a function, open_result_channel(), which
+     * reserves the process's stdout for reporting the result: it returns a file for
+     * writing to the original stdout, and points fd 1 at stderr instead, so that anything
+     * the code under test prints afterwards (even from native code) can't be mistaken
+     * for the result. Requires os and sys to have been imported.
+     *
+     * @param sb the Python source being built
+     */
+    private static void appendResultChannel(StringBuilder sb) {
+        sb.append("def open_result_channel():\n");
+        sb.append("    sys.stdout.flush()\n");
+        sb.append("    channel = os.fdopen(os.dup(1), 'w')\n");
+        sb.append("    os.dup2(2, 1)\n");
+        sb.append("    return channel\n\n");
+    }
+
+    /**
+     * Appends to the given Python source a function, canonical(value), which returns a
+     * canonical repr of value: one that is the same for any two values that are equal
+     * (by ==) and of the same types. It differs from repr in that the elements of sets
+     * and the entries of dicts are sorted (by their own canonical reprs) and integral
+     * floats are shown as ints, so that e.g. dicts built in different orders, or 2 and
+     * 2.0, are considered to match. Bools remain distinct from ints. Also appends a
+     * function, digest(value), which returns a 128-bit BLAKE2b digest (in hex) of the
+     * canonical repr of value, so that large results can be compared without being
+     * sent back in full.
+     *
+     * @param sb the Python source being built
+     */
+    private static void appendCanonicalizer(StringBuilder sb) {
+        sb.append("def canonical(v):\n");
+        sb.append("    if isinstance(v, float) and v.is_integer():\n");
+        sb.append("        return repr(int(v))\n");
+        sb.append("    if isinstance(v, list):\n");
+        sb.append("        return '[' + ', '.join(canonical(e) for e in v) + ']'\n");
+        sb.append("    if isinstance(v, tuple):\n");
+        sb.append("        if len(v) == 1:\n");
+        sb.append("            return '(' + canonical(v[0]) + ',)'\n");
+        sb.append("        return '(' + ', '.join(canonical(e) for e in v) + ')'\n");
+        sb.append("    if isinstance(v, (set, frozenset)):\n");
+        sb.append("        if not v:\n");
+        sb.append("            return 'set()'\n");
+        sb.append("        return '{' + ', '.join(sorted(canonical(e) for e in v)) + '}'\n");
+        sb.append("    if isinstance(v, dict):\n");
+        sb.append("        return '{' + ', '.join(sorted(canonical(k) + ': ' + " +
+                "canonical(e) for k, e in v.items())) + '}'\n");
+        sb.append("    return repr(v)\n\n");
+        sb.append("def digest(v):\n");
+        sb.append("    import hashlib\n");
+        sb.append("    data = canonical(v).encode('utf-8', 'surrogatepass')\n");
+        sb.append("    return hashlib.blake2b(data, digest_size=16).hexdigest()\n\n");
+    }
+
+    /**
+     * Interns every string in the given list, so that equal expected results (which are
+     * often repeated across test cases) share memory.
+     *
+     * @param strings the strings to be interned
+     * @return a new list containing the interned strings
+     */
+    private static List<String> internAll(List<String> strings) {
+        List<String> interned = new ArrayList<>();
+        for (String string : strings) {
+            interned.add(string.intern());
+        }
+        return interned;
+    }
+
+    /**
+     * Writes the arguments of every test case to the argument file, so that each test
+     * process can be passed the index of its test case rather than the (arbitrarily
+     * large) arguments themselves. The file begins with the number of test cases n (a
+     * 4-byte int), followed by n + 1 offsets (8-byte longs) such that the arguments of
+     * the i-th test case occupy the bytes between the i-th and (i + 1)-th offsets. Each
+     * test case's arguments are stored in the binary wire format (see WireFormat).
+     *
+     * @throws IOException if the argument file cannot be created or written to
+     */
+    private void writeArgumentFile() throws IOException {
+        // Serialize each test case up front so that the offset table can be computed
+        List<byte[]> encoded = new ArrayList<>();
+        for (TestCase test : this.tests) {
+            encoded.add(WireFormat.encodeArgs(test));
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(this.getArgFilePath())))) {
+            // Write the header (number of tests, then the offset table)
+            out.writeInt(encoded.size());
+            long offset = 4 + 8L * (encoded.size() + 1);
+            for (byte[] args : encoded) {
+                out.writeLong(offset);
+                offset += args.length;
+            }
+            out.writeLong(offset);
+
+            // Write the arguments themselves
+            for (byte[] args : encoded) {
+                out.write(args);
+            }
+        }
+    }
+
+    /**
+     * Returns the indices of all test cases, in order.
+     *
+     * @return the list [0, 1, ..., n - 1], where n is the number of test cases
+     */
+    private List<Integer> getAllTestIndices() {
+        List<Integer> indices = new ArrayList<>();
+        for (int i = 0; i < this.tests.size(); i++) {
+            indices.add(i);
+        }
+        return indices;
+    }
+
+    /**
+     * Returns the absolute path to the argument file, which lives in the implementation
+     * directory alongside the wrapper and the expected results.
+     *
+     * @return the absolute path to the argument file
+     */
+    private String getArgFilePath() {
+        return this.runDirPath + "/" + ARG_FILE_NAME;
+    }
+
     /**
      * Outputs the expected results (given) to the file expected.py in the form of a
      * Python list.
@@ -340,35 +2051,8 @@ public class Tester {
         String contents = "results = " + results.toString();
 
         // Output results to expected.py, within the implementation directory
-        FileWriter writer = new FileWriter(this.implDirPath + "/expected.py");
+        FileWriter writer = new FileWriter(this.runDirPath + "/expected.py");
         writer.write(contents);
         writer.close();
     }
-
-    /**
-     * Helper function for deleting all cached Python files, so that an old cached version
-     * of expected.pyc doesn't accidentally get invoked.
-     *
-     * @throws IOException if the path to the pycache is invalid or a deletion operation
-     *                     fails
-     */
-    private void deletePyCache() throws IOException {
-        // Get the list of all files in the pycache
-        File pyCacheDir = new File(this.implDirPath + "/__pycache__/");
-        String[] filepaths = pyCacheDir.list();
-
-        if (filepaths != null) {
-            for (String filepath : filepaths) {
-                // Only delete .pyc files
-                if (filepath.contains(".pyc")) {
-                    File cachedFile =
-                            new File(this.implDirPath + "/__pycache__/" + filepath);
-                    if (!cachedFile.delete()) {
-                        throw new IOException("could not delete cached file " + filepath);
-                    }
-                }
-            }
-        }
-        pyCacheDir.delete();
-    }
 }
\ No newline at end of file
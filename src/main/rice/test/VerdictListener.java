@@ -0,0 +1,31 @@
+package main.rice.test;
+
+/**
+ * A receiver of the verdicts produced by the Tester as it tests each implementation,
+ * so that they can be processed while testing is still going on (see
+ * Tester.setVerdictListener()). Verdicts are delivered on the thread that called
+ * Tester.runTests(), one implementation at a time, in the order in which the
+ * implementations are indexed (except that, when screening, the sampled ones come
+ * first; see Tester.setPilotScreening()).
+ */
+public interface VerdictListener {
+
+    /**
+     * Receives the verdict of a single test case on a single implementation.
+     *
+     * @param fileIndex the index of the implementation
+     * @param caseIndex the index of the test case
+     * @param caught    true if the test case caught the implementation (i.e. it
+     *                  failed); false if it passed
+     */
+    void onVerdict(int fileIndex, int caseIndex, boolean caught);
+
+    /**
+     * Signals that every verdict on the given implementation has been delivered. Does
+     * nothing by default.
+     *
+     * @param fileIndex the index of the implementation
+     */
+    default void onFileDone(int fileIndex) {
+    }
+}
@@ -0,0 +1,208 @@
+package main.rice.test;
+
+import main.rice.obj.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A class bundling together both halves of the binary wire format that is used to pass
+ * test case arguments from Java to Python: the encoder, which delegates to the APyObj
+ * hierarchy, and the source code of the matching Python decoder, which is embedded in
+ * the generated wrapper and solution footer. A Java decoder is also provided, so that
+ * test cases saved in this format can be read back. Decoding this format avoids having to
+ * compile (via eval) the source text of every argument in every process.
+ */
+public final class WireFormat {
+
+    /**
+     * Private constructor; this class only contains static helpers.
+     */
+    private WireFormat() {
+    }
+
+    /**
+     * Encodes the arguments of the given test case as a sequence (see
+     * APyObj.encodeAll()).
+     *
+     * @param test the test case whose arguments are to be encoded
+     * @return the encoded arguments
+     */
+    public static byte[] encodeArgs(TestCase test) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            APyObj.encodeAll(test.getArgs(), out);
+        } catch (IOException e) {
+            // Writing to an in-memory buffer cannot fail
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes the arguments of a test case encoded by encodeArgs(). Strings decode to
+     * PyStringObjs (even if they were encoded from PyCharObjs), and dicts keep the order
+     * in which they were encoded.
+     *
+     * @param bytes the encoded arguments
+     * @return a test case with the decoded arguments
+     * @throws IOException if bytes isn't a valid encoding
+     */
+    public static TestCase decodeArgs(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        try {
+            return new TestCase(decodeSeq(in));
+        } catch (EOFException e) {
+            throw new IOException("Truncated test case encoding", e);
+        }
+    }
+
+    /**
+     * Decodes a single tagged object, as written by APyObj.encode().
+     *
+     * @param in the input to read from
+     * @return the decoded object
+     * @throws IOException if the input isn't a valid encoding
+     */
+    private static APyObj<?> decode(DataInput in) throws IOException {
+        byte tag = in.readByte();
+        return switch (tag) {
+            case 'I' -> new PyIntObj((int) in.readLong());
+            case 'U' -> {
+                byte[] utf8 = new byte[in.readInt()];
+                in.readFully(utf8);
+                yield new PyStringObj(new String(utf8, StandardCharsets.UTF_8));
+            }
+            case 'F' -> new PyFloatObj(in.readDouble());
+            case 'B' -> new PyBoolObj(in.readBoolean());
+            case 'D' -> {
+                List<APyObj<?>> keys = decodeSeq(in);
+                List<APyObj<?>> values = decodeSeq(in);
+                Map<APyObj<?>, APyObj<?>> dict = new LinkedHashMap<>();
+                for (int i = 0; i < keys.size(); i++) {
+                    dict.put(keys.get(i), values.get(i));
+                }
+                yield new PyDictObj<>(dict);
+            }
+            case 'L' -> new PyListObj<>(decodeSeq(in));
+            case 'T' -> new PyTupleObj<>(decodeSeq(in));
+            case 'S' -> new PySetObj<>(new HashSet<>(decodeSeq(in)));
+            default -> throw new IOException("Unknown tag in test case encoding: " + tag);
+        };
+    }
+
+    /**
+     * Decodes a sequence of objects, as written by APyObj.encodeAll().
+     *
+     * @param in the input to read from
+     * @return the decoded objects, in order
+     * @throws IOException if the input isn't a valid encoding
+     */
+    private static List<APyObj<?>> decodeSeq(DataInput in) throws IOException {
+        byte kind = in.readByte();
+        int n = in.readInt();
+        List<APyObj<?>> elems = new ArrayList<>();
+        if (kind == 'w') {
+            // The lengths of the strings (in code points), then their concatenation
+            int[] lengths = new int[n];
+            for (int i = 0; i < n; i++) {
+                lengths[i] = in.readInt();
+            }
+            byte[] utf8 = new byte[in.readInt()];
+            in.readFully(utf8);
+            String text = new String(utf8, StandardCharsets.UTF_8);
+            int start = 0;
+            for (int length : lengths) {
+                int end = text.offsetByCodePoints(start, length);
+                elems.add(new PyStringObj(text.substring(start, end)));
+                start = end;
+            }
+            return elems;
+        }
+        for (int i = 0; i < n; i++) {
+            switch (kind) {
+                case 'q' -> elems.add(new PyIntObj((int) in.readLong()));
+                case 'd' -> elems.add(new PyFloatObj(in.readDouble()));
+                case '?' -> elems.add(new PyBoolObj(in.readBoolean()));
+                case 'x' -> elems.add(decode(in));
+                default -> throw new IOException("Unknown sequence kind in test case "
+                        + "encoding: " + kind);
+            }
+        }
+        return elems;
+    }
+
+    /**
+     * Returns the source code of the Python decoder, which defines two functions:
+     * decode(buf, pos), which decodes a single tagged object, and decode_seq(buf, pos),
+     * which decodes a sequence. Both return a tuple of the decoded value and the position
+     * immediately after it, and both accept any object supporting the buffer protocol
+     * (e.g. bytes or an mmap).
+     *
+     * @return the source code of the Python decoder
+     */
+    public static String pythonDecoder() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("import struct\n\n");
+
+        // Decodes a single object, based on its tag
+        sb.append("def decode(buf, pos):\n");
+        sb.append("    tag = buf[pos]\n");
+        sb.append("    pos += 1\n");
+        sb.append("    if tag == 73:\n");
+        sb.append("        return struct.unpack_from('>q', buf, pos)[0], pos + 8\n");
+        sb.append("    if tag == 85:\n");
+        sb.append("        n = struct.unpack_from('>i', buf, pos)[0]\n");
+        sb.append("        return str(buf[pos + 4:pos + 4 + n], 'utf-8'), pos + 4 + n\n");
+        sb.append("    if tag == 70:\n");
+        sb.append("        return struct.unpack_from('>d', buf, pos)[0], pos + 8\n");
+        sb.append("    if tag == 66:\n");
+        sb.append("        return buf[pos] != 0, pos + 1\n");
+        sb.append("    if tag == 68:\n");
+        sb.append("        keys, pos = decode_seq(buf, pos)\n");
+        sb.append("        vals, pos = decode_seq(buf, pos)\n");
+        sb.append("        return dict(zip(keys, vals)), pos\n");
+        sb.append("    elems, pos = decode_seq(buf, pos)\n");
+        sb.append("    if tag == 76:\n");
+        sb.append("        return elems, pos\n");
+        sb.append("    if tag == 84:\n");
+        sb.append("        return tuple(elems), pos\n");
+        sb.append("    return set(elems), pos\n\n");
+
+        // Decodes a sequence, unpacking flat arrays in bulk where possible
+        sb.append("def decode_seq(buf, pos):\n");
+        sb.append("    kind = buf[pos]\n");
+        sb.append("    n = struct.unpack_from('>i', buf, pos + 1)[0]\n");
+        sb.append("    pos += 5\n");
+        sb.append("    if kind == 113:\n");
+        sb.append("        return list(struct.unpack_from('>%dq' % n, buf, pos)), " +
+                "pos + 8 * n\n");
+        sb.append("    if kind == 100:\n");
+        sb.append("        return list(struct.unpack_from('>%dd' % n, buf, pos)), " +
+                "pos + 8 * n\n");
+        sb.append("    if kind == 63:\n");
+        sb.append("        return list(struct.unpack_from('%d?' % n, buf, pos)), pos + n\n");
+        sb.append("    if kind == 119:\n");
+        sb.append("        lens = struct.unpack_from('>%di' % n, buf, pos)\n");
+        sb.append("        pos += 4 * n\n");
+        sb.append("        size = struct.unpack_from('>i', buf, pos)[0]\n");
+        sb.append("        text = str(buf[pos + 4:pos + 4 + size], 'utf-8')\n");
+        sb.append("        elems = []\n");
+        sb.append("        start = 0\n");
+        sb.append("        for length in lens:\n");
+        sb.append("            elems.append(text[start:start + length])\n");
+        sb.append("            start += length\n");
+        sb.append("        return elems, pos + 4 + size\n");
+        sb.append("    elems = []\n");
+        sb.append("    for _ in range(n):\n");
+        sb.append("        elem, pos = decode(buf, pos)\n");
+        sb.append("        elems.append(elem)\n");
+        sb.append("    return elems, pos\n\n");
+        return sb.toString();
+    }
+}
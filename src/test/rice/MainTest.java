@@ -1,13 +1,18 @@
 package test.rice;
 
 import main.rice.Main;
+import main.rice.basegen.DeadlineResult;
+import main.rice.concisegen.IncrementalCover;
 import main.rice.obj.*;
 import main.rice.parse.InvalidConfigException;
 import main.rice.test.TestCase;
 import org.junit.jupiter.api.*;
 import test.rice.node.APyNodeTest;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.stream.Stream;
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -153,6 +158,104 @@ class MainTest {
         }
     }
 
+    /**
+     * Tests the incremental mode, in which a state file is given: each run only tests
+     * the implementations that are new since the last one, and only extends the concise
+     * set saved by it to catch them.
+     */
+    @Test
+    @Order(7)
+    void testIncrementalRuns() throws IOException {
+        // The values on which each implementation is wrong
+        Map<String, Set<Integer>> bugs = Map.of("impl0.py", Set.of(1, 2, 5, 6),
+                "impl1.py", Set.of(1, 2, 4, 6), "impl2.py", Set.of(6, 7, 8, 9),
+                "impl3.py", Set.of(2, 3), "impl4.py", Set.of(2, 4),
+                "impl5.py", Set.of(4, 5, 7));
+        Path source = Path.of(userDir, "src/test/rice/test/pyfiles",
+                "f0multipleMixedDeterministic");
+        Path implDir = Files.createTempDirectory("incremental");
+        Path state = implDir.resolve("state.bin");
+        String[] args = buildArgs("func0", "func0simple", "f0multipleMixedDeterministic");
+        args = new String[]{args[0], args[1], implDir.toString(), state.toString()};
+        try {
+            // The first run only sees two of the implementations
+            Files.copy(source.resolve("impl3.py"), implDir.resolve("impl3.py"));
+            Files.copy(source.resolve("impl5.py"), implDir.resolve("impl5.py"));
+            Set<TestCase> first = runMain(args);
+            assertEquals(2, first.size());
+            assertCatches(first, bugs, Set.of("impl3.py", "impl5.py"));
+            assertEquals(List.of("impl3.py", "impl5.py"),
+                    IncrementalCover.load(state).getFilenames());
+
+            // The second run extends the first run's concise set to catch the rest
+            for (String filename : List.of("impl0.py", "impl1.py", "impl2.py",
+                    "impl4.py")) {
+                Files.copy(source.resolve(filename), implDir.resolve(filename));
+            }
+            Set<TestCase> second = runMain(args);
+            assertTrue(second.containsAll(first));
+            assertCatches(second, bugs, bugs.keySet());
+
+            // Only the new implementations were tested, and each one is indexed after
+            // the earlier ones
+            IncrementalCover saved = IncrementalCover.load(state);
+            assertEquals(List.of("impl3.py", "impl5.py", "impl0.py", "impl1.py",
+                    "impl2.py", "impl4.py"), saved.getFilenames());
+            assertEquals(Set.of(0, 1, 2, 3, 4, 5), saved.getTestResults().getWrongSet());
+
+            // Without new implementations, nothing changes
+            assertEquals(second, runMain(args));
+            assertEquals(saved.getFilenames(), IncrementalCover.load(state).getFilenames());
+        } finally {
+            try (Stream<Path> paths = Files.walk(implDir)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path ->
+                        path.toFile().delete());
+            }
+        }
+    }
+
+    /**
+     * Tests the deadline mode: given plenty of time, it finishes the semi-exhaustive test
+     * cases and returns a concise set that catches every implementation.
+     */
+    @Test
+    @Order(8)
+    void testDeadlineMode() throws Exception {
+        Map<String, Set<Integer>> bugs = Map.of("impl0.py", Set.of(1, 2, 5, 6),
+                "impl1.py", Set.of(1, 2, 4, 6), "impl2.py", Set.of(6, 7, 8, 9),
+                "impl3.py", Set.of(2, 3), "impl4.py", Set.of(2, 4),
+                "impl5.py", Set.of(4, 5, 7));
+        String[] args = buildArgs("func0", "func0simple", "f0multipleMixedDeterministic");
+        try {
+            DeadlineResult result = Main.generateTestsWithDeadline(args, 60_000);
+            assertTrue(result.isExhaustiveCompleted());
+            assertEquals(6, result.getNumCaught());
+            assertCatches(result.getTestCases(), bugs, bugs.keySet());
+        } finally {
+            Files.deleteIfExists(Path.of(args[2], "expected.py"));
+        }
+    }
+
+    /**
+     * Asserts that every one of the given implementations is caught by at least one of
+     * the given test cases.
+     *
+     * @param tests     the test cases, each with a single int argument
+     * @param bugs      the values on which each implementation is wrong
+     * @param filenames the names of the implementations that must be caught
+     */
+    private static void assertCatches(Set<TestCase> tests, Map<String, Set<Integer>> bugs,
+                                      Set<String> filenames) {
+        for (String filename : filenames) {
+            boolean caught = false;
+            for (TestCase test : tests) {
+                caught |= bugs.get(filename).contains(
+                        (Integer) test.getArgs().get(0).getValue());
+            }
+            assertTrue(caught, filename);
+        }
+    }
+
     /**
      * Helper function for building the array of args for Main.main() by adding absolute
      * path information.
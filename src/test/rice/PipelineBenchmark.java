@@ -0,0 +1,72 @@
+package test.rice;
+
+import main.rice.concisegen.ConciseSetGenerator;
+import main.rice.obj.PyIntObj;
+import main.rice.test.FakeBackend;
+import main.rice.test.TestCase;
+import main.rice.test.TestResults;
+import main.rice.test.Tester;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * A benchmark (run via its main method, rather than as part of the test suite) of the
+ * Java side of the pipeline: aggregating the results of testing and computing the
+ * concise set. Verdicts come from a FakeBackend, so no Python is involved.
+ *
+ * Usage: PipelineBenchmark [numFiles] [numTests] [wrongRate] [faultRate]
+ */
+public class PipelineBenchmark {
+
+    /**
+     * Runs the benchmark, printing the time taken by each stage.
+     *
+     * @param args optional overrides for the number of files, the number of tests, the
+     *             probability that a file is wrong, and the probability that a wrong file
+     *             fails a given test
+     * @throws IOException if the scratch directory cannot be created
+     * @throws InterruptedException never (the fake backend does not start processes)
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int numFiles = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int numTests = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+        double wrongRate = args.length > 2 ? Double.parseDouble(args[2]) : 0.7;
+        double faultRate = args.length > 3 ? Double.parseDouble(args[3]) : 0.05;
+
+        List<TestCase> tests = new ArrayList<>();
+        for (int i = 0; i < numTests; i++) {
+            tests.add(new TestCase(List.of(new PyIntObj(i))));
+        }
+
+        // The harness files still get written, so give them somewhere to go
+        Path scratch = Files.createTempDirectory("pipelinebench");
+        FakeBackend backend = new FakeBackend(numFiles, wrongRate, faultRate, 42);
+        Tester tester = new Tester("func", null, scratch.toString(), tests);
+        tester.setBackend(backend);
+
+        long start = System.nanoTime();
+        TestResults results = tester.runTests();
+        long tested = System.nanoTime();
+        Set<TestCase> concise = ConciseSetGenerator.setCover(results);
+        long covered = System.nanoTime();
+        Set<TestCase> exact = ConciseSetGenerator.exactSetCover(results, 2000);
+        long solved = System.nanoTime();
+
+        System.out.printf("files=%d tests=%d wrong=%d executions=%d%n", numFiles, numTests,
+                results.getWrongSet().size(), backend.getNumExecutions());
+        System.out.printf("runTests: %.1f ms%n", (tested - start) / 1e6);
+        System.out.printf("setCover: %.1f ms (%d tests selected)%n",
+                (covered - tested) / 1e6, concise.size());
+        System.out.printf("exactSetCover: %.1f ms (%d tests selected)%n",
+                (solved - covered) / 1e6, exact.size());
+
+        for (File file : Objects.requireNonNull(scratch.toFile().listFiles())) {
+            file.delete();
+        }
+        Files.delete(scratch);
+    }
+}
@@ -0,0 +1,150 @@
+package test.rice.basegen;
+
+import main.rice.basegen.AdaptiveBaseSetGenerator;
+import main.rice.concisegen.ConciseSetGenerator;
+import main.rice.node.APyNode;
+import main.rice.parse.ConfigFileParser;
+import main.rice.parse.InvalidConfigException;
+import main.rice.test.TestCase;
+import main.rice.test.TestResults;
+import main.rice.test.Tester;
+import org.junit.jupiter.api.*;
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the AdaptiveBaseSetGenerator class, which run func0 on the
+ * implementations in f0multipleMixedDeterministic. Its config has an exhaustive domain
+ * of 0 to 4 and a random domain of 5 to 9; every implementation but impl2.py (which is
+ * only wrong on 6 to 9) is caught by an exhaustive test case.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class AdaptiveBaseSetGeneratorTest {
+
+    /**
+     * The absolute path to this project directory, which we'll use to find the provided
+     * pyfiles.
+     */
+    private static final String userDir = System.getProperty("user.dir");
+
+    /**
+     * The directory containing the implementations under test.
+     */
+    private static final String implDir = userDir
+            + "/src/test/rice/test/pyfiles/f0multipleMixedDeterministic";
+
+    /**
+     * The nodes parsed from the func0simple config.
+     */
+    private static List<APyNode<?>> nodes;
+
+    /**
+     * Parses the config.
+     */
+    @BeforeAll
+    static void setUp() throws IOException, InvalidConfigException {
+        nodes = ConfigFileParser.parse(ConfigFileParser.readFile(userDir
+                + "/src/test/rice/parse/config/func0simple.json")).getNodes();
+    }
+
+    /**
+     * Removes the expected results left behind by the Testers.
+     */
+    @AfterEach
+    void cleanUp() {
+        new File(implDir + "/expected.py").delete();
+    }
+
+    /**
+     * Tests that generation stops after the first random batch that catches too few new
+     * files, and that the combined results are those of every generated test case.
+     */
+    @Test
+    @Order(1)
+    void testStopsWhenYieldDrops() throws IOException, InterruptedException {
+        // Any two distinct random test cases include one of 6 to 9, which catches
+        // impl2.py; the next batch can't catch anything new
+        AdaptiveBaseSetGenerator generator = new AdaptiveBaseSetGenerator(nodes, 2, 0.5,
+                0, 0);
+        TestResults results = generator.generate(AdaptiveBaseSetGeneratorTest::tester);
+        assertEquals(List.of(1, 0), generator.getNewDetections());
+        assertEquals(9 * 6, generator.getNumExecutions());
+        assertEquals(Set.of(0, 1, 2, 3, 4, 5), results.getWrongSet());
+
+        // The combined results are indexed like a single Tester's would be
+        List<TestCase> tests = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            tests.add(results.getTestCase(i));
+        }
+        Tester tester = tester(tests);
+        tester.computeExpectedResults();
+        assertEquals(tester.runTests().getCaseToFiles(), results.getCaseToFiles());
+
+        // ...so they can be handed to the ConciseSetGenerator
+        Set<TestCase> concise = ConciseSetGenerator.setCover(results);
+        Set<Integer> caught = new HashSet<>();
+        for (int i = 0; i < 9; i++) {
+            if (concise.contains(results.getTestCase(i))) {
+                caught.addAll(results.getCaseToFiles().get(i));
+            }
+        }
+        assertEquals(results.getWrongSet(), caught);
+    }
+
+    /**
+     * Tests that generation stops once the random domain is exhausted, and that no test
+     * case is generated twice.
+     */
+    @Test
+    @Order(2)
+    void testStopsWhenDomainExhausted() throws IOException, InterruptedException {
+        AdaptiveBaseSetGenerator generator = new AdaptiveBaseSetGenerator(nodes, 2, 0, 0, 0);
+        TestResults results = generator.generate(AdaptiveBaseSetGeneratorTest::tester);
+        assertEquals(3, generator.getNewDetections().size());
+        Set<Object> values = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            values.add(results.getTestCase(i).getArgs().get(0).getValue());
+        }
+        assertEquals(10, values.size());
+        assertEquals(10, results.getCaseToFiles().size());
+    }
+
+    /**
+     * Tests that the last batch is shrunk to fit within the execution budget.
+     */
+    @Test
+    @Order(3)
+    void testExecutionBudget() throws IOException, InterruptedException {
+        AdaptiveBaseSetGenerator generator = new AdaptiveBaseSetGenerator(nodes, 2, 0,
+                5 * 6 + 6, 0);
+        TestResults results = generator.generate(AdaptiveBaseSetGeneratorTest::tester);
+        assertEquals(1, generator.getNewDetections().size());
+        assertEquals(36, generator.getNumExecutions());
+        assertEquals(6, results.getCaseToFiles().size());
+    }
+
+    /**
+     * Tests that invalid settings are rejected.
+     */
+    @Test
+    @Order(4)
+    void testInvalidSettings() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new AdaptiveBaseSetGenerator(nodes, 0, 0, 0, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new AdaptiveBaseSetGenerator(nodes, 1, -1, 0, 0));
+    }
+
+    /**
+     * Returns a Tester for the given test cases on the implementations under test.
+     *
+     * @param tests the test cases
+     * @return the Tester
+     */
+    private static Tester tester(List<TestCase> tests) {
+        return new Tester("func0", userDir + "/src/test/rice/test/pyfiles/sols/func0sol.py",
+                implDir, tests);
+    }
+}
@@ -0,0 +1,199 @@
+package test.rice.basegen;
+
+import main.rice.basegen.DeadlineGenerator;
+import main.rice.basegen.DeadlineResult;
+import main.rice.node.APyNode;
+import main.rice.parse.ConfigFileParser;
+import main.rice.parse.InvalidConfigException;
+import main.rice.test.TestCase;
+import main.rice.test.Tester;
+import org.junit.jupiter.api.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the DeadlineGenerator class, which run func0 on the implementations in
+ * f0multipleMixedDeterministic. Its config has an exhaustive domain of 0 to 4 and a
+ * random domain of 5 to 9; every implementation is incorrect, and all but impl2.py
+ * (which is only wrong on 6 to 9) are caught by an exhaustive test case.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class DeadlineGeneratorTest {
+
+    /**
+     * The absolute path to this project directory, which we'll use to find the provided
+     * pyfiles.
+     */
+    private static final String userDir = System.getProperty("user.dir");
+
+    /**
+     * The directory containing the implementations under test.
+     */
+    private static final String implDir = userDir
+            + "/src/test/rice/test/pyfiles/f0multipleMixedDeterministic";
+
+    /**
+     * The values on which each implementation is wrong.
+     */
+    private static final List<Set<Integer>> bugs = List.of(Set.of(1, 2, 5, 6),
+            Set.of(1, 2, 4, 6), Set.of(6, 7, 8, 9), Set.of(2, 3), Set.of(2, 4),
+            Set.of(4, 5, 7));
+
+    /**
+     * The nodes parsed from the func0simple config.
+     */
+    private static List<APyNode<?>> nodes;
+
+    /**
+     * Parses the config.
+     */
+    @BeforeAll
+    static void setUp() throws IOException, InvalidConfigException {
+        nodes = ConfigFileParser.parse(ConfigFileParser.readFile(userDir
+                + "/src/test/rice/parse/config/func0simple.json")).getNodes();
+    }
+
+    /**
+     * Removes the expected results left behind by the Testers.
+     */
+    @AfterEach
+    void cleanUp() {
+        new File(implDir + "/expected.py").delete();
+    }
+
+    /**
+     * Tests that, given plenty of time, every semi-exhaustive test case is run, and
+     * random ones are run until every file is caught.
+     */
+    @Test
+    @Order(1)
+    void testGenerousDeadline() throws IOException, InterruptedException {
+        DeadlineResult result = new DeadlineGenerator(nodes, 2, 2, 0.5, 60_000)
+                .generate(DeadlineGeneratorTest::tester);
+        assertTrue(result.isExhaustiveCompleted());
+        assertEquals(5, result.getNumExhaustive());
+        assertEquals(6, result.getNumFiles());
+        assertEquals(6, result.getNumCaught());
+        assertTrue(result.getSecondsPerExecution() > 0);
+
+        // The random test cases were only run on impl2.py, the one file left uncaught
+        int numRandom = result.getNumTestsRun() - 5;
+        assertTrue(numRandom >= 1 && numRandom <= 5);
+        assertEquals(5 * 6 + numRandom, result.getNumExecutions());
+        assertCatchesAll(result.getTestCases(), Set.of(0, 1, 2, 3, 4, 5));
+    }
+
+    /**
+     * Tests that, with no time at all, only the warm-up batch is run, and the concise set
+     * still catches everything that it caught.
+     */
+    @Test
+    @Order(2)
+    void testExpiredDeadline() throws IOException, InterruptedException {
+        DeadlineResult result = new DeadlineGenerator(nodes, 2, 2, 0.5, 0)
+                .generate(DeadlineGeneratorTest::tester);
+        assertFalse(result.isExhaustiveCompleted());
+        assertEquals(2, result.getNumTestsRun());
+        assertEquals(2 * 6, result.getNumExecutions());
+
+        Set<Integer> caught = new HashSet<>();
+        for (TestCase test : result.getTestCases()) {
+            for (int file = 0; file < bugs.size(); file++) {
+                if (bugs.get(file).contains((Integer) test.getArgs().get(0).getValue())) {
+                    caught.add(file);
+                }
+            }
+        }
+        assertEquals(result.getNumCaught(), caught.size());
+    }
+
+    /**
+     * Tests that a correct implementation, which no test case ever catches, doesn't keep
+     * random generation going until the deadline: with a random domain of 5 to 1000,
+     * random test cases almost never catch impl2.py either, so random generation stops
+     * after the first batch and the rest of the budget goes unused.
+     */
+    @Test
+    @Order(3)
+    void testStopsBeforeDeadline() throws IOException, InterruptedException,
+            InvalidConfigException {
+        List<APyNode<?>> wideNodes = ConfigFileParser.parse("{\"fname\": \"func0\", "
+                + "\"types\": [\"int\"], \"exhaustive domain\": [\"0~4\"], "
+                + "\"random domain\": [\"5~1000\"], \"num random\": 2}").getNodes();
+        Path dir = Files.createTempDirectory("deadline");
+        try {
+            for (int i = 0; i < bugs.size(); i++) {
+                Files.copy(Path.of(implDir, "impl" + i + ".py"),
+                        dir.resolve("impl" + i + ".py"));
+            }
+            Files.copy(Path.of(userDir, "src/test/rice/test/pyfiles/f0multipleRight",
+                    "impl0.py"), dir.resolve("right.py"));
+
+            long start = System.nanoTime();
+            DeadlineResult result = new DeadlineGenerator(wideNodes, 2, 2, 0.5, 60_000)
+                    .generate(tests -> new Tester("func0", userDir
+                            + "/src/test/rice/test/pyfiles/sols/func0sol.py",
+                            dir.toString(), tests));
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            assertTrue(elapsedMillis < 30_000, elapsedMillis + " ms");
+            assertTrue(result.isExhaustiveCompleted());
+            assertEquals(7, result.getNumFiles());
+            assertTrue(result.getNumCaught() >= 5 && result.getNumCaught() <= 6);
+            assertTrue(result.getNumTestsRun() <= 5 + 2 * 2);
+        } finally {
+            try (Stream<Path> paths = Files.walk(dir)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path ->
+                        path.toFile().delete());
+            }
+        }
+    }
+
+    /**
+     * Tests that invalid settings are rejected.
+     */
+    @Test
+    @Order(4)
+    void testInvalidSettings() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new DeadlineGenerator(nodes, 0, 1, 0, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new DeadlineGenerator(nodes, 1, 0, 0, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new DeadlineGenerator(nodes, 1, 1, -1, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new DeadlineGenerator(nodes, 1, 1, 0, -1));
+    }
+
+    /**
+     * Asserts that every one of the given implementations is caught by at least one of
+     * the given test cases.
+     *
+     * @param tests the test cases, each with a single int argument
+     * @param files the indices of the implementations that must be caught
+     */
+    private static void assertCatchesAll(Set<TestCase> tests, Set<Integer> files) {
+        for (int file : files) {
+            boolean caught = false;
+            for (TestCase test : tests) {
+                caught |= bugs.get(file).contains((Integer) test.getArgs().get(0).getValue());
+            }
+            assertTrue(caught, "impl" + file + ".py");
+        }
+    }
+
+    /**
+     * Returns a Tester for the given test cases on the implementations under test.
+     *
+     * @param tests the test cases
+     * @return the Tester
+     */
+    private static Tester tester(List<TestCase> tests) {
+        return new Tester("func0", userDir + "/src/test/rice/test/pyfiles/sols/func0sol.py",
+                implDir, tests);
+    }
+}
@@ -1,10 +1,12 @@
 package test.rice.concisegen;
 
 import main.rice.concisegen.ConciseSetGenerator;
+import main.rice.concisegen.WeightedCover;
 import main.rice.obj.APyObj;
 import main.rice.obj.PyFloatObj;
 import main.rice.obj.PyIntObj;
 import main.rice.obj.PyStringObj;
+import main.rice.test.Outcome;
 import main.rice.test.TestCase;
 import main.rice.test.TestResults;
 import org.junit.jupiter.api.*;
@@ -311,6 +313,245 @@ class ConciseSetGeneratorTest {
         assertEquals(expected, actual);
     }
 
+    /**
+     * Tests that, when some files behaved nondeterministically, setCover() prefers the
+     * test cases that catch them most reliably.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(12)
+    void testPrefersReliableTests() {
+        List<TestCase> allCases = generateIntegerCases(3);
+        Set<Integer> wrongSet = generateAllWrong(2);
+
+        // Cases 0 and 1 both catch the nondeterministic file 0, but case 0 only does so
+        // a quarter of the time; case 2 catches file 1
+        List<Set<Integer>> caseToFiles = List.of(Set.of(0), Set.of(0), Set.of(1));
+        List<Map<Integer, Double>> caseToFailureRates = List.of(Map.of(0, 0.25),
+                Map.of(0, 1.0), Map.of(0, 0.0));
+        List<Map<Integer, Outcome>> caseToViolations = List.of(Map.of(),
+                Map.of(), Map.of());
+
+        TestResults input = new TestResults(allCases, caseToFiles, wrongSet, Map.of(),
+                caseToViolations, caseToFailureRates);
+        Set<TestCase> expected = Set.of(allCases.get(1), allCases.get(2));
+        assertEquals(expected, ConciseSetGenerator.setCover(input));
+    }
+
+    /**
+     * Tests that exactSetCover() finds the optimal cover where the greedy algorithm
+     * doesn't, and falls back to the greedy cover when it has no time.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(13)
+    void testExactBeatsGreedy() {
+        // The same instance as in testGreedyNotOptimal(), where cases 0-4 suffice
+        List<TestCase> allCases = generateIntegerCases(6);
+        List<Set<Integer>> caseToFiles = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            caseToFiles.add(Set.of(i, i + 5));
+        }
+        caseToFiles.add(Set.of(0, 1, 2, 3, 4));
+        TestResults input = new TestResults(allCases, caseToFiles, generateAllWrong(10));
+
+        assertEquals(new HashSet<>(allCases.subList(0, 5)),
+                ConciseSetGenerator.exactSetCover(input, 10_000));
+        assertEquals(new HashSet<>(allCases), ConciseSetGenerator.exactSetCover(input, 0));
+    }
+
+    /**
+     * Tests, on random instances, that exactSetCover() returns a cover no larger than
+     * any other, by comparison with an exhaustive search.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(14)
+    void testExactIsMinimum() {
+        Random random = new Random(11);
+        for (int trial = 0; trial < 100; trial++) {
+            int numFiles = 1 + random.nextInt(20);
+            int numTests = 1 + random.nextInt(12);
+            List<TestCase> allCases = generateIntegerCases(numTests);
+            List<Set<Integer>> caseToFiles = new ArrayList<>();
+            Set<Integer> wrongSet = new HashSet<>();
+            for (int i = 0; i < numTests; i++) {
+                Set<Integer> caught = new HashSet<>();
+                for (int file = 0; file < numFiles; file++) {
+                    if (random.nextInt(4) == 0) {
+                        caught.add(file);
+                    }
+                }
+                caseToFiles.add(caught);
+                wrongSet.addAll(caught);
+            }
+
+            Set<TestCase> exact = ConciseSetGenerator.exactSetCover(
+                    new TestResults(allCases, caseToFiles, wrongSet), 10_000);
+            Set<Integer> covered = new HashSet<>();
+            for (TestCase test : exact) {
+                covered.addAll(caseToFiles.get(allCases.indexOf(test)));
+            }
+            assertEquals(wrongSet, covered);
+
+            // Find the size of the smallest cover by trying every subset of the tests
+            int minimum = numTests;
+            for (int subset = 0; subset < (1 << numTests); subset++) {
+                Set<Integer> subsetCovered = new HashSet<>();
+                for (int i = 0; i < numTests; i++) {
+                    if ((subset & (1 << i)) != 0) {
+                        subsetCovered.addAll(caseToFiles.get(i));
+                    }
+                }
+                if (subsetCovered.equals(wrongSet)) {
+                    minimum = Math.min(minimum, Integer.bitCount(subset));
+                }
+            }
+            assertEquals(minimum, exact.size());
+        }
+    }
+
+    /**
+     * Tests that weightedSetCover() prefers several fast test cases over a single slow
+     * one that catches the same files, and reports their total runtime.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(15)
+    void testWeightedPrefersFastTests() {
+        List<TestCase> allCases = generateIntegerCases(4);
+        List<Set<Integer>> caseToFiles = List.of(Set.of(0, 1, 2, 3), Set.of(0, 1),
+                Set.of(2), Set.of(3));
+        TestResults results = new TestResults(allCases, caseToFiles, Set.of(0, 1, 2, 3));
+
+        // By count, the slow test case alone is best; by runtime, the other three are
+        assertEquals(Set.of(allCases.get(0)), ConciseSetGenerator.exactSetCover(results,
+                1000));
+        WeightedCover cover = ConciseSetGenerator.weightedSetCover(results,
+                List.of(1.0, 0.1, 0.2, 0.3), 1000);
+        assertEquals(Set.of(allCases.get(1), allCases.get(2), allCases.get(3)),
+                cover.getTestCases());
+        assertEquals(0.6, cover.getTotalCost(), 1e-9);
+        assertEquals("3 test cases, 600.000 ms", cover.toString());
+
+        // Without any time to search, the greedy cover is still the cheap one
+        assertEquals(cover.getTestCases(), ConciseSetGenerator.weightedSetCover(results,
+                List.of(1.0, 0.1, 0.2, 0.3), 0).getTestCases());
+    }
+
+    /**
+     * Tests, on random instances, that weightedSetCover() returns a cover with no more
+     * total runtime than any other, by comparison with an exhaustive search, and that
+     * the greedy cover it starts from is a cover.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(16)
+    void testWeightedIsMinimum() {
+        Random random = new Random(13);
+        for (int trial = 0; trial < 100; trial++) {
+            int numFiles = 1 + random.nextInt(20);
+            int numTests = 1 + random.nextInt(12);
+            List<TestCase> allCases = generateIntegerCases(numTests);
+            List<Set<Integer>> caseToFiles = new ArrayList<>();
+            List<Double> runtimes = new ArrayList<>();
+            Set<Integer> wrongSet = new HashSet<>();
+            for (int i = 0; i < numTests; i++) {
+                Set<Integer> caught = new HashSet<>();
+                for (int file = 0; file < numFiles; file++) {
+                    if (random.nextInt(4) == 0) {
+                        caught.add(file);
+                    }
+                }
+                caseToFiles.add(caught);
+                runtimes.add(random.nextInt(100) / 1000.0);
+                wrongSet.addAll(caught);
+            }
+            TestResults results = new TestResults(allCases, caseToFiles, wrongSet);
+
+            // Find the cost of the cheapest cover by trying every subset of the tests
+            double minimum = Double.POSITIVE_INFINITY;
+            for (int subset = 0; subset < (1 << numTests); subset++) {
+                Set<Integer> subsetCovered = new HashSet<>();
+                double cost = 0;
+                for (int i = 0; i < numTests; i++) {
+                    if ((subset & (1 << i)) != 0) {
+                        subsetCovered.addAll(caseToFiles.get(i));
+                        cost += runtimes.get(i);
+                    }
+                }
+                if (subsetCovered.equals(wrongSet)) {
+                    minimum = Math.min(minimum, cost);
+                }
+            }
+
+            for (long budget : new long[] {0, 10_000}) {
+                WeightedCover cover = ConciseSetGenerator.weightedSetCover(results,
+                        runtimes, budget);
+                Set<Integer> covered = new HashSet<>();
+                double cost = 0;
+                for (TestCase test : cover.getTestCases()) {
+                    int caseIndex = allCases.indexOf(test);
+                    covered.addAll(caseToFiles.get(caseIndex));
+                    cost += runtimes.get(caseIndex);
+                }
+                assertEquals(wrongSet, covered);
+                assertEquals(cost, cover.getTotalCost(), 1e-9);
+                if (budget > 0) {
+                    assertEquals(minimum, cost, 1e-9);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that setCover() chooses the same test cases as the plain sequential greedy
+     * algorithm on an instance large enough for gains to be computed in parallel,
+     * including ties, which must go to the first test case.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(17)
+    void testLargeInstanceMatchesSequential() {
+        Random random = new Random(17);
+        int numTests = 6000;
+        int numFiles = 700;
+        List<TestCase> allCases = generateIntegerCases(numTests);
+        List<Set<Integer>> caseToFiles = new ArrayList<>();
+        Set<Integer> wrongSet = new HashSet<>();
+        for (int i = 0; i < numTests; i++) {
+            Set<Integer> caught = new HashSet<>();
+            for (int file = 0; file < numFiles; file++) {
+                if (random.nextInt(50) == 0) {
+                    caught.add(file);
+                }
+            }
+            caseToFiles.add(caught);
+            wrongSet.addAll(caught);
+        }
+
+        // Choose the first test case catching the most new files, one at a time
+        Set<TestCase> expected = new HashSet<>();
+        Set<Integer> uncovered = new HashSet<>(wrongSet);
+        while (!uncovered.isEmpty()) {
+            int best = -1;
+            int bestCaught = 0;
+            for (int i = 0; i < numTests; i++) {
+                Set<Integer> caught = new HashSet<>(caseToFiles.get(i));
+                caught.retainAll(uncovered);
+                if (caught.size() > bestCaught) {
+                    best = i;
+                    bestCaught = caught.size();
+                }
+            }
+            expected.add(allCases.get(best));
+            uncovered.removeAll(caseToFiles.get(best));
+        }
+
+        assertEquals(expected, ConciseSetGenerator.setCover(
+                new TestResults(allCases, caseToFiles, wrongSet)));
+    }
+
     /**
      * Helper function which generates an allCases list containing integers from 0 to
      * numTests - 1, inclusive.
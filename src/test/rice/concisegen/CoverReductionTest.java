@@ -0,0 +1,175 @@
+package test.rice.concisegen;
+
+import main.rice.concisegen.ConciseSetGenerator;
+import main.rice.concisegen.CoverReduction;
+import main.rice.obj.PyIntObj;
+import main.rice.test.TestCase;
+import main.rice.test.TestResults;
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the CoverReduction class.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class CoverReductionTest {
+
+    /**
+     * Tests that full reduction collapses identical test cases, drops dominated ones,
+     * and forces in essential ones, repeating as forcing creates new dominance.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(1)
+    void testReduce() {
+        // Case 5 duplicates case 4, case 6 catches nothing, and cases 1 and 4 are
+        // subsets of cases 0 and 3, which are then the only ones catching files 0 and
+        // 4; together they catch everything, which leaves case 2 with nothing to do
+        List<Set<Integer>> caseToFiles = List.of(Set.of(0, 1, 2), Set.of(1, 2),
+                Set.of(1, 3), Set.of(3, 4), Set.of(3), Set.of(3), Set.of());
+        CoverReduction reduction = CoverReduction.reduce(caseToFiles,
+                Set.of(0, 1, 2, 3, 4));
+        assertEquals(List.of(0, 3), reduction.getEssential());
+        assertEquals(List.of(), reduction.getRemaining());
+        assertTrue(reduction.getUncovered().isEmpty());
+    }
+
+    /**
+     * Tests that full reduction leaves a choice between test cases where there is one,
+     * with only the files still to be covered in their columns.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(2)
+    void testReduceLeavesChoice() {
+        // File 0 forces case 0, but files 1-3 form a cycle in which every file is
+        // caught by two cases; case 4 is a subset of case 1
+        List<Set<Integer>> caseToFiles = List.of(Set.of(0), Set.of(1, 2),
+                Set.of(2, 3), Set.of(3, 1), Set.of(2));
+        CoverReduction reduction = CoverReduction.reduce(caseToFiles,
+                Set.of(0, 1, 2, 3));
+        assertEquals(List.of(0), reduction.getEssential());
+        assertEquals(List.of(1, 2, 3), reduction.getRemaining());
+        assertEquals(BitSet.valueOf(new long[] {0b1110}), reduction.getUncovered());
+        assertEquals(BitSet.valueOf(new long[] {0b0110}), reduction.getColumn(1));
+    }
+
+    /**
+     * Tests that reduction for the greedy algorithm only drops test cases dominated by
+     * earlier ones, and forces nothing in.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(3)
+    void testReduceForGreedy() {
+        List<Set<Integer>> caseToFiles = List.of(Set.of(0), Set.of(0, 1), Set.of(1),
+                Set.of(0, 1), Set.of(), Set.of(2));
+        CoverReduction reduction = CoverReduction.reduceForGreedy(caseToFiles,
+                Set.of(0, 1, 2));
+        assertEquals(List.of(), reduction.getEssential());
+        assertEquals(List.of(0, 1, 5), reduction.getRemaining());
+    }
+
+    /**
+     * Tests that, with costs, a test case is only dropped in favor of one that costs no
+     * more, and that the cheapest of identical test cases is kept.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(5)
+    void testReduceWithCosts() {
+        // Case 1 duplicates case 0 but is cheaper; case 2 is a subset of case 3 but
+        // cheaper, and case 4 is a subset of case 3 and no cheaper
+        List<Set<Integer>> caseToFiles = List.of(Set.of(0, 1), Set.of(0, 1), Set.of(2),
+                Set.of(2, 3), Set.of(3), Set.of(1, 3));
+        double[] costs = {2, 1, 1, 3, 3, 1};
+        CoverReduction reduction = CoverReduction.reduce(caseToFiles,
+                Set.of(0, 1, 2, 3), costs);
+        assertEquals(List.of(1), reduction.getEssential());
+        assertEquals(List.of(2, 3, 5), reduction.getRemaining());
+
+        // Without costs, case 0 is kept instead and cases 2 and 4 are dropped
+        reduction = CoverReduction.reduce(caseToFiles, Set.of(0, 1, 2, 3));
+        assertEquals(List.of(0, 3), reduction.getEssential());
+        assertEquals(List.of(), reduction.getRemaining());
+    }
+
+    /**
+     * Tests, on random instances, that the greedy algorithm chooses exactly the same test
+     * cases with reduction as without it, and that the essential test cases plus any
+     * cover of what full reduction leaves cover every file.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(4)
+    void testReductionPreservesCovers() {
+        Random random = new Random(7);
+        for (int trial = 0; trial < 200; trial++) {
+            int numFiles = 1 + random.nextInt(30);
+            int numTests = 1 + random.nextInt(60);
+            List<TestCase> allCases = new ArrayList<>();
+            List<Set<Integer>> caseToFiles = new ArrayList<>();
+            Set<Integer> wrongSet = new HashSet<>();
+            for (int i = 0; i < numTests; i++) {
+                allCases.add(new TestCase(List.of(new PyIntObj(i))));
+                Set<Integer> caught = new HashSet<>();
+                for (int file = 0; file < numFiles; file++) {
+                    if (random.nextInt(5) == 0) {
+                        caught.add(file);
+                    }
+                }
+                caseToFiles.add(caught);
+                wrongSet.addAll(caught);
+            }
+
+            Set<TestCase> expected = new HashSet<>();
+            for (int caseIndex : naiveGreedy(caseToFiles, wrongSet)) {
+                expected.add(allCases.get(caseIndex));
+            }
+            assertEquals(expected, ConciseSetGenerator.setCover(
+                    new TestResults(allCases, caseToFiles, wrongSet)));
+
+            CoverReduction reduction = CoverReduction.reduce(caseToFiles, wrongSet);
+            Set<Integer> covered = new HashSet<>();
+            for (int caseIndex : reduction.getEssential()) {
+                covered.addAll(caseToFiles.get(caseIndex));
+            }
+            for (int caseIndex : reduction.getRemaining()) {
+                covered.addAll(caseToFiles.get(caseIndex));
+            }
+            assertEquals(wrongSet, covered);
+        }
+    }
+
+    /**
+     * The greedy algorithm without any reduction: repeatedly chooses the first test case
+     * that catches the most uncovered files.
+     *
+     * @param caseToFiles the files caught by each test case
+     * @param wrongSet    the files to be covered
+     * @return the indices of the chosen test cases
+     */
+    private static Set<Integer> naiveGreedy(List<Set<Integer>> caseToFiles,
+                                            Set<Integer> wrongSet) {
+        Set<Integer> uncovered = new HashSet<>(wrongSet);
+        Set<Integer> chosen = new HashSet<>();
+        while (!uncovered.isEmpty()) {
+            int best = -1;
+            int bestCaught = 0;
+            for (int i = 0; i < caseToFiles.size(); i++) {
+                Set<Integer> caught = new HashSet<>(caseToFiles.get(i));
+                caught.retainAll(uncovered);
+                if (caught.size() > bestCaught) {
+                    best = i;
+                    bestCaught = caught.size();
+                }
+            }
+            chosen.add(best);
+            uncovered.removeAll(caseToFiles.get(best));
+        }
+        return chosen;
+    }
+}
@@ -0,0 +1,137 @@
+package test.rice.concisegen;
+
+import main.rice.concisegen.ConciseSetGenerator;
+import main.rice.concisegen.IncrementalCover;
+import main.rice.obj.PyIntObj;
+import main.rice.obj.PyStringObj;
+import main.rice.test.TestCase;
+import main.rice.test.TestResults;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the IncrementalCover class.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class IncrementalCoverTest {
+
+    /**
+     * Tests that the first batch of results is covered exactly as by setCover(), and
+     * that later batches only add test cases for the files that the existing ones don't
+     * catch.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(1)
+    void testExtendsStably() {
+        List<TestCase> tests = generateCases(4);
+        IncrementalCover cover = new IncrementalCover(tests);
+
+        // Files a and b are both caught by case 1 alone
+        TestResults first = new TestResults(tests, List.of(Set.of(0), Set.of(0, 1),
+                Set.of(), Set.of(1)), Set.of(0, 1));
+        assertEquals(List.of(tests.get(1)), cover.addResults(List.of("a.py", "b.py"),
+                first));
+        assertEquals(ConciseSetGenerator.setCover(first), cover.getCover());
+
+        // File c is caught by case 1, and file d only by cases 2 and 3; case 3 would
+        // have been the better choice overall, but case 1 stays
+        TestResults second = new TestResults(tests, List.of(Set.of(), Set.of(0),
+                Set.of(1), Set.of(0, 1)), Set.of(0, 1));
+        assertEquals(List.of(tests.get(2)), cover.addResults(List.of("c.py", "d.py"),
+                second));
+        assertEquals(Set.of(tests.get(1), tests.get(2)), cover.getCover());
+        assertEquals(List.of("a.py", "b.py", "c.py", "d.py"), cover.getFilenames());
+        assertEquals(List.of(Set.of(0), Set.of(0, 1, 2), Set.of(3), Set.of(1, 2, 3)),
+                cover.getTestResults().getCaseToFiles());
+        assertEquals(Set.of(0, 1, 2, 3), cover.getTestResults().getWrongSet());
+
+        // Correct files change nothing
+        TestResults third = new TestResults(tests, List.of(Set.of(), Set.of(), Set.of(),
+                Set.of()), Set.of());
+        assertEquals(List.of(), cover.addResults(List.of("e.py"), third));
+        assertEquals(Set.of(tests.get(1), tests.get(2)), cover.getCover());
+    }
+
+    /**
+     * Tests that results are rejected if they're for a file that was already tested or
+     * for a different number of test cases.
+     */
+    @Test
+    @Tag("0.5")
+    @Order(2)
+    void testRejectsMismatchedResults() {
+        List<TestCase> tests = generateCases(2);
+        IncrementalCover cover = new IncrementalCover(tests);
+        cover.addResults(List.of("a.py"), new TestResults(tests,
+                List.of(Set.of(0), Set.of()), Set.of(0)));
+
+        assertThrows(IllegalArgumentException.class, () -> cover.addResults(
+                List.of("a.py"), new TestResults(tests, List.of(Set.of(), Set.of()),
+                        Set.of())));
+        assertThrows(IllegalArgumentException.class, () -> cover.addResults(
+                List.of("b.py"), new TestResults(generateCases(1), List.of(Set.of()),
+                        Set.of())));
+        assertEquals(List.of("a.py"), cover.getFilenames());
+    }
+
+    /**
+     * Tests that a saved state loads back with the same test cases, files, results, and
+     * cover, and that it goes on extending the cover in the same way.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(3)
+    void testSaveAndLoad() throws IOException {
+        List<TestCase> tests = new ArrayList<>(generateCases(3));
+        tests.add(new TestCase(List.of(new PyStringObj("s"), new PyIntObj(-1))));
+        IncrementalCover cover = new IncrementalCover(tests);
+        cover.addResults(List.of("a.py", "b.py", "c.py"), new TestResults(tests,
+                List.of(Set.of(0), Set.of(1), Set.of(), Set.of(0, 2)), Set.of(0, 1, 2)));
+
+        Path path = Files.createTempFile("incremental", ".bin");
+        try {
+            cover.save(path);
+            IncrementalCover loaded = IncrementalCover.load(path);
+            assertEquals(tests, loaded.getTests());
+            assertEquals(cover.getFilenames(), loaded.getFilenames());
+            assertEquals(cover.getCover(), loaded.getCover());
+            assertEquals(cover.getTestResults().getCaseToFiles(),
+                    loaded.getTestResults().getCaseToFiles());
+            assertEquals(cover.getTestResults().getWrongSet(),
+                    loaded.getTestResults().getWrongSet());
+
+            TestResults next = new TestResults(tests, List.of(Set.of(), Set.of(), Set.of(0),
+                    Set.of()), Set.of(0));
+            assertEquals(cover.addResults(List.of("d.py"), next),
+                    loaded.addResults(List.of("d.py"), next));
+
+            // Anything else is rejected
+            Files.write(path, new byte[] {0, 0, 0, 1, 0});
+            assertThrows(IOException.class, () -> IncrementalCover.load(path));
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    /**
+     * Helper function which generates a list of test cases containing integers from 0
+     * to numTests - 1, inclusive.
+     *
+     * @param numTests the number of tests to generate
+     * @return a list of test cases, each consisting of a single integer
+     */
+    private static List<TestCase> generateCases(int numTests) {
+        List<TestCase> tests = new ArrayList<>();
+        for (int i = 0; i < numTests; i++) {
+            tests.add(new TestCase(List.of(new PyIntObj(i))));
+        }
+        return tests;
+    }
+}
@@ -0,0 +1,138 @@
+package test.rice.concisegen;
+
+import main.rice.concisegen.OnlineSetCover;
+import main.rice.obj.PyIntObj;
+import main.rice.test.TestCase;
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the OnlineSetCover class.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class OnlineSetCoverTest {
+
+    /**
+     * Tests how the cover evolves as files arrive: recomputed greedily whenever the
+     * number of incorrect files grows by half, and otherwise extended by the test case
+     * that catches the most files so far, dropping whatever that makes redundant.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(1)
+    void testCoverEvolves() {
+        List<TestCase> tests = generateIntegerCases(4);
+        OnlineSetCover cover = new OnlineSetCover(tests);
+        assertEquals(Set.of(), cover.getCover());
+
+        // Files 0-2 each grow the number of incorrect files by at least half, so the
+        // cover is recomputed greedily (which breaks the tie for file 0 in favor of
+        // case 0)
+        sendFile(cover, 0, 4, Set.of(0, 1));
+        assertEquals(cases(tests, 0), cover.getCover());
+        sendFile(cover, 1, 4, Set.of(2));
+        assertEquals(cases(tests, 0, 2), cover.getCover());
+        sendFile(cover, 2, 4, Set.of(3));
+        assertEquals(cases(tests, 0, 2, 3), cover.getCover());
+
+        // Correct files change nothing
+        sendFile(cover, 3, 4, Set.of());
+        assertEquals(cases(tests, 0, 2, 3), cover.getCover());
+
+        // File 4 is caught only by case 1, which also catches everything case 0 does
+        sendFile(cover, 4, 4, Set.of(1));
+        assertEquals(cases(tests, 1, 2, 3), cover.getCover());
+    }
+
+    /**
+     * Tests, on random instances, that after every file the cover catches every
+     * incorrect file so far.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(2)
+    void testAlwaysCovers() {
+        Random random = new Random(5);
+        for (int trial = 0; trial < 50; trial++) {
+            int numFiles = 1 + random.nextInt(60);
+            int numTests = 1 + random.nextInt(40);
+            List<TestCase> tests = generateIntegerCases(numTests);
+            OnlineSetCover cover = new OnlineSetCover(tests);
+            List<Set<Integer>> caseToFiles = new ArrayList<>();
+            for (int i = 0; i < numTests; i++) {
+                caseToFiles.add(new HashSet<>());
+            }
+
+            for (int file = 0; file < numFiles; file++) {
+                Set<Integer> caughtBy = new HashSet<>();
+                for (int i = 0; i < numTests; i++) {
+                    if (random.nextInt(6) == 0) {
+                        caughtBy.add(i);
+                        caseToFiles.get(i).add(file);
+                    }
+                }
+                sendFile(cover, file, numTests, caughtBy);
+
+                Set<Integer> covered = new HashSet<>();
+                Set<Integer> wrongSet = new HashSet<>();
+                for (int i = 0; i < numTests; i++) {
+                    wrongSet.addAll(caseToFiles.get(i));
+                    if (cover.getCover().contains(tests.get(i))) {
+                        covered.addAll(caseToFiles.get(i));
+                    }
+                }
+                assertEquals(wrongSet, covered);
+            }
+        }
+    }
+
+    /**
+     * Sends the verdicts of every test case on a file to the cover, followed by the
+     * signal that the file is done.
+     *
+     * @param cover     the cover receiving the verdicts
+     * @param fileIndex the index of the file
+     * @param numTests  the number of test cases
+     * @param caughtBy  the indices of the test cases that catch the file
+     */
+    private static void sendFile(OnlineSetCover cover, int fileIndex, int numTests,
+                                 Set<Integer> caughtBy) {
+        for (int i = 0; i < numTests; i++) {
+            cover.onVerdict(fileIndex, i, caughtBy.contains(i));
+        }
+        cover.onFileDone(fileIndex);
+    }
+
+    /**
+     * Returns the test cases with the given indices.
+     *
+     * @param tests       all of the test cases
+     * @param caseIndices the indices of the wanted test cases
+     * @return a set of the wanted test cases
+     */
+    private static Set<TestCase> cases(List<TestCase> tests, int... caseIndices) {
+        Set<TestCase> result = new HashSet<>();
+        for (int caseIndex : caseIndices) {
+            result.add(tests.get(caseIndex));
+        }
+        return result;
+    }
+
+    /**
+     * Helper function which generates a list of test cases containing integers from 0
+     * to numTests - 1, inclusive.
+     *
+     * @param numTests the number of tests to generate
+     * @return a list of test cases, each consisting of a single integer
+     */
+    private static List<TestCase> generateIntegerCases(int numTests) {
+        List<TestCase> tests = new ArrayList<>();
+        for (int i = 0; i < numTests; i++) {
+            tests.add(new TestCase(List.of(new PyIntObj(i))));
+        }
+        return tests;
+    }
+}
@@ -0,0 +1,134 @@
+package test.rice.test;
+
+import main.rice.obj.PyIntObj;
+import main.rice.test.ComparisonMode;
+import main.rice.test.FakeBackend;
+import main.rice.test.TestCase;
+import main.rice.test.Tester;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the FakeBackend class.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class FakeBackendTest {
+
+    /**
+     * Tests that the fake implementations are named so that they sort in index order.
+     */
+    @Test
+    @Tag("0.5")
+    @Order(1)
+    void testListImplementationsSorted() {
+        List<String> actual = new FakeBackend(12, 0.5, 0.5, 0).listImplementations(null);
+        assertEquals(12, actual.size());
+        List<String> sorted = new ArrayList<>(actual);
+        Collections.sort(sorted);
+        assertEquals(sorted, actual);
+    }
+
+    /**
+     * Tests that verdicts are answered from an explicit fault matrix, and that
+     * executions are counted.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(2)
+    void testExplicitMatrix() {
+        FakeBackend backend = new FakeBackend(new boolean[][]{{true, false}, {false, true}});
+        List<String> files = backend.listImplementations(null);
+        assertEquals(List.of("False", "True"),
+                backend.runImplementation(null, files.get(0), null, null, List.of(0, 1)));
+        assertEquals(List.of("False"),
+                backend.runImplementation(null, files.get(1), null, null, List.of(1)));
+        assertEquals(3, backend.getNumExecutions());
+    }
+
+    /**
+     * Tests that a generated fault matrix is deterministic given the seed, and roughly
+     * respects the given rates.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(3)
+    void testGeneratedMatrix() {
+        FakeBackend backend1 = new FakeBackend(200, 0.5, 0.2, 42);
+        FakeBackend backend2 = new FakeBackend(200, 0.5, 0.2, 42);
+        int wrongFiles = 0;
+        int faults = 0;
+        for (int file = 0; file < 200; file++) {
+            boolean wrong = false;
+            for (int test = 0; test < 100; test++) {
+                assertEquals(backend1.isFault(file, test), backend2.isFault(file, test));
+                if (backend1.isFault(file, test)) {
+                    wrong = true;
+                    faults++;
+                }
+            }
+            if (wrong) {
+                wrongFiles++;
+            }
+        }
+
+        // About half of the files are wrong, each failing about a fifth of the tests
+        assertTrue(wrongFiles > 70 && wrongFiles < 130);
+        assertTrue(faults > 1400 && faults < 2600);
+    }
+
+    /**
+     * Tests that the (fake) solution results are the test indices.
+     */
+    @Test
+    @Tag("0.5")
+    @Order(4)
+    void testRunSolution() {
+        assertEquals(List.of("2", "0"),
+                new FakeBackend(1, 0, 0, 0).runSolution(null, null, List.of(2, 0)));
+    }
+
+    /**
+     * Tests that, outside of the IN_PYTHON comparison mode, passing test cases are
+     * answered with the solution's result and failing ones with a different value, so
+     * that a Tester in that mode catches exactly the faults; the Tester passes its mode
+     * on to the backend, including when it captures failures in the CANONICAL mode.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(5)
+    void testComparisonModes() throws IOException, InterruptedException {
+        boolean[][] faults = new boolean[][]{{true, false, false}, {false, false, true}};
+        FakeBackend backend = new FakeBackend(faults);
+        backend.onWrapperWritten(ComparisonMode.CANONICAL);
+        List<String> files = backend.listImplementations(null);
+        assertEquals(List.of("-1", "1", "2"),
+                backend.runImplementation(null, files.get(0), null, null,
+                        List.of(0, 1, 2)));
+
+        String userDir = System.getProperty("user.dir");
+        List<TestCase> tests = new ArrayList<>();
+        for (int i = 0; i < faults[0].length; i++) {
+            tests.add(new TestCase(List.of(new PyIntObj(i))));
+        }
+        for (ComparisonMode mode : List.of(ComparisonMode.CANONICAL,
+                ComparisonMode.DIGEST)) {
+            Tester tester = new Tester("func0", userDir
+                    + "/src/test/rice/test/pyfiles/sols/func0sol.py", userDir
+                    + "/src/test/rice/test/pyfiles/f0oneRight", tests);
+            tester.setBackend(new FakeBackend(faults));
+            tester.setComparisonMode(mode);
+            tester.setCaptureFailures(true);
+            tester.computeExpectedResults();
+            assertEquals(List.of(Set.of(0), Set.of(), Set.of(1)),
+                    tester.runTests().getCaseToFiles());
+            if (mode == ComparisonMode.DIGEST) {
+                assertEquals(Map.of(0, "-1"),
+                        tester.getCapturedActual().get(files.get(0)));
+            }
+        }
+    }
+}
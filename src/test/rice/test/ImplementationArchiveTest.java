@@ -0,0 +1,168 @@
+package test.rice.test;
+
+import main.rice.test.ImplementationArchive;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the ImplementationArchive class.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ImplementationArchiveTest {
+
+    /**
+     * The path to the directory containing the test archives, each of which holds the
+     * implementations in f3multipleMixed (in reverse order) plus a wrapper.py, a file in
+     * a subdirectory, and some non-Python files.
+     */
+    private static final String archiveDir = System.getProperty("user.dir")
+            + "/src/test/rice/test/pyfiles/archives/";
+
+    /**
+     * The path to the directory the test archives were made from.
+     */
+    private static final String implDir = System.getProperty("user.dir")
+            + "/src/test/rice/test/pyfiles/f3multipleMixed/";
+
+    /**
+     * Tests that only paths to archives are recognized as such.
+     */
+    @Test
+    @Tag("0.5")
+    @Order(1)
+    void testIsArchive() {
+        assertTrue(ImplementationArchive.isArchive(archiveDir + "f3multipleMixed.zip"));
+        assertTrue(ImplementationArchive.isArchive(archiveDir + "f3multipleMixed.tar"));
+        assertTrue(ImplementationArchive.isArchive(archiveDir + "f3multipleMixed.tar.gz"));
+        assertFalse(ImplementationArchive.isArchive(implDir));
+        assertFalse(ImplementationArchive.isArchive(archiveDir + "missing.zip"));
+        assertFalse(ImplementationArchive.isArchive(null));
+    }
+
+    /**
+     * Tests that the implementations in a zip archive are filtered and sorted as they
+     * would be in a directory.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(2)
+    void testListZip() throws IOException {
+        assertEquals(List.of("impl0.py", "impl1.py", "impl2.py"), new ImplementationArchive(
+                archiveDir + "f3multipleMixed.zip").listImplementations());
+    }
+
+    /**
+     * Tests that the implementations in a tar archive (with "./" prefixes and a pax long
+     * name) are filtered and sorted as they would be in a directory.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(3)
+    void testListTar() throws IOException {
+        assertEquals(List.of("impl0.py", "impl1.py", "impl2.py"), new ImplementationArchive(
+                archiveDir + "f3multipleMixed.tar").listImplementations());
+    }
+
+    /**
+     * Tests that the implementations in a gzipped tar archive are filtered and sorted as
+     * they would be in a directory.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(4)
+    void testListTarGz() throws IOException {
+        assertEquals(List.of("impl0.py", "impl1.py", "impl2.py"), new ImplementationArchive(
+                archiveDir + "f3multipleMixed.tar.gz").listImplementations());
+    }
+
+    /**
+     * Tests that the contents of each implementation are read from every kind of archive
+     * exactly as they are on disk.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(5)
+    void testRead() throws IOException {
+        for (String archive : List.of("f3multipleMixed.zip", "f3multipleMixed.tar",
+                "f3multipleMixed.tar.gz")) {
+            ImplementationArchive implementations = new ImplementationArchive(
+                    archiveDir + archive);
+            for (String filename : List.of("impl0.py", "impl1.py", "impl2.py")) {
+                assertArrayEquals(Files.readAllBytes(Paths.get(implDir + filename)),
+                        implementations.read(filename));
+            }
+        }
+    }
+
+    /**
+     * Tests that reading an implementation that is not at the top level of the archive
+     * fails.
+     */
+    @Test
+    @Tag("0.5")
+    @Order(6)
+    void testReadMissing() {
+        ImplementationArchive implementations = new ImplementationArchive(
+                archiveDir + "f3multipleMixed.tar");
+        assertThrows(IOException.class, () -> implementations.read("impl9.py"));
+        assertThrows(IOException.class, () -> implementations.read("nested/impl9.py"));
+        assertThrows(IOException.class,
+                () -> implementations.readAll(List.of("impl0.py", "impl9.py")));
+    }
+
+    /**
+     * Tests that several implementations are read from every kind of archive at once,
+     * in the order requested.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(7)
+    void testReadAll() throws IOException {
+        List<String> filenames = List.of("impl2.py", "impl0.py", "impl1.py");
+        for (String archive : List.of("f3multipleMixed.zip", "f3multipleMixed.tar",
+                "f3multipleMixed.tar.gz")) {
+            List<byte[]> contents = new ImplementationArchive(archiveDir + archive)
+                    .readAll(filenames);
+            assertEquals(filenames.size(), contents.size());
+            for (int i = 0; i < filenames.size(); i++) {
+                assertArrayEquals(Files.readAllBytes(Paths.get(implDir
+                        + filenames.get(i))), contents.get(i));
+            }
+        }
+    }
+
+    /**
+     * Tests that the files located in a tar archive can be read straight from the
+     * located offsets of its (decompressed) contents.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(8)
+    void testLocateTarMembers() throws IOException {
+        for (String archive : List.of("f3multipleMixed.tar", "f3multipleMixed.tar.gz")) {
+            ImplementationArchive implementations = new ImplementationArchive(
+                    archiveDir + archive);
+            Map<String, long[]> members = implementations.locateTarMembers();
+            byte[] tar = Files.readAllBytes(Paths.get(archiveDir + archive));
+            if (implementations.isGzipped()) {
+                tar = new GZIPInputStream(new ByteArrayInputStream(tar)).readAllBytes();
+            }
+            for (String filename : List.of("impl0.py", "impl1.py", "impl2.py")) {
+                long[] member = members.get(filename);
+                assertArrayEquals(Files.readAllBytes(Paths.get(implDir + filename)),
+                        Arrays.copyOfRange(tar, (int) member[0],
+                                (int) (member[0] + member[1])));
+            }
+        }
+        assertThrows(IllegalStateException.class, () -> new ImplementationArchive(
+                archiveDir + "f3multipleMixed.zip").locateTarMembers());
+    }
+}
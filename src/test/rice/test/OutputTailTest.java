@@ -0,0 +1,90 @@
+package test.rice.test;
+
+import main.rice.test.OutputTail;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the OutputTail class.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class OutputTailTest {
+
+    /**
+     * Tests that output within the capacity is kept in full.
+     */
+    @Test
+    @Tag("0.5")
+    @Order(1)
+    void testWithinCapacity() {
+        OutputTail tail = new OutputTail(16);
+        write(tail, "hello ");
+        write(tail, "world");
+        assertEquals("hello world", tail.toString());
+        assertEquals(11, tail.getTotalBytes());
+        assertFalse(tail.isTruncated());
+    }
+
+    /**
+     * Tests that only the most recent bytes are kept once the capacity is exceeded, by
+     * many small writes and by a single large one.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(2)
+    void testWrapsAround() {
+        OutputTail tail = new OutputTail(8);
+        for (int i = 0; i < 10; i++) {
+            write(tail, "ab" + i);
+        }
+        assertEquals("b7ab8ab9", tail.toString());
+        assertEquals(30, tail.getTotalBytes());
+        assertTrue(tail.isTruncated());
+
+        write(tail, "0123456789abcdef");
+        assertEquals("89abcdef", tail.toString());
+    }
+
+    /**
+     * Tests that draining a stream keeps its tail.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(3)
+    void testDrain() throws IOException {
+        OutputTail tail = new OutputTail(4);
+        tail.drain(new ByteArrayInputStream("x".repeat(100000).concat("done")
+                .getBytes(StandardCharsets.UTF_8)));
+        assertEquals("done", tail.toString());
+        assertEquals(100004, tail.getTotalBytes());
+    }
+
+    /**
+     * Tests that a zero-capacity tail keeps nothing, but still counts bytes.
+     */
+    @Test
+    @Tag("0.5")
+    @Order(4)
+    void testZeroCapacity() {
+        OutputTail tail = new OutputTail(0);
+        write(tail, "anything");
+        assertEquals("", tail.toString());
+        assertEquals(8, tail.getTotalBytes());
+    }
+
+    /**
+     * Writes the given string, encoded as UTF-8, to the given tail.
+     *
+     * @param tail   the tail to be written to
+     * @param string the string to be written
+     */
+    private static void write(OutputTail tail, String string) {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        tail.write(bytes, 0, bytes.length);
+    }
+}
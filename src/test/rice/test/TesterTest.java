@@ -1,15 +1,32 @@
 package test.rice.test;
 
 import main.rice.obj.*;
+import main.rice.test.ComparisonMode;
+import main.rice.test.Deduplication;
+import main.rice.test.ExecutionBackend;
+import main.rice.test.FakeBackend;
+import main.rice.test.ForkServerBackend;
+import main.rice.test.Outcome;
+import main.rice.test.OutputTail;
+import main.rice.test.ResourceLimits;
+import main.rice.test.ScreeningReport;
+import main.rice.test.SubprocessBackend;
 import main.rice.test.TestCase;
 import main.rice.test.TestResults;
 import main.rice.test.Tester;
+import main.rice.test.VerdictListener;
 import org.junit.jupiter.api.*;
 
 import java.io.*;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -910,6 +927,921 @@ class TesterTest {
                 f3resultStr, Set.of(0, 1, 2), expected, 1);
     }
 
+    /**
+     * Tests computeExpectedResults() on an argument that is too large to be passed on
+     * the command line.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(46)
+    void testGetExpectedResultsLargeArg() {
+        List<PyIntObj> elems = new ArrayList<>();
+        for (int i = 0; i < 100000; i++) {
+            elems.add(new PyIntObj(i));
+        }
+        PyListObj<PyIntObj> bigList = new PyListObj<>(elems);
+        expectedHelper("func0", List.of(new TestCase(List.of(bigList))), "func0sol.py",
+                List.of(bigList.toString()));
+    }
+
+    /**
+     * Tests running a single passing test whose argument is too large to be passed on
+     * the command line; checks caseToFiles.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(47)
+    void testRunTestsLargeArg() {
+        List<PyIntObj> elems = new ArrayList<>();
+        for (int i = 0; i < 100000; i++) {
+            elems.add(new PyIntObj(i));
+        }
+        PyListObj<PyIntObj> bigList = new PyListObj<>(elems);
+        runTestsHelper("func0", List.of(new TestCase(List.of(bigList))), "f0oneRight",
+                "results = [" + bigList + "]", Set.of(), List.of(Set.of()), 1);
+    }
+
+    /**
+     * Tests running a mix of passing and failing tests on multiple implementations
+     * through a fork server; checks that the results match those of running each test
+     * in a fresh process.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(48)
+    void testRunTestsForkServerMatchesSeparate() {
+        String implDirPath = userDir + "/src/test/rice/test/pyfiles/f3multipleMixed";
+        try {
+            FileWriter writer = new FileWriter(implDirPath + "/expected.py");
+            writer.write(f3resultStr);
+            writer.close();
+
+            TestResults separate = new Tester("func3", null, implDirPath, f3Tests)
+                    .runTests();
+            Tester forkTester = new Tester("func3", null, implDirPath, f3Tests);
+            forkTester.setBackend(new ForkServerBackend());
+            TestResults forked = forkTester.runTests();
+
+            assertEquals(separate.getCaseToFiles(), forked.getCaseToFiles());
+            assertEquals(separate.getWrongSet(), forked.getWrongSet());
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        } finally {
+            deletedExpected("f3multipleMixed");
+        }
+    }
+
+    /**
+     * Tests that malformed implementations fail every test when run through a fork
+     * server; checks caseToFiles.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(49)
+    void testRunTestsForkServerMalformed() {
+        List<Set<Integer>> expected = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            expected.add(Set.of(0, 1, 2));
+        }
+        runTestsHelper("func3", f3Tests, "f3malformed", f3resultStr, Set.of(0, 1, 2),
+                expected, 1, tester -> tester.setBackend(new ForkServerBackend()));
+    }
+
+    /**
+     * Tests that printing does not interfere with the verdicts reported by a fork
+     * server; checks caseToFiles.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(50)
+    void testRunTestsForkServerPrints() {
+        runTestsHelper("func0", f0Tests, "f0onePrints", "results = [0, 1, 2, 3, 4]",
+                Set.of(), List.of(Set.of(), Set.of(), Set.of(), Set.of(), Set.of()), 1,
+                tester -> tester.setBackend(new ForkServerBackend()));
+    }
+
+    /**
+     * Tests that the test cases run through a fork server are isolated from one another,
+     * even though the implementation mutates a global variable; checks wrongSet.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(51)
+    void testRunTestsForkServerIsolated() {
+        runTestsHelper("func0", f0Tests, "f0mutatesGlobal", "results = [0, 1, 2, 3, 4]",
+                Set.of(), List.of(Set.of(), Set.of(), Set.of(), Set.of(), Set.of()), 0,
+                tester -> tester.setBackend(new ForkServerBackend()));
+    }
+
+    /**
+     * Tests running tests through a fake backend, which answers verdicts from a fault
+     * matrix without running any Python; checks caseToFiles.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(52)
+    void testRunTestsFakeBackend() {
+        boolean[][] faults = new boolean[][]{
+                {false, false, false, false, false},
+                {true, false, true, false, false},
+                {false, false, false, false, true}};
+        runTestsHelper("func0", f0Tests, "f0oneRight", "results = [0, 1, 2, 3, 4]",
+                Set.of(1, 2), List.of(Set.of(1), Set.of(), Set.of(1), Set.of(), Set.of(2)),
+                1, tester -> tester.setBackend(new FakeBackend(faults)));
+    }
+
+    /**
+     * Tests that runTests() does not leave a __pycache__ in the implementation directory,
+     * and that rewriting the expected results between runs can never result in the stale
+     * expected results being used.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(53)
+    void testRunTestsNoStalePyCache() {
+        String implDirPath = userDir + "/src/test/rice/test/pyfiles/f0oneRight";
+        Tester tester = new Tester("func0", null, implDirPath, f0Tests);
+        try {
+            // Passes every test against the correct expected results...
+            FileWriter writer = new FileWriter(implDirPath + "/expected.py");
+            writer.write("results = [0, 1, 2, 3, 4]");
+            writer.close();
+            assertEquals(Set.of(), tester.runTests().getWrongSet());
+            assertFalse(new File(implDirPath + "/__pycache__").exists());
+
+            // ...and fails every test once they're (immediately) rewritten to be wrong,
+            // even though the size of the file doesn't change
+            writer = new FileWriter(implDirPath + "/expected.py");
+            writer.write("results = [5, 6, 7, 8, 9]");
+            writer.close();
+            assertEquals(List.of(Set.of(0), Set.of(0), Set.of(0), Set.of(0), Set.of(0)),
+                    tester.runTests().getCaseToFiles());
+            assertFalse(new File(implDirPath + "/__pycache__").exists());
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        } finally {
+            deletedExpected("f0oneRight");
+        }
+    }
+
+    /**
+     * Tests that comparing canonical reprs in Java gives the same results as comparing
+     * within Python, through both backends, and that expected.py is never written.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(54)
+    void testRunTestsCanonicalMatchesInPython() {
+        String implDirPath = userDir + "/src/test/rice/test/pyfiles/f3multipleMixed";
+        String solPath = userDir + "/src/test/rice/test/pyfiles/sols/func3sol.py";
+        try {
+            FileWriter writer = new FileWriter(implDirPath + "/expected.py");
+            writer.write(f3resultStr);
+            writer.close();
+            TestResults inPython = new Tester("func3", null, implDirPath, f3Tests)
+                    .runTests();
+            deletedExpected("f3multipleMixed");
+
+            writeSolContents(3);
+            for (ExecutionBackend backend : List.of(new SubprocessBackend(),
+                    new ForkServerBackend())) {
+                Tester tester = new Tester("func3", solPath, implDirPath, f3Tests);
+                tester.setComparisonMode(ComparisonMode.CANONICAL);
+                tester.setBackend(backend);
+                tester.computeExpectedResults();
+                TestResults canonical = tester.runTests();
+
+                assertFalse(new File(implDirPath + "/expected.py").exists());
+                assertEquals(inPython.getCaseToFiles(), canonical.getCaseToFiles());
+                assertEquals(inPython.getWrongSet(), canonical.getWrongSet());
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        } finally {
+            deletedExpected("f3multipleMixed");
+        }
+    }
+
+    /**
+     * Tests that canonical comparison ignores the order in which dicts and sets were
+     * built, and integral floats, but not differing contents; checks caseToFiles.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(55)
+    void testRunTestsCanonicalUnordered() {
+        List<String> expectedResults = new ArrayList<>();
+        for (int i = 0; i < f0Tests.size(); i++) {
+            expectedResults.add("{" + i + ": (" + i + ",), " + (i + 1) + ": {1, 2}}");
+        }
+        runTestsHelper("func0", f0Tests, "f0canonical", "", Set.of(2),
+                List.of(Set.of(2), Set.of(2), Set.of(2), Set.of(2), Set.of(2)), 1,
+                tester -> {
+                    tester.setComparisonMode(ComparisonMode.CANONICAL);
+                    tester.setExpectedResults(expectedResults);
+                });
+    }
+
+    /**
+     * Tests that running tests with canonical comparison requires the expected results
+     * to have been computed (or set) first.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(56)
+    void testRunTestsCanonicalWithoutExpected() {
+        Tester tester = new Tester("func0", null,
+                userDir + "/src/test/rice/test/pyfiles/f0oneRight", f0Tests);
+        tester.setComparisonMode(ComparisonMode.CANONICAL);
+        assertThrows(IllegalStateException.class, tester::runTests);
+    }
+
+    /**
+     * Tests that comparing digests in Java gives the same results as comparing within
+     * Python, through both backends, and that only digests are held as the expected
+     * results.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(57)
+    void testRunTestsDigestMatchesInPython() {
+        String implDirPath = userDir + "/src/test/rice/test/pyfiles/f3multipleMixed";
+        String solPath = userDir + "/src/test/rice/test/pyfiles/sols/func3sol.py";
+        try {
+            FileWriter writer = new FileWriter(implDirPath + "/expected.py");
+            writer.write(f3resultStr);
+            writer.close();
+            TestResults inPython = new Tester("func3", null, implDirPath, f3Tests)
+                    .runTests();
+            deletedExpected("f3multipleMixed");
+
+            writeSolContents(3);
+            for (ExecutionBackend backend : List.of(new SubprocessBackend(),
+                    new ForkServerBackend())) {
+                Tester tester = new Tester("func3", solPath, implDirPath, f3Tests);
+                tester.setComparisonMode(ComparisonMode.DIGEST);
+                tester.setBackend(backend);
+                for (String digest : tester.computeExpectedResults()) {
+                    assertTrue(digest.matches("[0-9a-f]{32}"));
+                }
+                TestResults digests = tester.runTests();
+
+                assertFalse(new File(implDirPath + "/expected.py").exists());
+                assertEquals(inPython.getCaseToFiles(), digests.getCaseToFiles());
+                assertEquals(inPython.getWrongSet(), digests.getWrongSet());
+                assertTrue(tester.getCapturedActual().isEmpty());
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        } finally {
+            deletedExpected("f3multipleMixed");
+        }
+    }
+
+    /**
+     * Tests that the full values of exactly the failing test cases are captured in the
+     * digest mode when requested, for both the implementations and the solution.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(58)
+    void testRunTestsDigestCaptureFailures() {
+        String implDirPath = userDir + "/src/test/rice/test/pyfiles/f3multipleMixed";
+        String solPath = userDir + "/src/test/rice/test/pyfiles/sols/func3sol.py";
+        try {
+            writeSolContents(3);
+            Tester canonicalTester = new Tester("func3", solPath, implDirPath, f3Tests);
+            canonicalTester.setComparisonMode(ComparisonMode.CANONICAL);
+            List<String> canonicalResults = canonicalTester.computeExpectedResults();
+
+            Tester tester = new Tester("func3", solPath, implDirPath, f3Tests);
+            SubprocessBackend backend = new SubprocessBackend();
+            tester.setBackend(backend);
+            tester.setComparisonMode(ComparisonMode.DIGEST);
+            tester.setCaptureFailures(true);
+            tester.computeExpectedResults();
+            TestResults results = tester.runTests();
+
+            // expected.py is never written in this mode, so it isn't compiled either
+            assertEquals(Map.of(), backend.getCompileErrors());
+
+            List<String> filenames = new SubprocessBackend().listImplementations(
+                    implDirPath);
+            Set<Integer> failingTests = new HashSet<>();
+            Set<Integer> failingFiles = new HashSet<>();
+            for (Map.Entry<String, Map<Integer, String>> entry :
+                    tester.getCapturedActual().entrySet()) {
+                int fileIndex = filenames.indexOf(entry.getKey());
+                failingFiles.add(fileIndex);
+                for (Map.Entry<Integer, String> capture : entry.getValue().entrySet()) {
+                    int testIndex = capture.getKey();
+                    assertTrue(results.getCaseToFiles().get(testIndex).contains(fileIndex));
+                    assertNotEquals(canonicalResults.get(testIndex), capture.getValue());
+                    failingTests.add(testIndex);
+                }
+            }
+            assertFalse(failingFiles.isEmpty());
+            assertEquals(results.getWrongSet(), failingFiles);
+
+            assertEquals(failingTests, tester.getCapturedExpected().keySet());
+            for (Map.Entry<Integer, String> capture :
+                    tester.getCapturedExpected().entrySet()) {
+                assertEquals(canonicalResults.get(capture.getKey()), capture.getValue());
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        }
+    }
+
+    /**
+     * Tests that implementations which cannot be loaded fail every test without any
+     * tests being run on them, and that the reasons are recorded (as well as the error
+     * raised when byte-compiling the one with a syntax error).
+     */
+    @Test
+    @Tag("1.0")
+    @Order(59)
+    void testRunTestsPreflight() {
+        String implDir = "f0importErrors";
+        String implDirPath = userDir + "/src/test/rice/test/pyfiles/" + implDir;
+        List<String> tested = new ArrayList<>();
+        Tester tester = new Tester("func0", null, implDirPath, f0Tests);
+        SubprocessBackend backend = new SubprocessBackend() {
+            @Override
+            public List<String> runImplementation(String implDirPath, String filename,
+                                                  String funcName, String argFilePath,
+                                                  List<Integer> testIndices)
+                    throws IOException, InterruptedException {
+                tested.add(filename);
+                return super.runImplementation(implDirPath, filename, funcName,
+                        argFilePath, testIndices);
+            }
+        };
+        tester.setBackend(backend);
+        try {
+            FileWriter writer = new FileWriter(implDirPath + "/expected.py");
+            writer.write("results = [0, 1, 2, 3, 4]");
+            writer.close();
+            TestResults results = tester.runTests();
+
+            // Only the implementation with a syntax error fails to compile
+            Map<String, String> compileErrors = backend.getCompileErrors();
+            assertEquals(1, compileErrors.size());
+            String path = compileErrors.keySet().iterator().next();
+            assertTrue(path.endsWith("/impl0.py"), path);
+            assertTrue(compileErrors.get(path).contains("SyntaxError"));
+
+            assertEquals(List.of("impl2.py"), tested);
+            assertEquals(Set.of(0, 1, 3), results.getWrongSet());
+            for (Set<Integer> caught : results.getCaseToFiles()) {
+                assertEquals(Set.of(0, 1, 3), caught);
+            }
+            Map<Integer, String> reasons = results.getImportFailures();
+            assertEquals(Set.of(0, 1, 3), reasons.keySet());
+            assertTrue(reasons.get(0).contains("SyntaxError"));
+            assertTrue(reasons.get(1).contains("not callable"));
+            assertTrue(reasons.get(3).contains("exited with status 3"));
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        } finally {
+            deletedExpected(implDir);
+        }
+    }
+
+    /**
+     * Tests that implementations which do not define the function under test are
+     * rejected by the preflight check, through a fork server as well.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(60)
+    void testRunTestsPreflightUndefined() {
+        String implDirPath = userDir + "/src/test/rice/test/pyfiles/f3malformed";
+        Tester tester = new Tester("func3", null, implDirPath, f3Tests);
+        tester.setBackend(new ForkServerBackend());
+        try {
+            FileWriter writer = new FileWriter(implDirPath + "/expected.py");
+            writer.write(f3resultStr);
+            writer.close();
+            TestResults results = tester.runTests();
+
+            assertEquals(Set.of(0, 1, 2), results.getWrongSet());
+            assertEquals(Map.of(0, "'func3' is not defined", 1, "'func3' is not defined"),
+                    results.getImportFailures());
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        } finally {
+            deletedExpected("f3malformed");
+        }
+    }
+
+    /**
+     * Tests that deduplicating identical implementations only tests one of each, but
+     * gives the same results as testing every one of them.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(61)
+    void testRunTestsDeduplicateIdentical() {
+        assertEquals(List.of("impl0.py", "impl1.py", "impl3.py"),
+                runDeduplicatedHelper(Deduplication.IDENTICAL));
+    }
+
+    /**
+     * Tests that deduplicating implementations that differ only in comments and
+     * whitespace only tests one of each, but gives the same results as testing every one
+     * of them.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(62)
+    void testRunTestsDeduplicateNormalized() {
+        assertEquals(List.of("impl0.py", "impl1.py"),
+                runDeduplicatedHelper(Deduplication.NORMALIZED));
+    }
+
+    /**
+     * Tests that isolated runs give the same results as ordinary ones, without modifying
+     * the solution or writing anything to the implementation directory.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(63)
+    void testIsolatedLeavesFilesUntouched() {
+        String implDirPath = userDir + "/src/test/rice/test/pyfiles/f3multipleMixed";
+        String solPath = userDir + "/src/test/rice/test/pyfiles/sols/func3sol.py";
+        try {
+            FileWriter writer = new FileWriter(implDirPath + "/expected.py");
+            writer.write(f3resultStr);
+            writer.close();
+            TestResults ordinary = new Tester("func3", null, implDirPath, f3Tests)
+                    .runTests();
+            deletedExpected("f3multipleMixed");
+
+            writeSolContents(3);
+            String solContents = Files.readString(Paths.get(solPath));
+            Set<String> implDirContents = Set.of(Objects.requireNonNull(
+                    new File(implDirPath).list()));
+            Set<String> solDirContents = Set.of(Objects.requireNonNull(
+                    new File(solPath).getParentFile().list()));
+
+            for (ComparisonMode mode : ComparisonMode.values()) {
+                Tester tester = new Tester("func3", solPath, implDirPath, f3Tests);
+                tester.setIsolated(true);
+                tester.setComparisonMode(mode);
+                tester.computeExpectedResults();
+                TestResults isolated = tester.runTests();
+
+                assertEquals(ordinary.getCaseToFiles(), isolated.getCaseToFiles());
+                assertEquals(ordinary.getWrongSet(), isolated.getWrongSet());
+                assertEquals(solContents, Files.readString(Paths.get(solPath)));
+                assertEquals(implDirContents, Set.of(Objects.requireNonNull(
+                        new File(implDirPath).list())));
+                assertEquals(solDirContents, Set.of(Objects.requireNonNull(
+                        new File(solPath).getParentFile().list())));
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        } finally {
+            deletedExpected("f3multipleMixed");
+        }
+    }
+
+    /**
+     * Tests that concurrent isolated runs on the same implementation directory, against
+     * different expected results, do not interfere with one another.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(64)
+    void testIsolatedConcurrentRuns() {
+        String implDirPath = userDir + "/src/test/rice/test/pyfiles/f0oneRight";
+        List<Callable<TestResults>> runs = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            int offset = (i % 2) * 5;
+            runs.add(() -> {
+                Tester tester = new Tester("func0", null, implDirPath, f0Tests);
+                tester.setIsolated(true);
+                tester.setExpectedResults(List.of(String.valueOf(offset),
+                        String.valueOf(offset + 1), String.valueOf(offset + 2),
+                        String.valueOf(offset + 3), String.valueOf(offset + 4)));
+                return tester.runTests();
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(runs.size());
+        try {
+            Set<String> implDirContents = Set.of(Objects.requireNonNull(
+                    new File(implDirPath).list()));
+            List<Future<TestResults>> futures = executor.invokeAll(runs);
+            for (int i = 0; i < futures.size(); i++) {
+                Set<Integer> expected = i % 2 == 0 ? Set.of() : Set.of(0);
+                assertEquals(expected, futures.get(i).get().getWrongSet());
+            }
+            assertEquals(implDirContents, Set.of(Objects.requireNonNull(
+                    new File(implDirPath).list())));
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Tests that isolated runs require the expected results to have been computed (or
+     * set), since they never read an expected.py left behind by another run.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(65)
+    void testIsolatedWithoutExpected() {
+        Tester tester = new Tester("func0", null,
+                userDir + "/src/test/rice/test/pyfiles/f0oneRight", f0Tests);
+        tester.setIsolated(true);
+        assertThrows(IllegalStateException.class, tester::runTests);
+    }
+
+    /**
+     * Tests that testing the implementations in an archive, through both backends and
+     * with deduplication, gives the same results as testing the directory it was made
+     * from, without extracting it or writing anything next to it.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(66)
+    void testRunTestsFromArchive() {
+        String pyfiles = userDir + "/src/test/rice/test/pyfiles/";
+        String solPath = pyfiles + "sols/func3sol.py";
+        try {
+            writeSolContents(3);
+            Tester dirTester = new Tester("func3", solPath, pyfiles + "f3multipleMixed",
+                    f3Tests);
+            SubprocessBackend dirBackend = new SubprocessBackend();
+            dirTester.setBackend(dirBackend);
+            dirTester.setIsolated(true);
+            dirTester.computeExpectedResults();
+            TestResults fromDir = dirTester.runTests();
+            assertEquals(Map.of(), dirBackend.getCompileErrors());
+            Set<String> archiveDirContents = Set.of(Objects.requireNonNull(
+                    new File(pyfiles + "archives").list()));
+
+            for (String archive : List.of("f3multipleMixed.zip", "f3multipleMixed.tar",
+                    "f3multipleMixed.tar.gz")) {
+                for (ExecutionBackend backend : List.of(new SubprocessBackend(),
+                        new ForkServerBackend())) {
+                    Tester tester = new Tester("func3", solPath,
+                            pyfiles + "archives/" + archive, f3Tests);
+                    tester.setBackend(backend);
+                    tester.setDeduplication(Deduplication.NORMALIZED);
+                    tester.computeExpectedResults();
+                    TestResults fromArchive = tester.runTests();
+
+                    assertEquals(fromDir.getCaseToFiles(), fromArchive.getCaseToFiles());
+                    assertEquals(fromDir.getWrongSet(), fromArchive.getWrongSet());
+                    assertEquals(archiveDirContents, Set.of(Objects.requireNonNull(
+                            new File(pyfiles + "archives").list())));
+
+                    // The archive's members aren't on disk, so none is compiled
+                    if (backend instanceof SubprocessBackend subprocess) {
+                        assertEquals(Map.of(), subprocess.getCompileErrors());
+                    }
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        }
+    }
+
+    /**
+     * Tests that implementations which flood stdout and stderr neither block the run nor
+     * affect the verdicts, which are reported on a channel of their own; checks
+     * caseToFiles.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(67)
+    void testRunTestsFloodedOutput() {
+        assertTimeoutPreemptively(java.time.Duration.ofSeconds(120), () ->
+                runTestsHelper("func0", f0Tests, "f0floods", "results = [0, 1, 2, 3, 4]",
+                        Set.of(1), List.of(Set.of(1), Set.of(1), Set.of(1), Set.of(1),
+                                Set.of(1)), 1));
+    }
+
+    /**
+     * Tests that the expected results are unaffected by a solution that prints heavily,
+     * and that the printed output is kept (up to a cap) on stderr.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(68)
+    void testGetExpectedResultsFloodedOutput() {
+        try {
+            Path solution = Files.createTempFile("floodsol", ".py");
+            Files.writeString(solution, """
+                    from sys import stderr
+
+                    def func0(intval):
+                        for i in range(20000):
+                            print("flooding stdout", i)
+                            print("flooding stderr", i, file=stderr)
+                        print(intval + 1, end="")
+                        return intval * 2
+                    """);
+            SubprocessBackend backend = new SubprocessBackend();
+            Tester tester = new Tester("func0", solution.toString(), userDir +
+                    "/src/test/rice/test/pyfiles/f0oneRight", f0Tests);
+            tester.setBackend(backend);
+            try {
+                assertEquals(List.of("0", "2", "4", "6", "8"),
+                        tester.computeExpectedResults());
+                OutputTail stderr = backend.getLastStderr();
+                assertTrue(stderr.isTruncated());
+                assertTrue(stderr.toString().contains("flooding stdout"));
+                assertTrue(stderr.toString().endsWith("5"));
+            } finally {
+                Files.delete(solution);
+                deletedExpected("f0oneRight");
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        }
+    }
+
+    /**
+     * Tests that test cases exceeding their CPU time, memory, or output limits (whether
+     * printed or written to a file) fail, and that the limit each one exceeded is
+     * recorded, when each test case runs in its own process.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(69)
+    void testRunTestsResourceLimits() {
+        limitsHelper(new SubprocessBackend());
+    }
+
+    /**
+     * Tests that resource limits are applied to, and classified for, each child of a fork
+     * server.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(70)
+    void testRunTestsResourceLimitsForkServer() {
+        limitsHelper(new ForkServerBackend());
+    }
+
+    /**
+     * Tests that adaptive re-execution only repeats the test cases of an implementation
+     * whose sampled results vary, and records how often it failed each one.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(71)
+    void testRunTestsAdaptiveReruns() {
+        Path counter = Path.of(userDir, "src/test/rice/test/pyfiles/f0flaky/flaky.count");
+        List<Integer> numRuns = Collections.synchronizedList(new ArrayList<>());
+        SubprocessBackend backend = new SubprocessBackend() {
+            @Override
+            public List<String> runImplementation(String implDirPath, String filename,
+                                                  String funcName, String argFilePath,
+                                                  List<Integer> testIndices)
+                    throws IOException, InterruptedException {
+                numRuns.add(testIndices.size());
+                return super.runImplementation(implDirPath, filename, funcName,
+                        argFilePath, testIndices);
+            }
+        };
+        Tester tester = new Tester("func0", null, userDir +
+                "/src/test/rice/test/pyfiles/f0flaky", f0Tests);
+        tester.setBackend(backend);
+        tester.setComparisonMode(ComparisonMode.CANONICAL);
+        tester.setExpectedResults(List.of("0", "1", "2", "3", "4"));
+        tester.setAdaptiveReruns(5, 3);
+        try {
+            TestResults results = tester.runTests();
+            assertEquals(Set.of(1, 2), results.getWrongSet());
+            assertEquals(Set.of(1), results.getNondeterministicFiles());
+            assertEquals(0.5, results.getFailureRate(2, 1));
+            assertEquals(0.0, results.getFailureRate(3, 1));
+            assertEquals(1.0, results.getFailureRate(3, 2));
+            assertEquals(List.of(Set.of(), Set.of(), Set.of(1), Set.of(2), Set.of()),
+                    results.getCaseToFiles());
+
+            // Each file is run once in full plus the sample; only the flaky one is run
+            // again, twice more in full
+            assertEquals(40, numRuns.stream().mapToInt(Integer::intValue).sum());
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        } finally {
+            counter.toFile().delete();
+        }
+    }
+
+    /**
+     * Tests that, with timing enabled, an implementation that passes a test case but is
+     * far slower than the reference solution on it fails that test case, with the
+     * runtimes of both recorded.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(72)
+    void testRunTestsTimingThreshold() {
+        try {
+            Path solution = Files.createTempFile("timedsol", ".py");
+            Files.writeString(solution, "def func0(intval):\n    return intval\n");
+            Tester tester = new Tester("func0", solution.toString(), userDir +
+                    "/src/test/rice/test/pyfiles/f0slow", f0Tests);
+            tester.setComparisonMode(ComparisonMode.CANONICAL);
+            tester.setTimingThreshold(100, 3);
+            try {
+                assertEquals(List.of("0", "1", "2", "3", "4"),
+                        tester.computeExpectedResults());
+                assertEquals(5, tester.getReferenceTimes().size());
+
+                TestResults results = tester.runTests();
+                assertEquals(Set.of(1, 2), results.getWrongSet());
+                assertEquals(List.of(Set.of(2), Set.of(), Set.of(), Set.of(), Set.of(1)),
+                        results.getCaseToFiles());
+                assertEquals(Outcome.TOO_SLOW, results.getOutcome(4, 1));
+                assertEquals(Outcome.FAILED, results.getOutcome(0, 2));
+                assertTrue(tester.getSlowdowns().get("impl1.py").get(4) > 100);
+                assertTrue(tester.getSlowdowns().get("impl0.py").get(4) < 100);
+            } finally {
+                Files.delete(solution);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        }
+    }
+
+    /**
+     * Tests that a verdict listener receives the verdict of every test case on every
+     * file, one file at a time and in order, each followed by the signal that the file
+     * is done.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(73)
+    void testRunTestsVerdictListener() {
+        boolean[][] faults = new boolean[][]{
+                {false, false, false, false, false},
+                {true, false, true, false, false},
+                {false, false, false, false, true}};
+        List<String> events = new ArrayList<>();
+        VerdictListener listener = new VerdictListener() {
+            @Override
+            public void onVerdict(int fileIndex, int caseIndex, boolean caught) {
+                events.add(fileIndex + ":" + caseIndex + ":" + caught);
+            }
+
+            @Override
+            public void onFileDone(int fileIndex) {
+                events.add(fileIndex + ":done");
+            }
+        };
+        runTestsHelper("func0", f0Tests, "f0oneRight", "results = [0, 1, 2, 3, 4]",
+                Set.of(1, 2), List.of(Set.of(1), Set.of(), Set.of(1), Set.of(), Set.of(2)),
+                1, tester -> {
+                    tester.setBackend(new FakeBackend(faults));
+                    tester.setVerdictListener(listener);
+                });
+
+        List<String> expected = new ArrayList<>();
+        for (int file = 0; file < faults.length; file++) {
+            for (int test = 0; test < f0Tests.size(); test++) {
+                expected.add(file + ":" + test + ":" + faults[file][test]);
+            }
+            expected.add(file + ":done");
+        }
+        assertEquals(expected, events);
+    }
+
+    /**
+     * Tests pilot-sample screening: files outside the sample are only run on the test
+     * cases that caught a sampled file (plus the reserve), and the report says so.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(74)
+    void testRunTestsPilotScreening() {
+        // Every incorrect file is caught by test 1 alone, so whichever three files are
+        // sampled, at least two of them are caught by it
+        boolean[][] shared = new boolean[6][5];
+        for (int file = 1; file < 6; file++) {
+            shared[file][1] = true;
+        }
+        FakeBackend sharedBackend = new FakeBackend(shared);
+        Tester[] tester = new Tester[1];
+        runTestsHelper("func0", f0Tests, "f0oneRight", "results = [0, 1, 2, 3, 4]",
+                Set.of(), List.of(Set.of(), Set.of(1, 2, 3, 4, 5), Set.of(), Set.of(), Set.of()),
+                1, t -> {
+                    t.setBackend(sharedBackend);
+                    t.setPilotScreening(3, 1, 42);
+                    tester[0] = t;
+                });
+        ScreeningReport report = tester[0].getScreeningReport();
+        assertEquals(3, report.getSampledFiles());
+        assertEquals(1, report.getKeptTests());
+        assertEquals(1, report.getReserveTests());
+        assertEquals(3, report.getScreenedOutTests());
+        assertEquals(9, report.getSavedExecutions());
+        assertEquals(0.0, report.getEstimatedMissRate());
+        assertEquals(3 * 5 + 3 * 2, sharedBackend.getNumExecutions());
+
+        // Every incorrect file is caught by a different test, so none of the sampled
+        // ones would have been caught had it been left out
+        boolean[][] distinct = new boolean[6][5];
+        for (int file = 1; file < 6; file++) {
+            distinct[file][file - 1] = true;
+        }
+        FakeBackend distinctBackend = new FakeBackend(distinct);
+        runTestsHelper("func0", f0Tests, "f0oneRight", "results = [0, 1, 2, 3, 4]",
+                Set.of(), null, 2, t -> {
+                    t.setBackend(distinctBackend);
+                    t.setPilotScreening(3, 0, 42);
+                    tester[0] = t;
+                });
+        report = tester[0].getScreeningReport();
+        assertEquals(1.0, report.getEstimatedMissRate());
+        assertEquals(5, report.getKeptTests() + report.getScreenedOutTests());
+        assertEquals(3 * 5 + 3 * report.getKeptTests(), distinctBackend.getNumExecutions());
+
+        // Without screening, there's no report
+        runTestsHelper("func0", f0Tests, "f0oneRight", "results = [0, 1, 2, 3, 4]",
+                Set.of(), null, 2, t -> {
+                    t.setBackend(new FakeBackend(distinct));
+                    tester[0] = t;
+                });
+        assertNull(tester[0].getScreeningReport());
+    }
+
+    /**
+     * Tests pruning by coverage: func1 takes one of two branches depending on its first
+     * argument, so only the first test case down each branch (plus the extras) is run.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(75)
+    void testCoveragePruning() {
+        boolean[][] faults = new boolean[3][8];
+        faults[1] = new boolean[]{false, true, false, false, true, false, false, false};
+        faults[2] = new boolean[]{false, false, false, false, false, false, true, false};
+        try {
+            Tester tester = new Tester("func1",
+                    userDir + "/src/test/rice/test/pyfiles/sols/func1sol.py",
+                    userDir + "/src/test/rice/test/pyfiles/f0oneRight", f1Tests);
+            tester.setCoveragePruning(1, 0, 0);
+            List<String> expected = tester.computeExpectedResults();
+            assertEquals("-5.07", expected.get(7));
+            List<String> signatures = tester.getCoverageSignatures();
+            assertEquals(8, signatures.size());
+            assertEquals(Set.of(signatures.get(0)), new HashSet<>(signatures.subList(0, 4)));
+            assertEquals(Set.of(signatures.get(4)), new HashSet<>(signatures.subList(4, 8)));
+            assertNotEquals(signatures.get(0), signatures.get(4));
+            assertEquals(List.of(0, 4), tester.getSelectedTests());
+
+            // Only the selected test cases are run, so only test 4 catches anything
+            FakeBackend backend = new FakeBackend(faults);
+            tester.setBackend(backend);
+            TestResults results = tester.runTests();
+            assertEquals(Set.of(1), results.getWrongSet());
+            assertEquals(Set.of(1), results.getCaseToFiles().get(4));
+            assertEquals(3 * 2, backend.getNumExecutions());
+
+            // Extras are added back from the pruned test cases
+            tester.setCoveragePruning(1, 2, 0);
+            tester.setBackend(new SubprocessBackend());
+            tester.computeExpectedResults();
+            List<Integer> selected = tester.getSelectedTests();
+            assertEquals(4, selected.size());
+            assertTrue(selected.containsAll(List.of(0, 4)));
+
+            // Tracing coexists with timing, which doesn't trace the timed calls
+            tester.setCoveragePruning(1, 0, 0);
+            tester.setTimingThreshold(100, 1);
+            assertEquals(expected, tester.computeExpectedResults());
+            assertEquals(signatures, tester.getCoverageSignatures());
+            assertEquals(8, tester.getReferenceTimes().size());
+        } catch (IOException | InterruptedException e) {
+            fail(e);
+        } finally {
+            deletedExpected("f0oneRight");
+        }
+    }
+
     /**
      * Sets up the test cases for function f0, which takes one simple argument.
      */
@@ -1047,8 +1979,23 @@ class TesterTest {
     private static void runTestsHelper(String funcName, List<TestCase> tests, String implDir,
                                 String solResults, Set<Integer> expWrongSet, List<Set<Integer>> expResults,
                                 int outputToCheck) {
+        runTestsHelper(funcName, tests, implDir, solResults, expWrongSet, expResults,
+                outputToCheck, tester -> {});
+    }
+
+    /**
+     * Helper function for testing the runTests() function on a Tester that has been
+     * configured (e.g. to use a particular execution mode) by the given callback; see
+     * the overload above for the other parameters.
+     *
+     * @param configure a callback that configures the Tester before running it
+     */
+    private static void runTestsHelper(String funcName, List<TestCase> tests, String implDir,
+                                String solResults, Set<Integer> expWrongSet, List<Set<Integer>> expResults,
+                                int outputToCheck, Consumer<Tester> configure) {
         Tester tester = new Tester(funcName, null,
                 userDir + "/src/test/rice/test/pyfiles/" + implDir, tests);
+        configure.accept(tester);
         try {
             // Generate the expected.py file (to fake computing the expected results
             // without creating a dependency on computeExpectedResults())
@@ -1078,6 +2025,78 @@ class TesterTest {
         }
     }
 
+    /**
+     * Helper function for testing deduplication: runs the tests on the implementations
+     * in f0duplicates with the given kind of deduplication, and checks that the results
+     * are the same as without deduplication.
+     *
+     * @param deduplication the kind of deduplication to be used
+     * @return the names of the implementations that were actually tested
+     */
+    private static List<String> runDeduplicatedHelper(Deduplication deduplication) {
+        String implDirPath = userDir + "/src/test/rice/test/pyfiles/f0duplicates";
+        List<String> tested = new ArrayList<>();
+        Tester tester = new Tester("func0", null, implDirPath, f0Tests);
+        tester.setDeduplication(deduplication);
+        tester.setBackend(new SubprocessBackend() {
+            @Override
+            public List<String> runImplementation(String implDirPath, String filename,
+                                                  String funcName, String argFilePath,
+                                                  List<Integer> testIndices)
+                    throws IOException, InterruptedException {
+                tested.add(filename);
+                return super.runImplementation(implDirPath, filename, funcName,
+                        argFilePath, testIndices);
+            }
+        });
+        try {
+            FileWriter writer = new FileWriter(implDirPath + "/expected.py");
+            writer.write("results = [0, 1, 2, 3, 4]");
+            writer.close();
+            TestResults results = tester.runTests();
+
+            assertEquals(Set.of(1, 3, 4), results.getWrongSet());
+            assertEquals(List.of(Set.of(), Set.of(), Set.of(), Set.of(1, 3, 4),
+                    Set.of(1, 3, 4)), results.getCaseToFiles());
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        } finally {
+            deletedExpected("f0duplicates");
+        }
+        return tested;
+    }
+
+    /**
+     * Helper function for testing resource limits on the f0limits implementations, each of
+     * which exceeds a different limit on a different test case.
+     *
+     * @param backend the backend to run the test cases with
+     */
+    private static void limitsHelper(ExecutionBackend backend) {
+        assertTimeoutPreemptively(java.time.Duration.ofSeconds(120), () -> {
+            Tester tester = new Tester("func0", null, userDir +
+                    "/src/test/rice/test/pyfiles/f0limits", f0Tests);
+            tester.setBackend(backend);
+            tester.setComparisonMode(ComparisonMode.CANONICAL);
+            tester.setExpectedResults(List.of("0", "1", "2", "3", "4"));
+            tester.setResourceLimits(new ResourceLimits(1, 256L << 20, 64L << 10));
+            try {
+                TestResults results = tester.runTests();
+                assertEquals(Set.of(1, 2, 3, 4), results.getWrongSet());
+                assertEquals(List.of(Set.of(), Set.of(1), Set.of(2), Set.of(3), Set.of(4)),
+                        results.getCaseToFiles());
+                assertEquals(List.of(Map.of(), Map.of(1, Outcome.CPU_LIMIT),
+                        Map.of(2, Outcome.MEMORY_LIMIT), Map.of(3, Outcome.OUTPUT_LIMIT),
+                        Map.of(4, Outcome.OUTPUT_LIMIT)), results.getCaseToViolations());
+                assertEquals(Outcome.PASSED, results.getOutcome(0, 1));
+                assertEquals(Outcome.CPU_LIMIT, results.getOutcome(1, 1));
+            } finally {
+                deletedExpected("f0limits");
+            }
+        });
+    }
+
     /**
      * Deletes the file containing the expected results.
      *
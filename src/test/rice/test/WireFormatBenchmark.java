@@ -0,0 +1,102 @@
+package test.rice.test;
+
+import main.rice.obj.*;
+import main.rice.test.TestCase;
+import main.rice.test.WireFormat;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * A benchmark (run via its main method, rather than as part of the test suite) that
+ * compares the per-call cost of decoding test arguments using the binary wire format
+ * against the cost of eval-ing their Python source text, which is how arguments used to
+ * be passed. Both are timed inside a single Python process, so that process startup
+ * does not factor in.
+ */
+public class WireFormatBenchmark {
+
+    /**
+     * Runs the benchmark on nested dict/list arguments of several sizes, printing the
+     * mean time per decode for both formats.
+     *
+     * @param args unused
+     * @throws IOException if the temporary files cannot be written
+     * @throws InterruptedException if the Python process is interrupted
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        System.out.println("size\teval (us)\tdecode (us)\tspeedup");
+        for (int size : new int[]{10, 100, 1000, 10000}) {
+            TestCase test = buildNestedCase(size, new Random(size));
+            double[] times = timeInPython(test);
+            System.out.printf("%d\t%.1f\t%.1f\t%.1fx%n", size, times[0], times[1],
+                    times[0] / times[1]);
+        }
+    }
+
+    /**
+     * Builds a test case with two arguments: a dict mapping size strings to lists of
+     * ints, and a list of size (int, float, str) tuples.
+     *
+     * @param size the number of entries in each argument
+     * @param rand the source of randomness for the contents
+     * @return the test case
+     */
+    private static TestCase buildNestedCase(int size, Random rand) {
+        Map<PyStringObj, PyListObj<PyIntObj>> dict = new HashMap<>();
+        List<PyTupleObj<APyObj<?>>> tuples = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            List<PyIntObj> ints = new ArrayList<>();
+            for (int j = 0; j < 10; j++) {
+                ints.add(new PyIntObj(rand.nextInt()));
+            }
+            dict.put(new PyStringObj("key" + i), new PyListObj<>(ints));
+            tuples.add(new PyTupleObj<>(List.of(new PyIntObj(i),
+                    new PyFloatObj(rand.nextDouble()), new PyStringObj("val" + i))));
+        }
+        return new TestCase(List.of(new PyDictObj<>(dict), new PyListObj<>(tuples)));
+    }
+
+    /**
+     * Times eval-ing the source text of the given test's arguments and decoding their
+     * wire encoding within one Python process.
+     *
+     * @param test the test case whose arguments are to be decoded
+     * @return the mean time (in microseconds) per eval and per decode, respectively
+     * @throws IOException if the temporary files cannot be written
+     * @throws InterruptedException if the Python process is interrupted
+     */
+    private static double[] timeInPython(TestCase test)
+            throws IOException, InterruptedException {
+        Path dir = Files.createTempDirectory("wirebench");
+        Path reprFile = dir.resolve("args.txt");
+        Path binFile = dir.resolve("args.bin");
+        Files.writeString(reprFile, test.toString());
+        Files.write(binFile, WireFormat.encodeArgs(test));
+
+        String script = WireFormat.pythonDecoder()
+                + "import sys, timeit\n"
+                + "src = open(sys.argv[1]).read()\n"
+                + "buf = open(sys.argv[2], 'rb').read()\n"
+                + "assert eval(src) == decode_seq(buf, 0)[0]\n"
+                + "n = max(3, 20000 // len(buf))\n"
+                + "e = min(timeit.repeat(lambda: eval(src), number=n, repeat=5)) / n\n"
+                + "d = min(timeit.repeat(lambda: decode_seq(buf, 0), number=n, "
+                + "repeat=5)) / n\n"
+                + "print(e * 1e6, d * 1e6)\n";
+        Process process = new ProcessBuilder("python3", "-c", script,
+                reprFile.toString(), binFile.toString()).inheritIO()
+                .redirectOutput(ProcessBuilder.Redirect.PIPE).start();
+        String[] output = new String(process.getInputStream().readAllBytes(),
+                StandardCharsets.UTF_8).strip().split(" ");
+        process.waitFor();
+
+        Files.delete(reprFile);
+        Files.delete(binFile);
+        Files.delete(dir);
+        return new double[]{Double.parseDouble(output[0]), Double.parseDouble(output[1])};
+    }
+}
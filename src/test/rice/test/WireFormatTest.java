@@ -0,0 +1,152 @@
+package test.rice.test;
+
+import main.rice.obj.*;
+import main.rice.test.TestCase;
+import main.rice.test.WireFormat;
+import org.junit.jupiter.api.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the WireFormat class.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class WireFormatTest {
+
+    /**
+     * Tests the encoding of a single int argument, which is packed as a sequence of
+     * ints.
+     */
+    @Test
+    @Tag("0.5")
+    @Order(1)
+    void testEncodeOneInt() {
+        byte[] actual = WireFormat.encodeArgs(new TestCase(List.of(new PyIntObj(-2))));
+        byte[] expected = ByteBuffer.allocate(13).put((byte) 'q').putInt(1).putLong(-2)
+                .array();
+        assertArrayEquals(expected, actual);
+    }
+
+    /**
+     * Tests the encoding of mixed arguments, which are encoded one by one.
+     */
+    @Test
+    @Tag("0.5")
+    @Order(2)
+    void testEncodeMixed() {
+        byte[] actual = WireFormat.encodeArgs(new TestCase(List.of(new PyBoolObj(true),
+                new PyFloatObj(1.5), new PyStringObj("h\u00e9"))));
+        byte[] str = "h\u00e9".getBytes(StandardCharsets.UTF_8);
+        byte[] expected = ByteBuffer.allocate(5 + 2 + 9 + 5 + str.length)
+                .put((byte) 'x').putInt(3)
+                .put((byte) 'B').put((byte) 1)
+                .put((byte) 'F').putDouble(1.5)
+                .put((byte) 'U').putInt(str.length).put(str)
+                .array();
+        assertArrayEquals(expected, actual);
+    }
+
+    /**
+     * Tests the encoding of a list of strings, which is packed as code point lengths
+     * followed by the concatenated UTF-8 bytes.
+     */
+    @Test
+    @Tag("0.5")
+    @Order(3)
+    void testEncodePackedStrings() {
+        PyListObj<PyStringObj> list = new PyListObj<>(List.of(new PyStringObj("ab"),
+                new PyStringObj(""), new PyStringObj("\u00e9")));
+        byte[] actual = WireFormat.encodeArgs(new TestCase(List.of(list)));
+        byte[] text = "ab\u00e9".getBytes(StandardCharsets.UTF_8);
+        byte[] expected = ByteBuffer.allocate(5 + 1 + 5 + 12 + 4 + text.length)
+                .put((byte) 'x').putInt(1)
+                .put((byte) 'L').put((byte) 'w').putInt(3)
+                .putInt(2).putInt(0).putInt(1)
+                .putInt(text.length).put(text)
+                .array();
+        assertArrayEquals(expected, actual);
+    }
+
+    /**
+     * Tests that the Python decoder reproduces nested arguments of every type.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(4)
+    void testPythonRoundTrip() throws IOException, InterruptedException {
+        Map<PyStringObj, PyListObj<PyIntObj>> map = new LinkedHashMap<>();
+        map.put(new PyStringObj("a"), new PyListObj<>(List.of(new PyIntObj(1),
+                new PyIntObj(2))));
+        map.put(new PyStringObj("b"), new PyListObj<>(List.of()));
+        TestCase test = new TestCase(List.of(
+                new PyDictObj<>(map),
+                new PyTupleObj<>(List.of(new PyFloatObj(-0.5), new PyBoolObj(false))),
+                new PySetObj<>(Set.of(new PyIntObj(7))),
+                new PyListObj<>(List.of(new PyStringObj("x'y"), new PyCharObj('z'))),
+                new PyTupleObj<>(List.of())));
+
+        String expected = "[{'a': [1, 2], 'b': []}, (-0.5, False), {7}, "
+                + "[\"x'y\", 'z'], ()]";
+        assertEquals(expected, decodeInPython(WireFormat.encodeArgs(test)));
+    }
+
+    /**
+     * Tests that the Java decoder reproduces nested arguments of every type, and that a
+     * character decodes as a one-character string.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(5)
+    void testJavaRoundTrip() throws IOException {
+        Map<PyStringObj, PyListObj<PyIntObj>> map = new LinkedHashMap<>();
+        map.put(new PyStringObj("a"), new PyListObj<>(List.of(new PyIntObj(1),
+                new PyIntObj(-2))));
+        map.put(new PyStringObj("b"), new PyListObj<>(List.of()));
+        TestCase test = new TestCase(List.of(
+                new PyDictObj<>(map),
+                new PyTupleObj<>(List.of(new PyFloatObj(-0.5), new PyBoolObj(false))),
+                new PySetObj<>(Set.of(new PyIntObj(7), new PyIntObj(8))),
+                new PyListObj<>(List.of(new PyStringObj("x'y"), new PyStringObj("h\u00e9"),
+                        new PyStringObj(""))),
+                new PyListObj<>(List.of(new PyFloatObj(1.0), new PyFloatObj(2.5))),
+                new PyListObj<>(List.of(new PyBoolObj(true))),
+                new PyTupleObj<>(List.of())));
+        assertEquals(test, WireFormat.decodeArgs(WireFormat.encodeArgs(test)));
+
+        TestCase character = new TestCase(List.of(new PyCharObj('z')));
+        assertEquals(new TestCase(List.of(new PyStringObj("z"))),
+                WireFormat.decodeArgs(WireFormat.encodeArgs(character)));
+
+        // Truncated input is rejected
+        byte[] encoded = WireFormat.encodeArgs(test);
+        assertThrows(IOException.class, () -> WireFormat.decodeArgs(
+                Arrays.copyOf(encoded, encoded.length - 1)));
+    }
+
+    /**
+     * Decodes the given encoded arguments using the Python decoder and returns the repr
+     * of the decoded list.
+     *
+     * @param encoded the encoded arguments
+     * @return the repr of the decoded arguments
+     */
+    private static String decodeInPython(byte[] encoded)
+            throws IOException, InterruptedException {
+        String script = WireFormat.pythonDecoder()
+                + "import sys\n"
+                + "print(repr(decode_seq(sys.stdin.buffer.read(), 0)[0]))\n";
+        Process process = new ProcessBuilder("python3", "-c", script).start();
+        try (OutputStream stdin = process.getOutputStream()) {
+            stdin.write(encoded);
+        }
+        String output = new String(process.getInputStream().readAllBytes(),
+                StandardCharsets.UTF_8).strip();
+        process.waitFor();
+        return output;
+    }
+}
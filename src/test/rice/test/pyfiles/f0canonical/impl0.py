@@ -0,0 +1,2 @@
+def func0(intval):
+    return {intval + 1: {2.0, 1.0}, intval: (intval,)}
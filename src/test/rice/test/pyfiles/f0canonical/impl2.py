@@ -0,0 +1,2 @@
+def func0(intval):
+    return {intval: (intval,), intval + 1: {1, 2, 3}}
@@ -0,0 +1,6 @@
+# An off-by-one error
+def func0(intval):
+
+  if intval>2:  # wrong
+    return intval+1
+  return intval
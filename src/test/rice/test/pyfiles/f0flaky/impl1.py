@@ -0,0 +1,17 @@
+import os
+
+COUNTER = os.path.join(os.path.dirname(os.path.abspath(__file__)), "flaky.count")
+
+
+def func0(intval):
+    # Fails every other time one test case is run, keeping count in a file
+    if intval == 2:
+        count = 0
+        if os.path.exists(COUNTER):
+            with open(COUNTER) as f:
+                count = int(f.read())
+        with open(COUNTER, "w") as f:
+            f.write(str(count + 1))
+        if count % 2 == 0:
+            return intval + 1
+    return intval
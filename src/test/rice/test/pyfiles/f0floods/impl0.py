@@ -0,0 +1,10 @@
+import sys
+
+
+def func0(intval):
+    # Far more than fits in a pipe, on both streams, ending without a newline
+    for i in range(20000):
+        print("flooding stdout", i)
+        print("flooding stderr", i, file=sys.stderr)
+    print(intval + 1, end="")
+    return intval
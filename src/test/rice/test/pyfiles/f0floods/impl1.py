@@ -0,0 +1,7 @@
+import os
+
+
+def func0(intval):
+    # Writes straight to fd 1, bypassing sys.stdout
+    os.write(1, b"True\n")
+    return intval + 1
@@ -0,0 +1 @@
+func0 = 5
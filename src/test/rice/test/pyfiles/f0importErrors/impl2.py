@@ -0,0 +1,5 @@
+print("loading")
+
+
+def func0(intval):
+    return intval
@@ -0,0 +1,6 @@
+import os
+os._exit(3)
+
+
+def func0(intval):
+    return intval
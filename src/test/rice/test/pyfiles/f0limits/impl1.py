@@ -0,0 +1,5 @@
+def func0(intval):
+    # Spins forever on one test case
+    while intval == 1:
+        pass
+    return intval
@@ -0,0 +1,5 @@
+def func0(intval):
+    # Allocates far too much memory on one test case
+    if intval == 2:
+        return len([0] * (1 << 31))
+    return intval
@@ -0,0 +1,6 @@
+def func0(intval):
+    # Prints far too much on one test case
+    if intval == 3:
+        for i in range(100000):
+            print("flooding stdout", i)
+    return intval
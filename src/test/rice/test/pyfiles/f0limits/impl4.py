@@ -0,0 +1,10 @@
+import tempfile
+
+
+def func0(intval):
+    # Writes far too large a file on one test case
+    if intval == 4:
+        with tempfile.TemporaryFile() as f:
+            f.write(b"x" * (1 << 20))
+            f.flush()
+    return intval
@@ -0,0 +1,8 @@
+calls = []
+
+
+def func0(intval):
+    calls.append(intval)
+    if len(calls) > 1:
+        return -1
+    return intval
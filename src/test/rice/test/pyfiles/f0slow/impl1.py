@@ -0,0 +1,8 @@
+import time
+
+
+def func0(intval):
+    # Correct, but far slower than the reference on one test case
+    if intval == 4:
+        time.sleep(0.05)
+    return intval